@@ -0,0 +1,81 @@
+/**
+ * Measures the heap allocated by read-only traffic against each MultiMap:
+ * repeated getAll lookups (hits and misses) and full keySet traversals.
+ * Allocation is read from the JVM's per-thread allocation counter, so the
+ * figures are bytes per call, independent of GC timing.
+ */
+
+package hash_main;
+
+import java.lang.management.ManagementFactory;
+
+import hashing.LinkedMultiMap;
+import hashing.MultiHashMap;
+import hashing.MultiMap;
+import hashing.OpenAddressingMultiMap;
+
+public class AllocationBenchmark
+{
+	private static final String[] VALUES = {"a", "b", "c", "d", "e", "f", "g", "h", "i", "j"};
+
+	private static final com.sun.management.ThreadMXBean THREADS =
+		(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	private static long sink;   // keeps the traversals from being optimized away
+
+	public static void main(String[] args)
+	{
+		final int KEYS = 10000;
+		final int LOOKUPS = 1000000;
+
+		for (int run = 0; run < 3; run++)
+		{
+			// earlier runs are warm-ups
+			boolean report = run == 2;
+
+			measure("MultiHashMap", new MultiHashMap<Integer, String>(), KEYS, LOOKUPS, report);
+			measure("OpenAddressingMultiMap", new OpenAddressingMultiMap<Integer, String>(), KEYS, LOOKUPS, report);
+			measure("LinkedMultiMap", new LinkedMultiMap<Integer, String>(), KEYS / 10, LOOKUPS / 100, report);
+		}
+	}
+
+	private static void measure(String label, MultiMap<Integer, String> map,
+	                            int keys, int lookups, boolean report)
+	{
+		for (int KEY = 0; KEY < keys; KEY++)
+		{
+			for (String value : VALUES) map.put(KEY, value);
+		}
+
+		// keys in [0, keys) hit, the rest miss; boxed ahead of time so that
+		// Integer allocation is not counted against the map
+		Integer[] probes = new Integer[2 * keys];
+		for (int i = 0; i < probes.length; i++) probes[i] = i;
+
+		long before = allocatedBytes();
+		for (int i = 0; i < lookups; i++)
+		{
+			for (String value : map.getAll(probes[i % probes.length])) sink += value.length();
+		}
+		double perGetAll = (double) (allocatedBytes() - before) / lookups;
+
+		final int TRAVERSALS = 100;
+		before = allocatedBytes();
+		for (int i = 0; i < TRAVERSALS; i++)
+		{
+			for (Integer key : map.keySet()) sink += key;
+		}
+		double perKeySet = (double) (allocatedBytes() - before) / TRAVERSALS;
+
+		if (!report) return;
+
+		System.out.println(label + " (" + keys + " keys, " + VALUES.length + " values each)");
+		System.out.printf("\tbytes per getAll:  %.1f%n", perGetAll);
+		System.out.printf("\tbytes per keySet:  %.1f%n", perKeySet);
+	}
+
+	private static long allocatedBytes()
+	{
+		return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+}
@@ -0,0 +1,73 @@
+/**
+ * Times three ways of building a MultiHashMap from an existing list of pairs:
+ * one put per pair, a single putAll (which presizes the table), and the
+ * parallel MultiHashMap.bulkLoad. Reports the best of several runs and how
+ * many resizes each build performed.
+ *
+ * Run with a large heap, e.g. -Xms3g -Xmx3g, so that GC does not dominate.
+ */
+
+package hash_main;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+import hashing.MultiHashMap;
+
+public class BulkLoadBenchmark
+{
+	private static final String[] VALUES = {"a", "b", "c", "d", "e", "f", "g", "h", "i", "j"};
+	private static final int KEYS = 500000;
+	private static final int RUNS = 5;
+
+	public static void main(String[] args)
+	{
+		List<Map.Entry<Integer, String>> pairs = new ArrayList<Map.Entry<Integer, String>>();
+		for (int KEY = 0; KEY < KEYS; KEY++)
+		{
+			for (String value : VALUES) pairs.add(new SimpleEntry<Integer, String>(KEY, value));
+		}
+
+		System.out.println(pairs.size() + " pairs, " + ForkJoinPool.commonPool().getParallelism() + " pool threads");
+
+		time("put per pair", pairs, p -> {
+			MultiHashMap<Integer, String> map = new MultiHashMap<Integer, String>();
+			for (Map.Entry<Integer, String> pair : p) map.put(pair.getKey(), pair.getValue());
+			return map;
+		});
+
+		time("putAll", pairs, p -> {
+			MultiHashMap<Integer, String> map = new MultiHashMap<Integer, String>();
+			map.putAll(p);
+			return map;
+		});
+
+		time("bulkLoad", pairs, p -> MultiHashMap.bulkLoad(p));
+	}
+
+	private static void time(String label, List<Map.Entry<Integer, String>> pairs,
+	                         Function<List<Map.Entry<Integer, String>>, MultiHashMap<Integer, String>> build)
+	{
+		long best = Long.MAX_VALUE;
+		int resizes = 0;
+
+		for (int run = 0; run < RUNS; run++)
+		{
+			System.gc();
+
+			long start = System.nanoTime();
+			MultiHashMap<Integer, String> map = build.apply(pairs);
+			best = Math.min(best, System.nanoTime() - start);
+
+			resizes = map.resizeCount();
+			if (map.size() != pairs.size()) throw new IllegalStateException(label + " lost pairs");
+		}
+
+		System.out.println(label);
+		System.out.println("\tbest of " + RUNS + ": " + best / 1000000 + " ms, " + resizes + " resizes");
+	}
+}
@@ -0,0 +1,65 @@
+/**
+ * Exercises LinkedMultiMap on a single chain of one million distinct keys,
+ * the length at which the old recursive delete overflowed the stack. It
+ * times deletions from the far end of the list, deleteAll, and a deleteIf
+ * that removes half of the pairs in one pass.
+ */
+
+package hash_main;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import hashing.LinkedMultiMap;
+
+public class ChainDeleteBenchmark
+{
+	private static final int KEYS = 1000000;
+	private static final int TAIL_DELETES = 100;
+
+	public static void main(String[] args)
+	{
+		List<Map.Entry<Integer, Integer>> pairs = new ArrayList<Map.Entry<Integer, Integer>>();
+		for (int KEY = 0; KEY < KEYS; KEY++)
+		{
+			pairs.add(new SimpleEntry<Integer, Integer>(KEY, 0));
+			pairs.add(new SimpleEntry<Integer, Integer>(KEY, 1));
+		}
+
+		for (int run = 0; run < 3; run++)
+		{
+			// earlier runs are warm-ups
+			boolean report = run == 2;
+
+			LinkedMultiMap<Integer, Integer> map = new LinkedMultiMap<Integer, Integer>();
+
+			long start = System.nanoTime();
+			map.putAll(pairs);
+			long build = System.nanoTime() - start;
+
+			// keys are linked in at the front, so the smallest keys are at the far end
+			start = System.nanoTime();
+			for (int KEY = 0; KEY < TAIL_DELETES; KEY++) map.delete(KEY, 0);
+			long delete = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (int KEY = 0; KEY < TAIL_DELETES; KEY++) map.deleteAll(KEY);
+			long deleteAll = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			int removed = map.deleteIf((key, value) -> value == 1);
+			long deleteIf = System.nanoTime() - start;
+
+			if (!report) continue;
+
+			System.out.println("LinkedMultiMap, " + KEYS + " keys x 2 values in one chain");
+			System.out.printf("\tputAll:             %8.1f ms%n", build / 1e6);
+			System.out.printf("\tdelete (tail key):  %8.2f ms each%n", delete / 1e6 / TAIL_DELETES);
+			System.out.printf("\tdeleteAll (tail):   %8.2f ms each%n", deleteAll / 1e6 / TAIL_DELETES);
+			System.out.printf("\tdeleteIf:           %8.1f ms for %d pairs, %.1f ns per pair%n",
+			                  deleteIf / 1e6, removed, (double) deleteIf / removed);
+		}
+	}
+}
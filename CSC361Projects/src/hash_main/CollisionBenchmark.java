@@ -0,0 +1,78 @@
+/**
+ * Times MultiHashMap when every key has the same hash code, as a flood of
+ * crafted keys would produce: puts, then lookups of present and absent keys,
+ * with chains indexed by a tree (the default) and without. Without the tree
+ * each operation scans the whole chain, so the run grows quadratically with
+ * the number of keys. A map with ordinary keys is timed for comparison.
+ */
+
+package hash_main;
+
+import hashing.MultiHashMap;
+
+public class CollisionBenchmark
+{
+	private static final int KEYS = 20000;
+
+	// A Comparable key whose hash codes all collide
+	private static final class CollidingKey implements Comparable<CollidingKey>
+	{
+		private final int _id;
+
+		CollidingKey(int id) { _id = id; }
+
+		@Override
+		public int hashCode() { return 0; }
+
+		@Override
+		public boolean equals(Object other) { return other instanceof CollidingKey && ((CollidingKey) other)._id == _id; }
+
+		@Override
+		public int compareTo(CollidingKey other) { return Integer.compare(_id, other._id); }
+	}
+
+	private interface KeyFactory<Key> { Key make(int id); }
+
+	private static <Key> void run(String label, MultiHashMap<Key, Integer> map, KeyFactory<Key> keys, boolean report)
+	{
+		long start = System.nanoTime();
+		for (int KEY = 0; KEY < KEYS; KEY++)
+		{
+			map.put(keys.make(KEY), 0);
+			map.put(keys.make(KEY), 1);
+		}
+		long put = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		int found = 0;
+		for (int KEY = 0; KEY < 2 * KEYS; KEY++)
+		{
+			if (map.contains(keys.make(KEY))) found++;
+		}
+		long lookup = System.nanoTime() - start;
+
+		if (found != KEYS) throw new IllegalStateException("lost keys: " + found);
+		if (!report) return;
+
+		System.out.printf("\t%-22s put %8.1f ms (%7.0f ns each), contains %8.1f ms (%7.0f ns each)%n",
+		                  label, put / 1e6, (double) put / (2 * KEYS), lookup / 1e6, (double) lookup / (2 * KEYS));
+	}
+
+	public static void main(String[] args)
+	{
+		System.out.println("MultiHashMap, " + KEYS + " keys x 2 values");
+
+		for (int rep = 0; rep < 3; rep++)
+		{
+			// earlier runs are warm-ups
+			boolean report = rep == 2;
+
+			run("distinct hash codes", new MultiHashMap<Integer, Integer>(), KEY -> KEY, report);
+			run("colliding, tree", new MultiHashMap<CollidingKey, Integer>(), CollidingKey::new, report);
+			run("colliding, seeded", MultiHashMap.<CollidingKey, Integer>builder().hashSeed(rep).build(),
+			    CollidingKey::new, report);
+			run("colliding, list only", MultiHashMap.<CollidingKey, Integer>builder().treeifyChains(false).build(),
+			    CollidingKey::new, report);
+		}
+	}
+}
@@ -0,0 +1,113 @@
+/**
+ * Measures multi-threaded throughput of ConcurrentMultiHashMap against a
+ * MultiHashMap behind one global lock, for 1 up to 2 * (available processors)
+ * threads. Each thread runs a read-mostly mix (80% getAll/contains, 20% put or
+ * deleteAll) over a shared key space.
+ */
+
+package hash_main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import hashing.ConcurrentMultiHashMap;
+import hashing.MultiHashMap;
+import hashing.MultiMap;
+
+public class ConcurrentThroughput
+{
+	private static final String[] VALUES = {"a", "b", "c", "d", "e", "f", "g", "h", "i", "j"};
+	private static final int KEY_SPACE = 100000;
+	private static final int OPS_PER_THREAD = 1000000;
+
+	public static void main(String[] args) throws InterruptedException
+	{
+		int maxThreads = 2 * Runtime.getRuntime().availableProcessors();
+
+		// warm-up
+		run(new ConcurrentMultiHashMap<Integer, String>(), 2);
+		run(new LockedMultiMap<Integer, String>(new MultiHashMap<Integer, String>()), 2);
+
+		for (int threads = 1; threads <= maxThreads; threads *= 2)
+		{
+			double striped = run(new ConcurrentMultiHashMap<Integer, String>(), threads);
+			double locked = run(new LockedMultiMap<Integer, String>(new MultiHashMap<Integer, String>()), threads);
+
+			System.out.println(threads + " threads");
+			System.out.println(String.format("\tConcurrentMultiHashMap  %.0f ops/ms", striped));
+			System.out.println(String.format("\tlocked MultiHashMap     %.0f ops/ms", locked));
+		}
+	}
+
+	// returns throughput in operations per millisecond
+	private static double run(MultiMap<Integer, String> map, int threads) throws InterruptedException
+	{
+		for (int KEY = 0; KEY < KEY_SPACE; KEY++) map.put(KEY, VALUES[KEY % VALUES.length]);
+
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> workers = new ArrayList<Thread>();
+
+		for (int t = 0; t < threads; t++)
+		{
+			final long seed = t;
+			Thread worker = new Thread(() -> {
+				Random rand = new Random(seed);
+				try { start.await(); } catch (InterruptedException e) { return; }
+
+				for (int op = 0; op < OPS_PER_THREAD; op++)
+				{
+					int key = rand.nextInt(KEY_SPACE);
+					int kind = rand.nextInt(10);
+
+					if (kind < 4) map.getAll(key).iterator().hasNext();
+					else if (kind < 8) map.contains(key);
+					else if (kind == 8) map.put(key, VALUES[rand.nextInt(VALUES.length)]);
+					else map.deleteAll(key);
+				}
+			});
+			workers.add(worker);
+			worker.start();
+		}
+
+		long begin = System.nanoTime();
+		start.countDown();
+		for (Thread worker : workers) worker.join();
+		long elapsed = System.nanoTime() - begin;
+
+		return (double) threads * OPS_PER_THREAD / (elapsed / 1000000.0);
+	}
+
+	/*
+	 * The single-lock baseline: every operation of the wrapped map runs under one monitor.
+	 */
+	private static class LockedMultiMap<Key, Value> implements MultiMap<Key, Value>
+	{
+		private final MultiMap<Key, Value> _map;
+
+		LockedMultiMap(MultiMap<Key, Value> map) { _map = map; }
+
+		public synchronized int size() { return _map.size(); }
+		public synchronized boolean isEmpty() { return _map.isEmpty(); }
+		public synchronized boolean contains(Key key) { return _map.contains(key); }
+		public synchronized boolean containsPair(Key key, Value value) { return _map.containsPair(key, value); }
+		public synchronized void put(Key key, Value val) { _map.put(key, val); }
+		public synchronized void delete(Key key, Value value) { _map.delete(key, value); }
+		public synchronized void deleteAll(Key key) { _map.deleteAll(key); }
+
+		public synchronized Iterable<Value> getAll(Key key)
+		{
+			List<Value> values = new ArrayList<Value>();
+			for (Value value : _map.getAll(key)) values.add(value);
+			return values;
+		}
+
+		public synchronized Iterable<Key> keySet()
+		{
+			List<Key> keys = new ArrayList<Key>();
+			for (Key key : _map.keySet()) keys.add(key);
+			return keys;
+		}
+	}
+}
@@ -7,6 +7,7 @@ import java.util.List;
 import hashing.LinkedMultiMap;
 import hashing.MultiHashMap;
 import hashing.MultiMap;
+import hashing.OpenAddressingMultiMap;
 import hash_util.Timer;
 
 public class Main
@@ -19,6 +20,7 @@ public class Main
 		{
 			timeMultiMap(new MultiHashMap<Integer, String>(), SIZES[index]);
 			timeMultiMap(new LinkedMultiMap<Integer, String>(), SIZES[index]);
+			timeMultiMap(new OpenAddressingMultiMap<Integer, String>(), SIZES[index]);
 		}
 	}
 
@@ -0,0 +1,74 @@
+/**
+ * Runs a workload that oscillates around MultiHashMap's shrink threshold:
+ * after filling the map, it repeatedly deletes most of the keys and adds them
+ * back. It reports how many full rehashes each resize policy performs and
+ * how long the oscillation takes.
+ */
+
+package hash_main;
+
+import hashing.MultiHashMap;
+import hash_util.Timer;
+
+public class OscillationBenchmark
+{
+	private static final String[] VALUES = {"a", "b", "c", "d", "e", "f", "g", "h", "i", "j"};
+
+	public static void main(String[] args)
+	{
+		final int KEYS = 40960;
+		final int OSCILLATING_KEYS = 35000;
+		final int CYCLES = 20;
+
+		for (int run = 0; run < 2; run++)
+		{
+			// first run is a warm-up
+			boolean report = run == 1;
+
+			oscillate("default policy", MultiHashMap.<Integer, String>builder().build(),
+			          KEYS, OSCILLATING_KEYS, CYCLES, report);
+
+			oscillate("shrink load 0.5", MultiHashMap.<Integer, String>builder()
+			          .shrinkLoadFactor(0.5).build(),
+			          KEYS, OSCILLATING_KEYS, CYCLES, report);
+
+			oscillate("cooldown 10M ops", MultiHashMap.<Integer, String>builder()
+			          .shrinkCooldown(10000000).build(),
+			          KEYS, OSCILLATING_KEYS, CYCLES, report);
+
+			oscillate("min capacity 65536", MultiHashMap.<Integer, String>builder()
+			          .minCapacity(65536).build(),
+			          KEYS, OSCILLATING_KEYS, CYCLES, report);
+		}
+	}
+
+	private static void oscillate(String label, MultiHashMap<Integer, String> map,
+	                              int keys, int oscillating, int cycles, boolean report)
+	{
+		for (int KEY = 1; KEY <= keys; KEY++)
+		{
+			for (String value : VALUES) map.put(KEY, value);
+		}
+		int afterFill = map.resizeCount();
+
+		Timer timer = new Timer();
+		timer.start();
+		for (int cycle = 0; cycle < cycles; cycle++)
+		{
+			for (int KEY = 1; KEY <= oscillating; KEY++) map.deleteAll(KEY);
+
+			for (int KEY = 1; KEY <= oscillating; KEY++)
+			{
+				for (String value : VALUES) map.put(KEY, value);
+			}
+		}
+		long duration = timer.stop();
+
+		if (!report) return;
+
+		System.out.println(label);
+		System.out.println("\tResizes while filling " + keys * VALUES.length + " pairs: " + afterFill);
+		System.out.println("\tResizes during " + cycles + " oscillations: " + (map.resizeCount() - afterFill));
+		System.out.println("\tOscillating took " + duration);
+	}
+}
@@ -0,0 +1,157 @@
+/**
+ * Compares the primitive-keyed multi-maps against MultiHashMap<Integer, String>
+ * and OpenAddressingMultiMap<Integer, String> on the same workload: put ten
+ * values for each of N keys, look every pair up, then deleteAll every key.
+ * Each map is run several times and the best time per operation is reported,
+ * so JIT warm-up and stray GC pauses do not distort the comparison.
+ */
+
+package hash_main;
+
+import hashing.IntIntMultiMap;
+import hashing.IntObjectMultiMap;
+import hashing.LongLongMultiMap;
+import hashing.MultiHashMap;
+import hashing.MultiMap;
+import hashing.OpenAddressingMultiMap;
+
+public class PrimitiveMultiMapBenchmark
+{
+	private static final String[] VALUES = {"a", "b", "c", "d", "e", "f", "g", "h", "i", "j"};
+	private static final int KEYS = 200000;
+	private static final int RUNS = 7;
+
+	private static long sink;   // keeps the lookups from being optimized away
+
+	// one timed pass over a map: put, lookup and deleteAll times in nanoseconds
+	private interface Workload
+	{
+		long[] run();
+	}
+
+	public static void main(String[] args)
+	{
+		report("MultiHashMap<Integer, String>", () -> boxed(new MultiHashMap<Integer, String>()));
+		report("OpenAddressingMultiMap<Integer, String>", () -> boxed(new OpenAddressingMultiMap<Integer, String>()));
+		report("IntObjectMultiMap<String>", () -> intObject(new IntObjectMultiMap<String>()));
+		report("IntIntMultiMap", () -> intInt(new IntIntMultiMap()));
+		report("LongLongMultiMap", () -> longLong(new LongLongMultiMap()));
+	}
+
+	private static void report(String label, Workload workload)
+	{
+		long[] best = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE};
+
+		for (int run = 0; run < RUNS; run++)
+		{
+			long[] times = workload.run();
+			for (int i = 0; i < best.length; i++) best[i] = Math.min(best[i], times[i]);
+		}
+
+		int pairs = KEYS * VALUES.length;
+		System.out.println(label);
+		System.out.printf("\tput:         %6.1f ns/pair%n", (double) best[0] / pairs);
+		System.out.printf("\tcontainsPair:%6.1f ns/pair%n", (double) best[1] / pairs);
+		System.out.printf("\tdeleteAll:   %6.1f ns/key%n", (double) best[2] / KEYS);
+	}
+
+	private static long[] boxed(MultiMap<Integer, String> map)
+	{
+		long[] times = new long[3];
+
+		long start = System.nanoTime();
+		for (int KEY = 0; KEY < KEYS; KEY++)
+		{
+			for (String value : VALUES) map.put(KEY, value);
+		}
+		times[0] = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int KEY = 0; KEY < KEYS; KEY++)
+		{
+			for (String value : VALUES) if (map.containsPair(KEY, value)) sink++;
+		}
+		times[1] = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int KEY = 0; KEY < KEYS; KEY++) map.deleteAll(KEY);
+		times[2] = System.nanoTime() - start;
+
+		return times;
+	}
+
+	private static long[] intObject(IntObjectMultiMap<String> map)
+	{
+		long[] times = new long[3];
+
+		long start = System.nanoTime();
+		for (int KEY = 0; KEY < KEYS; KEY++)
+		{
+			for (String value : VALUES) map.put(KEY, value);
+		}
+		times[0] = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int KEY = 0; KEY < KEYS; KEY++)
+		{
+			for (String value : VALUES) if (map.containsPair(KEY, value)) sink++;
+		}
+		times[1] = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int KEY = 0; KEY < KEYS; KEY++) map.deleteAll(KEY);
+		times[2] = System.nanoTime() - start;
+
+		return times;
+	}
+
+	private static long[] intInt(IntIntMultiMap map)
+	{
+		long[] times = new long[3];
+
+		long start = System.nanoTime();
+		for (int KEY = 0; KEY < KEYS; KEY++)
+		{
+			for (int value = 0; value < VALUES.length; value++) map.put(KEY, value);
+		}
+		times[0] = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int KEY = 0; KEY < KEYS; KEY++)
+		{
+			for (int value = 0; value < VALUES.length; value++) if (map.containsPair(KEY, value)) sink++;
+		}
+		times[1] = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int KEY = 0; KEY < KEYS; KEY++) map.deleteAll(KEY);
+		times[2] = System.nanoTime() - start;
+
+		return times;
+	}
+
+	private static long[] longLong(LongLongMultiMap map)
+	{
+		long[] times = new long[3];
+
+		long start = System.nanoTime();
+		for (long KEY = 0; KEY < KEYS; KEY++)
+		{
+			for (long value = 0; value < VALUES.length; value++) map.put(KEY, value);
+		}
+		times[0] = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (long KEY = 0; KEY < KEYS; KEY++)
+		{
+			for (long value = 0; value < VALUES.length; value++) if (map.containsPair(KEY, value)) sink++;
+		}
+		times[1] = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (long KEY = 0; KEY < KEYS; KEY++) map.deleteAll(KEY);
+		times[2] = System.nanoTime() - start;
+
+		return times;
+	}
+}
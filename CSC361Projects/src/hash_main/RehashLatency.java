@@ -0,0 +1,80 @@
+/**
+ * Measures per-operation latency of MultiHashMap while it grows and shrinks,
+ * comparing the default all-at-once resize with incremental rehashing.
+ * Each put and deleteAll is timed individually; the percentiles show whether
+ * resize work lands on a few unlucky operations or is spread across all of them.
+ *
+ * <p>Run with a fixed heap (e.g. -Xms3g -Xmx3g) so that heap growth and full
+ * collections do not dominate the max column.
+ */
+
+package hash_main;
+
+import java.util.Arrays;
+
+import hashing.MultiHashMap;
+import hashing.MultiMap;
+
+public class RehashLatency
+{
+	public static void main(String[] args)
+	{
+		final int[] SIZES = new int[] {10000, 100000, 500000};
+
+		for (int keys : SIZES)
+		{
+			// Warm up both paths before timing
+			timeLatencies(new MultiHashMap<Integer, String>(4, false), keys, null);
+			timeLatencies(new MultiHashMap<Integer, String>(4, true), keys, null);
+
+			timeLatencies(new MultiHashMap<Integer, String>(4, false), keys, "all-at-once");
+			timeLatencies(new MultiHashMap<Integer, String>(4, true), keys, "incremental");
+		}
+	}
+
+	// label == null runs the workload without reporting (warm-up)
+	private static void timeLatencies(MultiMap<Integer, String> map, int keys, String label)
+	{
+		final String[] values = new String[] {"a", "b", "c", "d", "e", "f", "g", "h", "i", "j"};
+
+		long[] puts = new long[keys * values.length];
+		long[] deletes = new long[keys];
+
+		int op = 0;
+		for (int KEY = 1; KEY <= keys; KEY++)
+		{
+			for (String value : values)
+			{
+				long start = System.nanoTime();
+				map.put(KEY, value);
+				puts[op++] = System.nanoTime() - start;
+			}
+		}
+
+		for (int KEY = 1; KEY <= keys; KEY++)
+		{
+			long start = System.nanoTime();
+			map.deleteAll(KEY);
+			deletes[KEY - 1] = System.nanoTime() - start;
+		}
+
+		if (label == null) return;
+
+		System.out.println(map.getClass().getName() + " (" + label + "), " + keys + " keys");
+		System.out.println("\tput       " + percentiles(puts));
+		System.out.println("\tdeleteAll " + percentiles(deletes));
+	}
+
+	// p50 / p99 / p99.9 / max in microseconds
+	private static String percentiles(long[] nanos)
+	{
+		long[] sorted = nanos.clone();
+		Arrays.sort(sorted);
+
+		return String.format("p50 %.2fus  p99 %.2fus  p99.9 %.2fus  max %.2fus",
+				sorted[sorted.length / 2] / 1000.0,
+				sorted[(int) (sorted.length * 0.99)] / 1000.0,
+				sorted[(int) (sorted.length * 0.999)] / 1000.0,
+				sorted[sorted.length - 1] / 1000.0);
+	}
+}
@@ -0,0 +1,90 @@
+/**
+ * Converts keys or values to and from a fixed number of bytes, so that
+ * {@link MappedMultiMap} can store them off-heap.
+ *
+ * An encoding must be deterministic: equal objects must encode to the same
+ * bytes, since the map hashes and compares keys and values in their encoded
+ * form. Every encoding is exactly {@link #width()} bytes long.
+ *
+ * @author Michael Peeler
+ */
+package hashing;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public interface Codec<T>
+{
+	/**
+	 * @return the number of bytes in every encoding
+	 */
+	public int width();
+
+	/**
+	 * Writes the encoding of {@code value} into {@code buffer} at {@code offset}.
+	 * @throws IllegalArgumentException if {@code value} cannot be encoded in width() bytes
+	 */
+	public void encode(T value, ByteBuffer buffer, int offset);
+
+	/**
+	 * Reads the value encoded in {@code buffer} at {@code offset}.
+	 */
+	public T decode(ByteBuffer buffer, int offset);
+
+	/** Integers as 4 big-endian bytes. */
+	public static final Codec<Integer> INTEGER = new Codec<Integer>()
+	{
+		public int width() { return Integer.BYTES; }
+
+		public void encode(Integer value, ByteBuffer buffer, int offset) { buffer.putInt(offset, value); }
+
+		public Integer decode(ByteBuffer buffer, int offset) { return buffer.getInt(offset); }
+	};
+
+	/** Longs as 8 big-endian bytes. */
+	public static final Codec<Long> LONG = new Codec<Long>()
+	{
+		public int width() { return Long.BYTES; }
+
+		public void encode(Long value, ByteBuffer buffer, int offset) { buffer.putLong(offset, value); }
+
+		public Long decode(ByteBuffer buffer, int offset) { return buffer.getLong(offset); }
+	};
+
+	/**
+	 * Strings of at most {@code maxBytes} bytes of UTF-8, stored as a 2-byte
+	 * length followed by the bytes and zero padding.
+	 *
+	 * @param  maxBytes the longest encoded string accepted
+	 * @return a codec of width {@code maxBytes + 2}
+	 * @throws IllegalArgumentException if {@code maxBytes} is not in [1, 65535]
+	 */
+	public static Codec<String> fixedString(int maxBytes)
+	{
+		if (maxBytes < 1 || maxBytes > 0xFFFF)
+			throw new IllegalArgumentException("string width must be in [1, 65535]");
+
+		return new Codec<String>()
+		{
+			public int width() { return maxBytes + 2; }
+
+			public void encode(String value, ByteBuffer buffer, int offset)
+			{
+				byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+				if (bytes.length > maxBytes)
+					throw new IllegalArgumentException("\"" + value + "\" is longer than " + maxBytes + " bytes");
+
+				buffer.putShort(offset, (short) bytes.length);
+				buffer.put(offset + 2, bytes);
+				for (int i = bytes.length; i < maxBytes; i++) buffer.put(offset + 2 + i, (byte) 0);
+			}
+
+			public String decode(ByteBuffer buffer, int offset)
+			{
+				byte[] bytes = new byte[buffer.getShort(offset) & 0xFFFF];
+				buffer.get(offset + 2, bytes);
+				return new String(bytes, StandardCharsets.UTF_8);
+			}
+		};
+	}
+}
@@ -0,0 +1,273 @@
+/******************************************************************************
+ *
+ *  A thread-safe multi-map symbol table built from lock-striped
+ *  separate-chaining hash tables.
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code ConcurrentMultiHashMap} class represents a thread-safe multi-map
+ *  of generic key-value pairs with the same contract as {@link MultiHashMap}:
+ *  multiple pairs with the same key are possible, but a <key, value> pair
+ *  cannot be repeated.
+ *  <p>
+ *  Keys are spread over a fixed number of <em>segments</em> (a power of 2).
+ *  Each segment is an independent {@link MultiHashMap} guarded by its own
+ *  {@link ReentrantReadWriteLock}, so writes to keys in different segments
+ *  proceed in parallel and readers of a segment only wait for writers of that
+ *  same segment. Segments resize on their own and use incremental rehashing,
+ *  so a resize blocks one segment's readers for a bounded step rather than for
+ *  a whole rehash of the map.
+ *  <p>
+ *  {@code getAll} and {@code keySet} return snapshots taken under the segment
+ *  read locks; they never reflect later updates and never throw
+ *  {@link java.util.ConcurrentModificationException}. {@code size} is the sum of
+ *  per-thread counters and may be momentarily stale while writes are in flight.
+ *
+ *  @author Michael Peeler
+ */
+
+package hashing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class ConcurrentMultiHashMap<Key, Value> implements MultiMap<Key, Value>
+{
+	private final MultiHashMap<Key, Value>[] _segments;
+	private final ReentrantReadWriteLock[] _locks;    // _locks[i] guards _segments[i]
+	private final int _segmentShift;                  // 32 - log2(number of segments)
+	private final LongAdder _size = new LongAdder();  // number of key-value pairs
+
+	/**
+	 * Initializes an empty symbol table with four segments per available processor.
+	 */
+	public ConcurrentMultiHashMap() { this(4 * Runtime.getRuntime().availableProcessors()); }
+
+	/**
+	 * Initializes an empty symbol table.
+	 * @param segments the number of independently locked segments; rounded up to a power of 2
+	 */
+	@SuppressWarnings("unchecked")
+	public ConcurrentMultiHashMap(int segments)
+	{
+		if (segments < 1) throw new IllegalArgumentException("number of segments must be positive");
+
+		int bits = 0;
+		while ((1 << bits) < segments) bits++;
+
+		_segmentShift = 32 - bits;
+		_segments = (MultiHashMap<Key, Value>[]) new MultiHashMap[1 << bits];
+		_locks = new ReentrantReadWriteLock[1 << bits];
+
+		for (int i = 0; i < _segments.length; i++)
+		{
+			_segments[i] = MultiHashMap.<Key, Value>builder().incrementalRehash(true).build();
+			_locks[i] = new ReentrantReadWriteLock();
+		}
+	}
+
+	// Segment index from the top bits of a Fibonacci hash; the segment's own
+	// chains are chosen from the low bits, so the two choices stay independent.
+	private int segmentFor(Key key)
+	{
+		if (_segmentShift == 32) return 0;
+		return (key.hashCode() * 0x9E3779B9) >>> _segmentShift;
+	}
+
+	/**
+	 * Returns the number of key-value pairs in this symbol table.
+	 *
+	 * @return the number of key-value pairs in this symbol table
+	 */
+	public int size() { return _size.intValue(); }
+
+	/**
+	 * Returns *true* if this symbol table is empty.
+	 *
+	 * @return {@code true} if this symbol table is empty;
+	 *         {@code false} otherwise
+	 */
+	public boolean isEmpty() { return size() == 0; }
+
+	/**
+	 * Returns *true* if this symbol table contains the specified key.
+	 *
+	 * @param  key the key
+	 * @return {@code true} if this symbol table contains {@code key};
+	 *         {@code false} otherwise
+	 * @throws IllegalArgumentException if {@code key} is {@code null}
+	 */
+	public boolean contains(Key key)
+	{
+		if (key == null) throw new IllegalArgumentException("argument to contains() is null");
+
+		int i = segmentFor(key);
+		_locks[i].readLock().lock();
+		try
+		{
+			return _segments[i].contains(key);
+		}
+		finally
+		{
+			_locks[i].readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns true if this symbol table contains the specified <key, value> pair.
+	 *
+	 * @param  key the key
+	 * @param  value the value
+	 * @return {@code true} if this symbol table contains the pair;
+	 *         {@code false} otherwise
+	 * @throws IllegalArgumentException if {@code key} is {@code null}
+	 */
+	public boolean containsPair(Key key, Value value)
+	{
+		if (key == null) throw new IllegalArgumentException("argument to containsPair() is null");
+
+		int i = segmentFor(key);
+		_locks[i].readLock().lock();
+		try
+		{
+			return _segments[i].containsPair(key, value);
+		}
+		finally
+		{
+			_locks[i].readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns a snapshot of all values associated with the specified key.
+	 *
+	 * @param  key the key
+	 * @return the values associated with {@code key}; empty if there are none
+	 * @throws IllegalArgumentException if {@code key} is {@code null}
+	 */
+	public Iterable<Value> getAll(Key key)
+	{
+		if (key == null) throw new IllegalArgumentException("argument to getAll() is null");
+
+		List<Value> values = new ArrayList<Value>();
+
+		int i = segmentFor(key);
+		_locks[i].readLock().lock();
+		try
+		{
+			for (Value value : _segments[i].getAll(key)) values.add(value);
+		}
+		finally
+		{
+			_locks[i].readLock().unlock();
+		}
+
+		return values;
+	}
+
+	/**
+	 * Inserts the key-value pair into the symbol table (if not already contained).
+	 *
+	 * @param  key the key
+	 * @param  value the value
+	 * @throws IllegalArgumentException if {@code key} is {@code null} or
+	 *                                  {@code value} is {@code null}
+	 */
+	public void put(Key key, Value value)
+	{
+		if (key == null) throw new IllegalArgumentException("first argument to put() is null");
+		if (value == null) throw new IllegalArgumentException("second argument to put() is null");
+
+		int i = segmentFor(key);
+		_locks[i].writeLock().lock();
+		try
+		{
+			int origSize = _segments[i].size();
+			_segments[i].put(key, value);
+			_size.add(_segments[i].size() - origSize);
+		}
+		finally
+		{
+			_locks[i].writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes the specified <key, value> pair from this symbol table (if present).
+	 *
+	 * @param  key the key
+	 * @param  value the value
+	 * @throws IllegalArgumentException if {@code key} is {@code null}
+	 */
+	public void delete(Key key, Value value)
+	{
+		if (key == null) throw new IllegalArgumentException("argument to delete() is null");
+
+		int i = segmentFor(key);
+		_locks[i].writeLock().lock();
+		try
+		{
+			int origSize = _segments[i].size();
+			_segments[i].delete(key, value);
+			_size.add(_segments[i].size() - origSize);
+		}
+		finally
+		{
+			_locks[i].writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes all pairs with the given key.
+	 *
+	 * @param  key the key
+	 * @throws IllegalArgumentException if {@code key} is {@code null}
+	 */
+	public void deleteAll(Key key)
+	{
+		if (key == null) throw new IllegalArgumentException("argument to deleteAll() is null");
+
+		int i = segmentFor(key);
+		_locks[i].writeLock().lock();
+		try
+		{
+			int origSize = _segments[i].size();
+			_segments[i].deleteAll(key);
+			_size.add(_segments[i].size() - origSize);
+		}
+		finally
+		{
+			_locks[i].writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns a snapshot of the unique keys in the symbol table. Each segment is
+	 * copied under its own read lock, so the result need not reflect a single
+	 * instant across segments.
+	 *
+	 * @return all keys in the symbol table
+	 */
+	public Iterable<Key> keySet()
+	{
+		List<Key> keys = new ArrayList<Key>();
+
+		for (int i = 0; i < _segments.length; i++)
+		{
+			_locks[i].readLock().lock();
+			try
+			{
+				for (Key key : _segments[i].keySet()) keys.add(key);
+			}
+			finally
+			{
+				_locks[i].readLock().unlock();
+			}
+		}
+
+		return keys;
+	}
+}
@@ -0,0 +1,369 @@
+/******************************************************************************
+ *
+ *  A multi-map from primitive int keys to object values, implemented with a
+ *  linear-probing hash table.
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code IntObjectMultiMap} class represents a multi-map from
+ *  {@code int} keys to generic values. It has the operations of
+ *  {@link MultiMap}, but takes its keys as primitives, so a <em>put</em> or
+ *  lookup never boxes the key or calls {@code hashCode()} on it.
+ *  Multiple pairs with the same key are possible, but a <key, value> pair
+ *  cannot be repeated.
+ *  <p>
+ *  This implementation uses <em>open addressing</em> with <em>linear probing</em>
+ *  over the distinct keys: slot i holds a key in {@code _keys[i]} and all of
+ *  that key's values, densely, in {@code _groups[i][0, _counts[i])}. A
+ *  {@code boolean[]} marks the occupied slots, since every int (0 included)
+ *  is a valid key. Grouping the values by key, as {@link MultiHashMap} does,
+ *  keeps each probe sequence as short as the number of distinct keys allows,
+ *  and <em>deleteAll</em> removes a key in one step. Deletion uses
+ *  backward-shift, and the table is kept between 1/8 and 1/2 full of keys.
+ *  Values within a key are found by a linear scan, so the expected time per
+ *  operation is constant for a bounded number of values per key.
+ *  <p>
+ *  <em>getAll</em> returns a live view of the key's values whose iterators
+ *  throw {@link ConcurrentModificationException} if the map is modified;
+ *  <em>keys</em> returns a new array of the distinct keys.
+ *
+ *  @author Michael Peeler
+ */
+
+package hashing;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public class IntObjectMultiMap<Value>
+{
+	private static final int INIT_CAPACITY = 16;
+	private static final int INIT_GROUP_CAPACITY = 4;
+
+	private int _size;           // number of key-value pairs
+	private int _distinctKeys;   // number of occupied slots
+	private int _capacity;       // length of the parallel arrays; always a power of 2
+	private int[] _keys;
+	private Object[][] _groups;  // the values of _keys[i], dense in [0, _counts[i])
+	private int[] _counts;
+	private boolean[] _used;     // _used[i] is true if slot i holds a key
+	private int _modCount;       // structural modifications, for fail-fast views
+
+	/**
+	 * Initializes an empty symbol table.
+	 */
+	public IntObjectMultiMap() { this(INIT_CAPACITY); }
+
+	/**
+	 * Initializes an empty symbol table able to hold roughly {@code capacity / 2}
+	 * distinct keys before resizing.
+	 * @param capacity the initial number of slots; rounded up to a power of 2
+	 */
+	public IntObjectMultiMap(int capacity)
+	{
+		_capacity = INIT_CAPACITY;
+		while (_capacity < capacity) _capacity *= 2;
+
+		allocate(_capacity);
+	}
+
+	private void allocate(int capacity)
+	{
+		_keys = new int[capacity];
+		_groups = new Object[capacity][];
+		_counts = new int[capacity];
+		_used = new boolean[capacity];
+	}
+
+	// hash function for keys - returns value between 0 and _capacity-1
+	// (MurmurHash3 finalizer, so that sequential keys do not form one long cluster)
+	private int hash(int key)
+	{
+		int h = key;
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return h & (_capacity - 1);
+	}
+
+	// the slot following i, wrapping around the end of the table
+	private int next(int i) { return (i + 1) & (_capacity - 1); }
+
+	// resize the table to the given number of slots; each key moves with its group
+	private void resize(int capacity)
+	{
+		int[] oldKeys = _keys;
+		Object[][] oldGroups = _groups;
+		int[] oldCounts = _counts;
+		boolean[] oldUsed = _used;
+
+		_capacity = capacity;
+		allocate(capacity);
+		_modCount++;
+
+		for (int i = 0; i < oldKeys.length; i++)
+		{
+			if (!oldUsed[i]) continue;
+
+			int j = hash(oldKeys[i]);
+			while (_used[j]) j = next(j);
+
+			_keys[j] = oldKeys[i];
+			_groups[j] = oldGroups[i];
+			_counts[j] = oldCounts[i];
+			_used[j] = true;
+		}
+	}
+
+	// returns the slot holding key, or -1 if the key is absent
+	private int slotOf(int key)
+	{
+		for (int i = hash(key); _used[i]; i = next(i))
+		{
+			if (_keys[i] == key) return i;
+		}
+		return -1;
+	}
+
+	// returns the position of value in slot i's group, or -1
+	private int positionOf(int i, Value value)
+	{
+		Object[] group = _groups[i];
+		for (int p = 0; p < _counts[i]; p++)
+		{
+			if (group[p] == value || group[p].equals(value)) return p;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the number of key-value pairs in this symbol table.
+	 *
+	 * @return the number of key-value pairs in this symbol table
+	 */
+	public int size() { return _size; }
+
+	/**
+	 * Returns *true* if this symbol table is empty.
+	 *
+	 * @return {@code true} if this symbol table is empty;
+	 *         {@code false} otherwise
+	 */
+	public boolean isEmpty() { return size() == 0; }
+
+	/**
+	 * Returns the number of distinct keys in this symbol table.
+	 *
+	 * @return the number of distinct keys in this symbol table
+	 */
+	public int distinctKeyCount() { return _distinctKeys; }
+
+	/**
+	 * Returns *true* if this symbol table contains the specified key.
+	 *
+	 * @param  key the key
+	 * @return {@code true} if this symbol table contains {@code key};
+	 *         {@code false} otherwise
+	 */
+	public boolean contains(int key) { return slotOf(key) != -1; }
+
+	/**
+	 * Returns true if this symbol table contains the specified <key, value> pair.
+	 *
+	 * @param  key the key
+	 * @param  value the value
+	 * @return {@code true} if this symbol table contains the pair;
+	 *         {@code false} otherwise
+	 */
+	public boolean containsPair(int key, Value value)
+	{
+		int i = slotOf(key);
+		return i != -1 && positionOf(i, value) != -1;
+	}
+
+	/**
+	 * Inserts the specified key-value pair into the symbol table (if not already contained).
+	 *
+	 * @param  key the key
+	 * @param  value the value
+	 * @throws IllegalArgumentException if {@code value} is {@code null}
+	 */
+	public void put(int key, Value value)
+	{
+		if (value == null) throw new IllegalArgumentException("second argument to put() is null");
+
+		int i = hash(key);
+		while (_used[i] && _keys[i] != key) i = next(i);
+
+		if (!_used[i])
+		{
+			// double table size if it would become more than half full; the key
+			// is new, so only its empty slot in the new table has to be found
+			if (2 * (_distinctKeys + 1) > _capacity)
+			{
+				resize(2 * _capacity);
+				i = hash(key);
+				while (_used[i]) i = next(i);
+			}
+
+			_keys[i] = key;
+			_groups[i] = new Object[INIT_GROUP_CAPACITY];
+			_used[i] = true;
+			_distinctKeys++;
+		}
+		else if (positionOf(i, value) != -1) return;
+
+		if (_counts[i] == _groups[i].length) _groups[i] = Arrays.copyOf(_groups[i], 2 * _counts[i]);
+
+		_groups[i][_counts[i]++] = value;
+		_size++;
+		_modCount++;
+	}
+
+	/**
+	 * Removes the specified <key, value> pair from this symbol table (if present).
+	 *
+	 * @param  key the key
+	 * @param  value the value
+	 * @throws IllegalArgumentException if {@code value} is {@code null}
+	 */
+	public void delete(int key, Value value)
+	{
+		if (value == null) throw new IllegalArgumentException("second argument to delete() is null");
+
+		int i = slotOf(key);
+		if (i == -1) return;
+
+		int p = positionOf(i, value);
+		if (p == -1) return;
+
+		// move the key's last value into the hole
+		int last = --_counts[i];
+		_groups[i][p] = _groups[i][last];
+		_groups[i][last] = null;
+		_size--;
+		_modCount++;
+
+		if (_counts[i] == 0) removeAt(i);
+	}
+
+	/**
+	 * Removes all pairs with the given key.
+	 *
+	 * @param  key the key
+	 */
+	public void deleteAll(int key)
+	{
+		int i = slotOf(key);
+		if (i == -1) return;
+
+		_size -= _counts[i];
+		_modCount++;
+		removeAt(i);
+	}
+
+	// Empties slot i, then shifts later members of the cluster backward so that
+	// every remaining key is still reachable from its home slot; finally
+	// halves the table if it is at most 1/8 full.
+	private void removeAt(int i)
+	{
+		_used[i] = false;
+		_groups[i] = null;
+		_counts[i] = 0;
+		_distinctKeys--;
+
+		for (int j = next(i); _used[j]; j = next(j))
+		{
+			int home = hash(_keys[j]);
+
+			// The key at j may stay put if its home lies cyclically in (i, j]
+			boolean stays = (i <= j) ? (i < home && home <= j) : (i < home || home <= j);
+			if (stays) continue;
+
+			_keys[i] = _keys[j];
+			_groups[i] = _groups[j];
+			_counts[i] = _counts[j];
+			_used[i] = true;
+			_groups[j] = null;
+			_counts[j] = 0;
+			_used[j] = false;
+			i = j;
+		}
+
+		if (_capacity > INIT_CAPACITY && 8 * _distinctKeys <= _capacity) resize(_capacity / 2);
+	}
+
+	/**
+	 * Returns all values associated with the specified key in this symbol table.
+	 * The result is a live view; the key is looked up when iteration starts.
+	 *
+	 * @param  key the key
+	 * @return the values associated with {@code key}; empty if there are none
+	 */
+	public Iterable<Value> getAll(int key)
+	{
+		return () -> {
+			int i = slotOf(key);
+			if (i == -1) return Collections.emptyIterator();
+
+			Object[] group = _groups[i];
+			int count = _counts[i];
+
+			return new Iterator<Value>()
+			{
+				private final int _expectedModCount = _modCount;
+				private int _next = 0;
+
+				public boolean hasNext()
+				{
+					if (_modCount != _expectedModCount) throw new ConcurrentModificationException();
+					return _next < count;
+				}
+
+				@SuppressWarnings("unchecked")
+				public Value next()
+				{
+					if (!hasNext()) throw new NoSuchElementException();
+					return (Value) group[_next++];
+				}
+			};
+		};
+	}
+
+	/**
+	 * Returns the distinct keys in the symbol table.
+	 *
+	 * @return a new array holding each key once
+	 */
+	public int[] keys()
+	{
+		int[] keys = new int[_distinctKeys];
+		int n = 0;
+
+		for (int i = 0; i < _capacity; i++)
+		{
+			if (_used[i]) keys[n++] = _keys[i];
+		}
+
+		return keys;
+	}
+
+	public String toString()
+	{
+		StringBuilder sb = new StringBuilder();
+
+		for (int i = 0; i < _capacity; i++)
+		{
+			for (int p = 0; _used[i] && p < _counts[i]; p++)
+				sb.append("(" + _keys[i] + ", " + _groups[i][p].toString() + ") ");
+		}
+
+		return sb.toString();
+	}
+}
@@ -16,14 +16,39 @@
  *  It also provides a <em>keys</em> method for iterating over all of the keys.
  *  <p>
  *  It relies on the {@code equals()} method to test whether two keys
- *  are equal. It does not call either the {@code compareTo()} or
- *  {@code hashCode()} method. 
+ *  are equal. Lookups otherwise call neither {@code compareTo()} nor
+ *  {@code hashCode()}: only <em>putAll</em> hashes keys, to index the existing
+ *  ones in a {@link HashMap}, and only a treeified chain (below) compares them.
  *  <p>
- *  This implementation uses a <em>singly linked list</em> and
- *  <em>sequential search</em>.
- *  The <em>put</em> and <em>delete</em> operations take &Theta;(<em>n</em>).
- *  The <em>get</em> and <em>contains</em> operations takes &Theta;(<em>n</em>)
- *  time in the worst case.
+ *  This implementation uses a <em>doubly linked list</em> and
+ *  <em>sequential search</em>. The list holds one node per distinct key, and
+ *  each node keeps all of that key's values in a compact {@link ValueSet}, so
+ *  <em>getAll</em>, <em>contains</em> and <em>deleteAll</em> walk only the
+ *  distinct keys and then touch only the values for the key asked about, and
+ *  a node is unlinked in constant time once found.
+ *  <em>getAll</em> and <em>keySet</em> return live views rather than copies;
+ *  their iterators throw {@link java.util.ConcurrentModificationException} if
+ *  the map is modified during iteration.
+ *  The <em>get</em>, <em>contains</em>, <em>put</em> and <em>delete</em>
+ *  operations take &Theta;(<em>n</em>) time in the worst case, for <em>n</em>
+ *  distinct keys. Deletion walks the list iteratively, so chains of any length
+ *  are safe; <em>deleteIf</em> removes every pair matching a predicate in one
+ *  pass, and <em>putAll</em> indexes the existing keys once so that a batch of
+ *  <em>m</em> pairs costs &Theta;(<em>n</em> + <em>m</em>) expected time
+ *  rather than &Theta;(<em>nm</em>).
+ *  <p>
+ *  The chains of a {@link MultiHashMap} are created with <em>treeify</em> set:
+ *  once such a list holds more than {@code TREEIFY_THRESHOLD} keys it also
+ *  indexes its nodes in a {@link TreeMap} ordered by {@code compareTo}. Only
+ *  keys of the same class as the key that triggered treeification, which must
+ *  be {@link Comparable}, are indexed; other keys are still found by
+ *  sequential search. Keys are still matched by {@code equals}: keys that are
+ *  not equal but tie under {@code compareTo} (as {@code BigDecimal} 1.0 and
+ *  1.00 do) share one tree entry, whose few nodes are searched in turn. So for
+ *  indexed keys, hits and misses alike, <em>get</em>, <em>contains</em>,
+ *  <em>put</em> and <em>delete</em> take &Theta;(log <em>n</em>) time however
+ *  many keys collide, plus the number of ties. The index is dropped again when
+ *  fewer than {@code UNTREEIFY_THRESHOLD} keys remain.
  *  The <em>size</em>, and <em>is-empty</em> operations take &Theta;(1) time.
  *  Construction takes &Theta;(1) time.
  *  <p>
@@ -33,15 +58,16 @@
  *
  *	Timings:
  *	<t> <t>   <t> Put <t> Del
- *  <t> 500   <t> 4   <t> 5
- *  <t> 1000  <t> 3   <t> 4
- *  <t> 2000  <t> 13  <t> 15
- *  <t> 5000  <t> 76  <t> 91
- *  <t> 7500  <t> 146 <t> 186
- *  <t> 10000 <t> 284 <t> 328
- *  <t> 12500 <t> 507 <t> 572
- *  <t> 15000 <t> 657 <t> 765
+ *  <t> 500   <t> 1   <t> 1
+ *  <t> 1000  <t> 1   <t> 3
+ *  <t> 2000  <t> 0   <t> 1
+ *  <t> 5000  <t> 3   <t> 5
+ *  <t> 7500  <t> 15  <t> 22
+ *  <t> 10000 <t> 25  <t> 41
+ *  <t> 12500 <t> 10  <t> 34
+ *  <t> 15000 <t> 11  <t> 44
  *  <t> <t>   <t> O(n)<t> O(n)
+ *  (plain lists; a treeified chain's indexed keys take O(log n))
  *  
  *
  *  @author Robert Sedgewick
@@ -54,27 +80,45 @@
 
 package hashing;
 
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Queue;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
 
-public class LinkedMultiMap<Key, Value> implements MultiMap<Key, Value>
+public class LinkedMultiMap<Key, Value> implements MultiMap<Key, Value>, Versioned
 {
     private int  _size;    // number of key-value pairs
-    private Node _first;   // the linked list of key-value pairs
+    private Node _first;   // the linked list of keys, each with its values
+    private int  _modCount;  // structural modifications, for fail-fast views
+    private int  _keyCount;  // number of nodes
+
+    // Tree index for long chains (see LinkedMultiMap(boolean))
+    private static final int TREEIFY_THRESHOLD = 8;
+    private static final int UNTREEIFY_THRESHOLD = 6;
+    private final boolean _treeify;
+    private TreeMap<Key, Node> _tree;   // the nodes whose key is a _treeClass; null while short
+    private Class<?> _treeClass;
 
-    // a helper linked list data type
-    private class Node
+    // a helper doubly linked list data type; one node per distinct key
+    // (package-private so MultiHashMap can walk its chains without copying)
+    class Node
     {
-        private Key _key;
-        private Value _value;
-        private Node _next;
+        final Key _key;
+        final ValueSet<Value> _values;
+        Node _next;
+        Node _prev;
+        Node _tie;   // next node in the same tree entry: its key ties with this one under compareTo
 
-        public Node(Key key, Value val, Node next)
+        public Node(Key key, ValueSet<Value> values, Node next)
         {
             this._key  = key;
-            this._value  = val;
+            this._values  = values;
             this._next = next;
         }
     }
@@ -82,7 +126,14 @@ public class LinkedMultiMap<Key, Value> implements MultiMap<Key, Value>
     /**
      * Initializes an empty symbol table.
      */
-    public LinkedMultiMap() { }
+    public LinkedMultiMap() { this(false); }
+
+    /**
+     * Initializes an empty symbol table that, if {@code treeify} is set, indexes
+     * its nodes by a balanced tree whenever it holds more than TREEIFY_THRESHOLD
+     * keys.
+     */
+    LinkedMultiMap(boolean treeify) { _treeify = treeify; }
 
     /**
      * Returns the number of key-value pairs in this symbol table.
@@ -91,6 +142,22 @@ public class LinkedMultiMap<Key, Value> implements MultiMap<Key, Value>
      */
     public int size() { return _size; }
 
+    public int modCount() { return _modCount; }
+
+    /**
+     * @return the first node of the chain, or null if it is empty
+     */
+    Node firstNode() { return _first; }
+
+    /**
+     * @return the values stored for key, or null if key is absent
+     */
+    ValueSet<Value> valuesFor(Key key)
+    {
+        Node node = find(key);
+        return node == null ? null : node._values;
+    }
+
     /**
      * Returns true if this symbol table is empty.
      *
@@ -111,24 +178,33 @@ public class LinkedMultiMap<Key, Value> implements MultiMap<Key, Value>
     {
         if (key == null) throw new IllegalArgumentException("argument to containsKey() is null"); 
 
-        return contains(key, _first);
+        return find(key) != null;
      }
     
     /**
-     * Beginning at "node", checks for any Key of "key". Returns true if found,
-     * or false when the end of the map is reached.
+     * Returns the node holding "key", or null when the end of the map is reached.
      * @param key Key which is being searched for
-     * @param node Current node being searched
-     * @return Boolean indicating if key is in the map.
+     * @return Node for key, or null if key is not in the map.
      */
-    private boolean contains(Key key, Node node) {
+    private Node find(Key key) {
+    	if (_tree != null && key.getClass() == _treeClass) {
+    		
+    		// every _treeClass node is in the tree entry of the keys it ties with
+    		for (Node node = _tree.get(key); node != null; node = node._tie) {
+    			
+    			if (node._key.equals(key)) return node;
+    		}
+    		return null;
+    	}
+    	
+    	Node node = _first;
     	while (node != null) {
     	
-    		if (node._key.equals(key)) return true;
+    		if (node._key.equals(key)) return node;
     		node = node._next;
     	
     	}
-    	return false;
+    	return null;
     	
     }
 
@@ -146,28 +222,8 @@ public class LinkedMultiMap<Key, Value> implements MultiMap<Key, Value>
         if (key == null) throw new IllegalArgumentException("argument to get() is null"); 
         if (value == null) throw new IllegalArgumentException("argument to get() is null"); 
         
-        return containsPair(key, value, _first);
-    }
-
-    /**
-     * Returns a boolean indicating whether or not the map contains a specific
-     * Key-Value pair, given by "key" and "value".
-     * @param key Key being searched for
-     * @param value Associated Value being searched for
-     * @param node Node currently being searched
-     * @return Boolean indicating whether specific key was found.
-     */
-    private boolean containsPair(Key key, Value value, Node node) {
-    	
-    	while (node != null) {    	
-    		
-    		if (node._key.equals(key) && node._value.equals(value))
-    			return true;
-    		node = node._next;
-    		
-    	}
-    	
-    	return false;
+        Node node = find(key);
+        return node != null && node._values.contains(value);
     }
     
     /**
@@ -184,11 +240,75 @@ public class LinkedMultiMap<Key, Value> implements MultiMap<Key, Value>
         if (key == null) throw new IllegalArgumentException("first argument to put() is null"); 
         if (val == null) throw new IllegalArgumentException("second argument to put() is null"); 
 
-        if (!containsPair(key, val)) {
-		
-        	_first = new Node(key, val, _first);
+        Node node = find(key);
+        if (node == null) node = link(key, new ValueSet<Value>());
+        if (node._values.add(val)) {
+        	
         	_size++;
+        	_modCount++;
+        }
+    }
+
+    /**
+     * Inserts every key-value pair of {@code pairs} that is not already in the
+     * list. The existing keys are indexed once up front, so each pair costs
+     * constant expected time instead of a walk of the list.
+     *
+     * @param  pairs the pairs to insert
+     * @throws IllegalArgumentException if {@code pairs} is {@code null}, or any
+     *                                  key or value in it is {@code null}
+     */
+    @Override
+    public void putAll(Iterable<? extends Map.Entry<? extends Key, ? extends Value>> pairs)
+    {
+        if (pairs == null) throw new IllegalArgumentException("argument to putAll() is null"); 
+
+        Map<Key, Node> nodes = new HashMap<Key, Node>();
+        for (Node x = _first; x != null; x = x._next) nodes.put(x._key, x);
+
+        int origSize = _size;
+        for (Map.Entry<? extends Key, ? extends Value> pair : pairs) {
         	
+        	Key key = pair.getKey();
+        	Value val = pair.getValue();
+        	if (key == null) throw new IllegalArgumentException("null key passed to putAll()"); 
+        	if (val == null) throw new IllegalArgumentException("null value passed to putAll()"); 
+
+        	Node node = nodes.get(key);
+        	if (node == null) {
+        		
+        		node = link(key, new ValueSet<Value>());
+        		nodes.put(key, node);
+        	}
+        	if (node._values.add(val)) {
+        		
+        		// count the change with the first new pair, so open iterators
+        		// still fail fast if a later pair is null and throws
+        		if (_size == origSize) _modCount++;
+        		_size++;
+        	}
+        }
+    }
+
+    /**
+     * Adds all of a key's values at once; the key must not already be present.
+     * Used when moving whole keys between chains during a rehash.
+     */
+    void putGroup(Key key, ValueSet<Value> values)
+    {
+        link(key, values);
+        _size += values.size();
+        _modCount++;
+    }
+
+    /**
+     * Applies {@code action} to every key in the chain along with its values.
+     */
+    void forEachGroup(BiConsumer<? super Key, ? super ValueSet<Value>> action)
+    {
+        for (Node x = _first; x != null; x = x._next)
+        {
+            action.accept(x._key, x._values);
         }
     }
 
@@ -205,23 +325,14 @@ public class LinkedMultiMap<Key, Value> implements MultiMap<Key, Value>
         if (key == null) throw new IllegalArgumentException("argument to delete() is null"); 
         if (val == null) throw new IllegalArgumentException("second argument to put() is null"); 
 
-        _first = delete(_first, key, val);
-    }
+        Node x = find(key);
+        if (x == null || !x._values.remove(val)) return;
 
-    // delete <key, value> in linked list beginning at Node x
-    // warning: function call stack too large if table is large
-    private Node delete(Node x, Key key, Value val)
-    {
-        if (x == null) return null;
+        _size--;
+        _modCount++;
 
-        if (key.equals(x._key) && val.equals(x._value))
-        {
-            _size--;
-            return x._next;
-        }
-
-        x._next = delete(x._next, key, val);
-        return x;
+        // unlink the key's node once its last value is gone
+        if (x._values.isEmpty()) unlink(x);
     }
     
     /**
@@ -235,47 +346,162 @@ public class LinkedMultiMap<Key, Value> implements MultiMap<Key, Value>
     {
         if (key == null) throw new IllegalArgumentException("argument to deleteAll() is null"); 
 
-        _first = deleteAll(_first, key);
+        Node x = find(key);
+        if (x == null) return;
+
+        _size -= x._values.size();
+        _modCount++;
+        unlink(x);
     }
-    
-    // delete <key, value> in linked list beginning at Node x
-    // warning: function call stack too large if table is large
-    private Node deleteAll(Node x, Key key)
+
+    /**
+     * Removes every pair for which {@code filter} returns true, in a single
+     * pass over the list.
+     *
+     * @param  filter the test applied to each <key, value> pair
+     * @return the number of pairs removed
+     * @throws IllegalArgumentException if {@code filter} is {@code null}
+     */
+    public int deleteIf(BiPredicate<? super Key, ? super Value> filter)
     {
-        if (x == null) return null;
-        if (key.equals(x._key)) {
+        return deleteIf(filter, null);
+    }
+
+    /**
+     * As deleteIf(filter), and also passes the values of each key that is
+     * removed entirely to {@code onKeyRemoved}, if it is non-null.
+     */
+    int deleteIf(BiPredicate<? super Key, ? super Value> filter, Consumer<ValueSet<Value>> onKeyRemoved)
+    {
+        if (filter == null) throw new IllegalArgumentException("argument to deleteIf() is null"); 
+
+        int removed = 0;
+        for (Node x = _first; x != null; x = x._next) {
+        	
+        	removed += x._values.removeIf(x._key, filter);
         	
-        	_size--;
-        	return deleteAll(x._next, key);
+        	if (x._values.isEmpty()) {
+        		
+        		// x keeps its _next, so the walk carries on past it
+        		unlink(x);
+        		if (onKeyRemoved != null) onKeyRemoved.accept(x._values);
+        	}
+        }
+
+        if (removed > 0) {
+        	
+        	_size -= removed;
+        	_modCount++;
+        }
+        return removed;
+    }
+
+    // link a new node for key in at the front of the list
+    private Node link(Key key, ValueSet<Value> values)
+    {
+        Node node = new Node(key, values, _first);
+        if (_first != null) _first._prev = node;
+        _first = node;
+        _keyCount++;
+
+        if (_tree != null) {
+        	
+        	if (key.getClass() == _treeClass) index(node);
+        }
+        else if (_treeify && _keyCount > TREEIFY_THRESHOLD) treeify();
+
+        return node;
+    }
+
+    // remove node x from the list
+    private void unlink(Node x)
+    {
+        if (x._prev == null) _first = x._next;
+        else x._prev._next = x._next;
+        if (x._next != null) x._next._prev = x._prev;
+        _keyCount--;
+
+        if (_tree == null) return;
+
+        if (_keyCount < UNTREEIFY_THRESHOLD) {
+        	
+        	_tree = null;
+        	_treeClass = null;
+        	for (Node y = _first; y != null; y = y._next) y._tie = null;
+        }
+        else if (x._key.getClass() == _treeClass) {
+        	
+        	Node head = _tree.get(x._key);
+        	if (head == x) {
+        		
+        		// the entry keeps the key it was made with, so re-add the next tie under its own
+        		_tree.remove(x._key);
+        		if (x._tie != null) _tree.put(x._tie._key, x._tie);
+        	}
+        	else {
+        		
+        		while (head._tie != x) head = head._tie;
+        		head._tie = x._tie;
+        	}
+        }
+    }
+
+    // index every node whose key has the class of the newest key, if that
+    // class is Comparable
+    private void treeify()
+    {
+        if (!(_first._key instanceof Comparable)) return;
+
+        _treeClass = _first._key.getClass();
+        _tree = new TreeMap<Key, Node>();
+        for (Node x = _first; x != null; x = x._next) {
+        	
+        	if (x._key.getClass() == _treeClass) index(x);
+        }
+    }
+
+    // add x to the tree, or behind the entry's first node if a key that is not
+    // equal to x's, but ties with it under compareTo, is there already
+    private void index(Node x)
+    {
+        Node head = _tree.putIfAbsent(x._key, x);
+        if (head == null) x._tie = null;
+        else {
+        	
+        	x._tie = head._tie;
+        	head._tie = x;
         }
-        
-        x._next = deleteAll(x._next, key);
-        return x;
-    	
     }
    
     /**
      * Returns all unique keys in the symbol table as an {@code Iterable}.
      * To iterate over all of the keys in the symbol table named {@code st},
      * use the foreach notation: {@code for (Key key : st.keys())}.
+     * The result is a live view: nothing is copied, and iterating it while
+     * the map is being modified throws ConcurrentModificationException.
      *
      * @return all keys in the symbol table
      */
     public Iterable<Key> keySet()
     {
-        ArrayList<Key> result = new ArrayList<Key>();
-        
-        Node node = _first;
-        
-        while (node != null) {
+        // every node holds a distinct key, so no de-duplication is needed
+        return () -> new Iterator<Key>() {
         	
-        	if (!result.contains(node._key)) {
-        		result.add(node._key);
+        	private final int _expectedModCount = _modCount;
+        	private Node _next = _first;
+        	
+        	public boolean hasNext() {
+        		if (_modCount != _expectedModCount) throw new ConcurrentModificationException();
+        		return _next != null;
         	}
-        	node = node._next;
-        }
-        
-        return result;
+        	
+        	public Key next() {
+        		if (!hasNext()) throw new NoSuchElementException();
+        		Key key = _next._key;
+        		_next = _next._next;
+        		return key;
+        	}
+        };
     }
     
     /**
@@ -283,24 +509,20 @@ public class LinkedMultiMap<Key, Value> implements MultiMap<Key, Value>
      * {@code key}. To iterate over all of the keys in the symbol table named
      * {@code st}, use the foreach notation:
      *             {@code for (Value value : st.getAllValues())}.
+     * The result is a live view of the key's values, looked up when iteration
+     * starts; iterating it while the map is being modified throws
+     * ConcurrentModificationException.
      *
      * @return all values corresponding to a key in the symbol table
      */
     public Iterable<Value> getAll(Key key)
     {
-        Queue<Value> queue = new LinkedList<Value>();
-
-        Node node = _first;
-        
-        while (node != null) {
+        return () -> {
         	
-        	if (node._key.equals(key))
-        		queue.add(node._value);
-        	node = node._next;
-        	
-        }
-
-        return queue;
+        	ValueSet<Value> values = valuesFor(key);
+        	if (values == null) return Collections.emptyIterator();
+        	return values.iterator(this);
+        };
     }
     
     public Key firstKey() {
@@ -314,7 +536,8 @@ public class LinkedMultiMap<Key, Value> implements MultiMap<Key, Value>
 
         for (Node x = _first; x != null; x = x._next)
         {
-        	sb.append("(" + x._key.toString() + ", " + x._value.toString() + ") ");
+        	for (Value value : x._values)
+        		sb.append("(" + x._key.toString() + ", " + value.toString() + ") ");
         }
 
         return sb.toString();
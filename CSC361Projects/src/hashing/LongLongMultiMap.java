@@ -0,0 +1,342 @@
+/******************************************************************************
+ *
+ *  A multi-map from primitive long keys to primitive long values, implemented
+ *  with a linear-probing hash table.
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code LongLongMultiMap} class represents a multi-map from
+ *  {@code long} keys to {@code long} values. It has the operations of
+ *  {@link MultiMap}, but keys and values are primitives throughout, so no
+ *  operation boxes anything. Multiple pairs with the same key are possible,
+ *  but a <key, value> pair cannot be repeated.
+ *  <p>
+ *  This implementation uses <em>open addressing</em> with <em>linear probing</em>
+ *  over the distinct keys: slot i holds a key in {@code _keys[i]} and all of
+ *  that key's values, densely, in {@code _groups[i][0, _counts[i])}. A
+ *  {@code boolean[]} marks the occupied slots, since every long (0 included)
+ *  is a valid key. Grouping the values by key, as {@link MultiHashMap} does,
+ *  keeps each probe sequence as short as the number of distinct keys allows,
+ *  and <em>deleteAll</em> removes a key in one step. Deletion uses
+ *  backward-shift, and the table is kept between 1/8 and 1/2 full of keys.
+ *  Values within a key are found by a linear scan, so the expected time per
+ *  operation is constant for a bounded number of values per key.
+ *  <p>
+ *  <em>forEachValue</em> visits a key's values without allocating;
+ *  <em>getAll</em> and <em>keys</em> return new arrays.
+ *
+ *  @author Michael Peeler
+ */
+
+package hashing;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+public class LongLongMultiMap
+{
+	private static final int INIT_CAPACITY = 16;
+	private static final int INIT_GROUP_CAPACITY = 4;
+
+	private int _size;           // number of key-value pairs
+	private int _distinctKeys;   // number of occupied slots
+	private int _capacity;       // length of the parallel arrays; always a power of 2
+	private long[] _keys;
+	private long[][] _groups;    // the values of _keys[i], dense in [0, _counts[i])
+	private int[] _counts;
+	private boolean[] _used;     // _used[i] is true if slot i holds a key
+
+	/**
+	 * Initializes an empty symbol table.
+	 */
+	public LongLongMultiMap() { this(INIT_CAPACITY); }
+
+	/**
+	 * Initializes an empty symbol table able to hold roughly {@code capacity / 2}
+	 * distinct keys before resizing.
+	 * @param capacity the initial number of slots; rounded up to a power of 2
+	 */
+	public LongLongMultiMap(int capacity)
+	{
+		_capacity = INIT_CAPACITY;
+		while (_capacity < capacity) _capacity *= 2;
+
+		allocate(_capacity);
+	}
+
+	private void allocate(int capacity)
+	{
+		_keys = new long[capacity];
+		_groups = new long[capacity][];
+		_counts = new int[capacity];
+		_used = new boolean[capacity];
+	}
+
+	// hash function for keys - returns value between 0 and _capacity-1
+	// (MurmurHash3 64-bit finalizer, so that sequential keys do not form one long cluster)
+	private int hash(long key)
+	{
+		long h = key;
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return (int) h & (_capacity - 1);
+	}
+
+	// the slot following i, wrapping around the end of the table
+	private int next(int i) { return (i + 1) & (_capacity - 1); }
+
+	// resize the table to the given number of slots; each key moves with its group
+	private void resize(int capacity)
+	{
+		long[] oldKeys = _keys;
+		long[][] oldGroups = _groups;
+		int[] oldCounts = _counts;
+		boolean[] oldUsed = _used;
+
+		_capacity = capacity;
+		allocate(capacity);
+
+		for (int i = 0; i < oldKeys.length; i++)
+		{
+			if (!oldUsed[i]) continue;
+
+			int j = hash(oldKeys[i]);
+			while (_used[j]) j = next(j);
+
+			_keys[j] = oldKeys[i];
+			_groups[j] = oldGroups[i];
+			_counts[j] = oldCounts[i];
+			_used[j] = true;
+		}
+	}
+
+	// returns the slot holding key, or -1 if the key is absent
+	private int slotOf(long key)
+	{
+		for (int i = hash(key); _used[i]; i = next(i))
+		{
+			if (_keys[i] == key) return i;
+		}
+		return -1;
+	}
+
+	// returns the position of value in slot i's group, or -1
+	private int positionOf(int i, long value)
+	{
+		long[] group = _groups[i];
+		for (int p = 0; p < _counts[i]; p++)
+		{
+			if (group[p] == value) return p;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the number of key-value pairs in this symbol table.
+	 *
+	 * @return the number of key-value pairs in this symbol table
+	 */
+	public int size() { return _size; }
+
+	/**
+	 * Returns *true* if this symbol table is empty.
+	 *
+	 * @return {@code true} if this symbol table is empty;
+	 *         {@code false} otherwise
+	 */
+	public boolean isEmpty() { return size() == 0; }
+
+	/**
+	 * Returns the number of distinct keys in this symbol table.
+	 *
+	 * @return the number of distinct keys in this symbol table
+	 */
+	public int distinctKeyCount() { return _distinctKeys; }
+
+	/**
+	 * Returns *true* if this symbol table contains the specified key.
+	 *
+	 * @param  key the key
+	 * @return {@code true} if this symbol table contains {@code key};
+	 *         {@code false} otherwise
+	 */
+	public boolean contains(long key) { return slotOf(key) != -1; }
+
+	/**
+	 * Returns true if this symbol table contains the specified <key, value> pair.
+	 *
+	 * @param  key the key
+	 * @param  value the value
+	 * @return {@code true} if this symbol table contains the pair;
+	 *         {@code false} otherwise
+	 */
+	public boolean containsPair(long key, long value)
+	{
+		int i = slotOf(key);
+		return i != -1 && positionOf(i, value) != -1;
+	}
+
+	/**
+	 * Inserts the specified key-value pair into the symbol table (if not already contained).
+	 *
+	 * @param  key the key
+	 * @param  value the value
+	 */
+	public void put(long key, long value)
+	{
+		int i = hash(key);
+		while (_used[i] && _keys[i] != key) i = next(i);
+
+		if (!_used[i])
+		{
+			// double table size if it would become more than half full; the key
+			// is new, so only its empty slot in the new table has to be found
+			if (2 * (_distinctKeys + 1) > _capacity)
+			{
+				resize(2 * _capacity);
+				i = hash(key);
+				while (_used[i]) i = next(i);
+			}
+
+			_keys[i] = key;
+			_groups[i] = new long[INIT_GROUP_CAPACITY];
+			_used[i] = true;
+			_distinctKeys++;
+		}
+		else if (positionOf(i, value) != -1) return;
+
+		if (_counts[i] == _groups[i].length) _groups[i] = Arrays.copyOf(_groups[i], 2 * _counts[i]);
+
+		_groups[i][_counts[i]++] = value;
+		_size++;
+	}
+
+	/**
+	 * Removes the specified <key, value> pair from this symbol table (if present).
+	 *
+	 * @param  key the key
+	 * @param  value the value
+	 */
+	public void delete(long key, long value)
+	{
+		int i = slotOf(key);
+		if (i == -1) return;
+
+		int p = positionOf(i, value);
+		if (p == -1) return;
+
+		// move the key's last value into the hole
+		_groups[i][p] = _groups[i][--_counts[i]];
+		_size--;
+
+		if (_counts[i] == 0) removeAt(i);
+	}
+
+	/**
+	 * Removes all pairs with the given key.
+	 *
+	 * @param  key the key
+	 */
+	public void deleteAll(long key)
+	{
+		int i = slotOf(key);
+		if (i == -1) return;
+
+		_size -= _counts[i];
+		removeAt(i);
+	}
+
+	// Empties slot i, then shifts later members of the cluster backward so that
+	// every remaining key is still reachable from its home slot; finally
+	// halves the table if it is at most 1/8 full.
+	private void removeAt(int i)
+	{
+		_used[i] = false;
+		_groups[i] = null;
+		_counts[i] = 0;
+		_distinctKeys--;
+
+		for (int j = next(i); _used[j]; j = next(j))
+		{
+			int home = hash(_keys[j]);
+
+			// The key at j may stay put if its home lies cyclically in (i, j]
+			boolean stays = (i <= j) ? (i < home && home <= j) : (i < home || home <= j);
+			if (stays) continue;
+
+			_keys[i] = _keys[j];
+			_groups[i] = _groups[j];
+			_counts[i] = _counts[j];
+			_used[i] = true;
+			_groups[j] = null;
+			_counts[j] = 0;
+			_used[j] = false;
+			i = j;
+		}
+
+		if (_capacity > INIT_CAPACITY && 8 * _distinctKeys <= _capacity) resize(_capacity / 2);
+	}
+
+	/**
+	 * Applies {@code action} to each value associated with the specified key.
+	 * The map must not be modified by {@code action}.
+	 *
+	 * @param  key the key
+	 * @param  action the action to apply to each value
+	 */
+	public void forEachValue(long key, LongConsumer action)
+	{
+		int i = slotOf(key);
+		if (i == -1) return;
+
+		long[] group = _groups[i];
+		for (int p = 0; p < _counts[i]; p++) action.accept(group[p]);
+	}
+
+	/**
+	 * Returns all values associated with the specified key in this symbol table.
+	 *
+	 * @param  key the key
+	 * @return a new array of the values associated with {@code key}; empty if there are none
+	 */
+	public long[] getAll(long key)
+	{
+		int i = slotOf(key);
+		return i == -1 ? new long[0] : Arrays.copyOf(_groups[i], _counts[i]);
+	}
+
+	/**
+	 * Returns the distinct keys in the symbol table.
+	 *
+	 * @return a new array holding each key once
+	 */
+	public long[] keys()
+	{
+		long[] keys = new long[_distinctKeys];
+		int n = 0;
+
+		for (int i = 0; i < _capacity; i++)
+		{
+			if (_used[i]) keys[n++] = _keys[i];
+		}
+
+		return keys;
+	}
+
+	public String toString()
+	{
+		StringBuilder sb = new StringBuilder();
+
+		for (int i = 0; i < _capacity; i++)
+		{
+			for (int p = 0; _used[i] && p < _counts[i]; p++)
+				sb.append("(" + _keys[i] + ", " + _groups[i][p] + ") ");
+		}
+
+		return sb.toString();
+	}
+}
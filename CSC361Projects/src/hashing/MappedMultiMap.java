@@ -0,0 +1,625 @@
+/******************************************************************************
+ *
+ *  A multi-map symbol table stored off-heap in a memory-mapped file.
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code MappedMultiMap} class represents a multi-map of generic
+ *  key-value pairs whose contents live in a file rather than on the Java heap.
+ *  It supports the same operations as the other multi-maps: multiple pairs
+ *  with the same key are possible, but a <key, value> pair cannot be repeated.
+ *  <p>
+ *  Keys and values are converted to fixed-width bytes by a {@link Codec}. The
+ *  file holds a small header followed by a linear-probing hash table of
+ *  fixed-width slots, each a state byte, the encoded key and the encoded value,
+ *  laid out as in {@link OpenAddressingMultiMap}. The table is mapped into
+ *  memory in chunks of at most 1 GiB (a single {@link MappedByteBuffer} cannot
+ *  exceed 2 GiB), so the garbage collector never sees the pairs and a table
+ *  of several gigabytes costs no more GC time than an empty one. Keys are
+ *  hashed and compared in their encoded form, so the layout does not depend
+ *  on {@code hashCode()} and stays valid across processes.
+ *  <p>
+ *  Opening an existing file maps it as it is; nothing is rebuilt. The table
+ *  doubles when it would become more than half full by writing a larger copy
+ *  next to the file and atomically moving it into place, so a crash during a
+ *  resize leaves the previous file intact. The table holds at most 2^30
+ *  slots, so 2^29 pairs, and the file never shrinks. Changes
+ *  reach the file through the mapping; {@link #flush()} forces them to disk.
+ *  <p>
+ *  <em>getAll</em> and <em>keySet</em> return live views that decode pairs as
+ *  they are iterated and fail fast if the map is modified. This class is not
+ *  thread-safe.
+ *
+ *  @author Michael Peeler
+ */
+
+package hashing;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public class MappedMultiMap<Key, Value> implements MultiMap<Key, Value>, Versioned, Closeable
+{
+	private static final int MAGIC = 0x4D4D4D31;   // "MMM1"
+	private static final int HEADER_BYTES = 64;
+	private static final int INIT_CAPACITY = 16;
+	private static final int MAX_CAPACITY = 1 << 30;   // the largest power of 2 an int holds
+	private static final long MAX_CHUNK_BYTES = 1L << 30;
+
+	// header fields, by byte offset
+	private static final int MAGIC_AT = 0;
+	private static final int KEY_WIDTH_AT = 4;
+	private static final int VALUE_WIDTH_AT = 8;
+	private static final int CAPACITY_AT = 12;
+	private static final int SIZE_AT = 16;
+
+	// slot states
+	private static final byte EMPTY = 0;
+	private static final byte FULL = 1;
+
+	private final Path _file;
+	private final Codec<Key> _keyCodec;
+	private final Codec<Value> _valueCodec;
+	private final int _keyWidth;
+	private final int _slotWidth;       // state byte + key + value
+	private final int _chunkShift;      // log2 of the number of slots per mapped chunk
+	private final ByteBuffer _scratch;  // the encoded key, followed by the encoded value
+
+	private Table _table;
+	private int _size;                  // number of key-value pairs
+	private int _modCount;              // structural modifications, for fail-fast views
+
+	/*
+	 * One mapping of a file: the header and the slot chunks.
+	 */
+	private class Table
+	{
+		final FileChannel _channel;
+		final MappedByteBuffer _header;
+		final MappedByteBuffer[] _chunks;
+		final int _capacity;
+
+		// maps capacity slots of the file, extending it with empty slots if needed
+		Table(FileChannel channel, int capacity) throws IOException
+		{
+			_channel = channel;
+			_capacity = capacity;
+			_header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+
+			int slotsPerChunk = Math.min(capacity, 1 << _chunkShift);
+			_chunks = new MappedByteBuffer[capacity / slotsPerChunk];
+
+			for (int c = 0; c < _chunks.length; c++)
+			{
+				long start = HEADER_BYTES + (long) c * slotsPerChunk * _slotWidth;
+				_chunks[c] = channel.map(FileChannel.MapMode.READ_WRITE, start, (long) slotsPerChunk * _slotWidth);
+			}
+		}
+
+		ByteBuffer chunk(int i) { return _chunks[i >>> _chunkShift]; }
+
+		// byte offset of slot i within its chunk
+		int offset(int i) { return (i & ((1 << _chunkShift) - 1)) * _slotWidth; }
+
+		boolean isFull(int i) { return chunk(i).get(offset(i)) == FULL; }
+
+		int next(int i) { return (i + 1) & (_capacity - 1); }
+
+		int home(int i) { return hash(chunk(i), offset(i) + 1, _capacity); }
+
+		// do the first length bytes of slot i's key and value equal bytes[0, length)?
+		boolean matches(int i, ByteBuffer bytes, int length)
+		{
+			ByteBuffer chunk = chunk(i);
+			int at = offset(i) + 1;
+
+			for (int b = 0; b < length; b++)
+			{
+				if (chunk.get(at + b) != bytes.get(b)) return false;
+			}
+			return true;
+		}
+
+		// fill slot i from bytes[0, _slotWidth - 1)
+		void write(int i, ByteBuffer bytes)
+		{
+			ByteBuffer chunk = chunk(i);
+			int at = offset(i);
+
+			chunk.put(at, FULL);
+			chunk.put(at + 1, bytes, 0, _slotWidth - 1);
+		}
+
+		// copy slot i of from into slot j of this table
+		void copy(Table from, int i, int j)
+		{
+			chunk(j).put(offset(j), from.chunk(i), from.offset(i), _slotWidth);
+		}
+
+		void clear(int i) { chunk(i).put(offset(i), EMPTY); }
+
+		void force()
+		{
+			_header.force();
+			for (MappedByteBuffer chunk : _chunks) chunk.force();
+		}
+	}
+
+	/**
+	 * Opens the multi-map stored in {@code file}, creating an empty one if the
+	 * file does not exist or is empty.
+	 *
+	 * @param  file the backing file
+	 * @param  keyCodec converts keys to and from bytes
+	 * @param  valueCodec converts values to and from bytes
+	 * @throws IllegalArgumentException if an argument is {@code null} or the file
+	 *                                  was written with codecs of different widths
+	 * @throws IOException if the file cannot be opened or is not a multi-map file
+	 */
+	public MappedMultiMap(Path file, Codec<Key> keyCodec, Codec<Value> valueCodec) throws IOException
+	{
+		if (file == null) throw new IllegalArgumentException("file argument to MappedMultiMap() is null");
+		if (keyCodec == null || valueCodec == null) throw new IllegalArgumentException("codec argument to MappedMultiMap() is null");
+
+		_file = file;
+		_keyCodec = keyCodec;
+		_valueCodec = valueCodec;
+		_keyWidth = keyCodec.width();
+		_slotWidth = 1 + keyCodec.width() + valueCodec.width();
+		_scratch = ByteBuffer.allocate(keyCodec.width() + valueCodec.width());
+
+		// the largest power of 2 number of slots that fits in a chunk
+		int shift = 0;
+		while ((2L << shift) * _slotWidth <= MAX_CHUNK_BYTES) shift++;
+		_chunkShift = shift;
+
+		if (Files.exists(file) && Files.size(file) > 0) openExisting();
+		else _table = createTable(file, INIT_CAPACITY);
+	}
+
+	private void openExisting() throws IOException
+	{
+		FileChannel channel = FileChannel.open(_file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try
+		{
+			if (channel.size() < HEADER_BYTES) throw new IOException(_file + " is not a multi-map file");
+
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+			int capacity = header.getInt(CAPACITY_AT);
+
+			if (header.getInt(MAGIC_AT) != MAGIC) throw new IOException(_file + " is not a multi-map file");
+
+			if (header.getInt(KEY_WIDTH_AT) != _keyWidth || header.getInt(VALUE_WIDTH_AT) != _slotWidth - 1 - _keyWidth)
+				throw new IllegalArgumentException(_file + " was written with codecs of different widths");
+
+			if (capacity < 1 || Integer.bitCount(capacity) != 1 || channel.size() < HEADER_BYTES + (long) capacity * _slotWidth)
+				throw new IOException(_file + " is truncated or corrupt");
+
+			_table = new Table(channel, capacity);
+			_size = header.getInt(SIZE_AT);
+		}
+		catch (IOException | RuntimeException e)
+		{
+			channel.close();
+			throw e;
+		}
+	}
+
+	// creates (or truncates) path as an empty table with the given capacity
+	private Table createTable(Path path, int capacity) throws IOException
+	{
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+		                                       StandardOpenOption.READ, StandardOpenOption.WRITE);
+		Table table;
+		try
+		{
+			table = new Table(channel, capacity);
+		}
+		catch (IOException | RuntimeException e)
+		{
+			channel.close();
+			throw e;
+		}
+
+		table._header.putInt(MAGIC_AT, MAGIC);
+		table._header.putInt(KEY_WIDTH_AT, _keyWidth);
+		table._header.putInt(VALUE_WIDTH_AT, _slotWidth - 1 - _keyWidth);
+		table._header.putInt(CAPACITY_AT, capacity);
+		table._header.putInt(SIZE_AT, _size);
+
+		return table;
+	}
+
+	// hash of the key encoded in bytes at offset - returns value between 0 and capacity-1
+	// (FNV-1a over the bytes, then the MurmurHash3 finalizer)
+	private int hash(ByteBuffer bytes, int offset, int capacity)
+	{
+		int h = 0x811c9dc5;
+		for (int b = 0; b < _keyWidth; b++)
+		{
+			h ^= bytes.get(offset + b);
+			h *= 0x01000193;
+		}
+
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return h & (capacity - 1);
+	}
+
+	// encode key (and value, if non-null) into _scratch
+	private void encode(Key key, Value value)
+	{
+		_keyCodec.encode(key, _scratch, 0);
+		if (value != null) _valueCodec.encode(value, _scratch, _keyWidth);
+	}
+
+	// doubles the table into a sibling file, then moves it over the original;
+	// if anything fails, the map and its file are left as they were
+	private void grow()
+	{
+		if (_table._capacity >= MAX_CAPACITY)
+			throw new IllegalStateException(_file + " cannot grow past " + MAX_CAPACITY + " slots");
+
+		Path resized = _file.resolveSibling(_file.getFileName() + ".resize");
+
+		try
+		{
+			Table larger = createTable(resized, 2 * _table._capacity);
+			try
+			{
+				for (int i = 0; i < _table._capacity; i++)
+				{
+					if (!_table.isFull(i)) continue;
+
+					int j = hash(_table.chunk(i), _table.offset(i) + 1, larger._capacity);
+					while (larger.isFull(j)) j = larger.next(j);
+
+					larger.copy(_table, i, j);
+				}
+
+				larger.force();
+				Files.move(resized, _file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (IOException | RuntimeException e)
+			{
+				larger._channel.close();
+				Files.deleteIfExists(resized);
+				throw e;
+			}
+
+			// the old file is gone from the directory, so only its channel remains
+			_table._channel.close();
+			_table = larger;
+			_modCount++;
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException("resizing " + _file, e);
+		}
+	}
+
+	// record a change in the number of pairs
+	private void updateSize(int delta)
+	{
+		_size += delta;
+		_table._header.putInt(SIZE_AT, _size);
+		_modCount++;
+	}
+
+	/**
+	 * Returns the number of key-value pairs in this symbol table.
+	 *
+	 * @return the number of key-value pairs in this symbol table
+	 */
+	public int size() { return _size; }
+
+	/**
+	 * Returns *true* if this symbol table is empty.
+	 *
+	 * @return {@code true} if this symbol table is empty;
+	 *         {@code false} otherwise
+	 */
+	public boolean isEmpty() { return size() == 0; }
+
+	public int modCount() { return _modCount; }
+
+	/**
+	 * Returns *true* if this symbol table contains the specified key.
+	 *
+	 * @param  key the key
+	 * @return {@code true} if this symbol table contains {@code key};
+	 *         {@code false} otherwise
+	 * @throws IllegalArgumentException if {@code key} is {@code null}
+	 */
+	public boolean contains(Key key)
+	{
+		if (key == null) throw new IllegalArgumentException("argument to contains() is null");
+
+		encode(key, null);
+		for (int i = hash(_scratch, 0, _table._capacity); _table.isFull(i); i = _table.next(i))
+		{
+			if (_table.matches(i, _scratch, _keyWidth)) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns true if this symbol table contains the specified <key, value> pair.
+	 *
+	 * @param  key the key
+	 * @param  value the value
+	 * @return {@code true} if this symbol table contains the pair;
+	 *         {@code false} otherwise
+	 * @throws IllegalArgumentException if {@code key} or {@code value} is {@code null}
+	 */
+	public boolean containsPair(Key key, Value value)
+	{
+		if (key == null) throw new IllegalArgumentException("argument to containsPair() is null");
+		if (value == null) throw new IllegalArgumentException("second argument to containsPair() is null");
+
+		encode(key, value);
+		return indexOfPair() != -1;
+	}
+
+	// returns the slot holding the pair in _scratch, or -1 if it is absent
+	private int indexOfPair()
+	{
+		for (int i = hash(_scratch, 0, _table._capacity); _table.isFull(i); i = _table.next(i))
+		{
+			if (_table.matches(i, _scratch, _slotWidth - 1)) return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Inserts the specified key-value pair into the symbol table (if not already contained).
+	 *
+	 * @param  key the key
+	 * @param  value the value
+	 * @throws IllegalArgumentException if {@code key} is {@code null} or
+	 *                                  {@code value} is {@code null}, or either
+	 *                                  cannot be encoded by its codec
+	 * @throws UncheckedIOException if the table must grow and the file cannot be rewritten
+	 * @throws IllegalStateException if the table must grow past 2^30 slots
+	 */
+	public void put(Key key, Value value)
+	{
+		if (key == null) throw new IllegalArgumentException("first argument to put() is null");
+		if (value == null) throw new IllegalArgumentException("second argument to put() is null");
+
+		encode(key, value);
+
+		// Walk the cluster: either we find the pair already present or
+		// we reach the empty slot at the end of the cluster.
+		int i = hash(_scratch, 0, _table._capacity);
+		for ( ; _table.isFull(i); i = _table.next(i))
+		{
+			if (_table.matches(i, _scratch, _slotWidth - 1)) return;
+		}
+
+		// double table size if it would become more than half full; the pair
+		// is new, so only its empty slot in the new table has to be found
+		if (2 * (_size + 1) > _table._capacity)
+		{
+			grow();
+			i = hash(_scratch, 0, _table._capacity);
+			while (_table.isFull(i)) i = _table.next(i);
+		}
+
+		_table.write(i, _scratch);
+		updateSize(1);
+	}
+
+	/**
+	 * Removes the specified <key, value> pair from this symbol table (if present).
+	 *
+	 * @param  key the key
+	 * @param  value the value
+	 * @throws IllegalArgumentException if {@code key} is {@code null}
+	 */
+	public void delete(Key key, Value value)
+	{
+		if (key == null) throw new IllegalArgumentException("argument to delete() is null");
+		if (value == null) throw new IllegalArgumentException("second argument to delete() is null");
+
+		encode(key, value);
+		int i = indexOfPair();
+		if (i == -1) return;
+
+		removeAt(i);
+		updateSize(-1);
+	}
+
+	/**
+	 * Removes all pairs with the given key.
+	 *
+	 * @param  key the key
+	 * @throws IllegalArgumentException if {@code key} is {@code null}
+	 */
+	public void deleteAll(Key key)
+	{
+		if (key == null) throw new IllegalArgumentException("argument to deleteAll() is null");
+
+		encode(key, null);
+
+		// After a removal, a later pair may have been shifted into slot i,
+		// so we only advance when slot i does not match.
+		int removed = 0;
+		int i = hash(_scratch, 0, _table._capacity);
+		while (_table.isFull(i))
+		{
+			if (_table.matches(i, _scratch, _keyWidth))
+			{
+				removeAt(i);
+				removed++;
+			}
+			else i = _table.next(i);
+		}
+
+		if (removed > 0) updateSize(-removed);
+	}
+
+	// Empties slot i, then shifts later members of the cluster backward so that
+	// every remaining pair is still reachable from its home slot.
+	private void removeAt(int i)
+	{
+		_table.clear(i);
+
+		for (int j = _table.next(i); _table.isFull(j); j = _table.next(j))
+		{
+			int home = _table.home(j);
+
+			// The pair at j may stay put if its home lies cyclically in (i, j]
+			boolean stays = (i <= j) ? (i < home && home <= j) : (i < home || home <= j);
+			if (stays) continue;
+
+			_table.copy(_table, j, i);
+			_table.clear(j);
+			i = j;
+		}
+	}
+
+	/**
+	 * Returns all values associated with the specified key in this symbol table.
+	 * The result is a live view over the key's cluster; values are decoded as
+	 * they are iterated.
+	 *
+	 * @param  key the key
+	 * @return the values associated with {@code key}; empty if there are none
+	 * @throws IllegalArgumentException if {@code key} is {@code null}
+	 */
+	public Iterable<Value> getAll(Key key)
+	{
+		if (key == null) throw new IllegalArgumentException("argument to getAll() is null");
+
+		return () -> new SlotIterator<Value>()
+		{
+			private final ByteBuffer _key = ByteBuffer.allocate(_keyWidth);
+
+			{
+				_keyCodec.encode(key, _key, 0);
+				_slot = hash(_key, 0, _table._capacity);
+				advance();
+			}
+
+			// the key's pairs all lie between its home slot and the end of the cluster
+			void advance()
+			{
+				while (_table.isFull(_slot) && !_table.matches(_slot, _key, _keyWidth)) _slot = _table.next(_slot);
+				if (!_table.isFull(_slot)) _slot = -1;
+			}
+
+			Value current() { return _valueCodec.decode(_table.chunk(_slot), _table.offset(_slot) + 1 + _keyWidth); }
+
+			void step() { _slot = _table.next(_slot); }
+		};
+	}
+
+	/**
+	 * Returns all unique keys in the symbol table as an {@code Iterable}.
+	 * The result is a live view that scans the table; keys are decoded as
+	 * they are iterated.
+	 *
+	 * @return all keys in the symbol table
+	 */
+	public Iterable<Key> keySet()
+	{
+		return () -> new SlotIterator<Key>()
+		{
+			{ _slot = 0; advance(); }
+
+			void advance()
+			{
+				while (_slot < _table._capacity && (!_table.isFull(_slot) || !isFirstOfKey(_slot))) _slot++;
+				if (_slot == _table._capacity) _slot = -1;
+			}
+
+			Key current() { return _keyCodec.decode(_table.chunk(_slot), _table.offset(_slot) + 1); }
+
+			void step() { _slot++; }
+		};
+	}
+
+	// Is slot i the first slot of its key's probe sequence holding that key?
+	private boolean isFirstOfKey(int i)
+	{
+		ByteBuffer chunk = _table.chunk(i);
+		int at = _table.offset(i) + 1;
+
+		for (int j = _table.home(i); j != i; j = _table.next(j))
+		{
+			ByteBuffer other = _table.chunk(j);
+			int otherAt = _table.offset(j) + 1;
+
+			int b = 0;
+			while (b < _keyWidth && chunk.get(at + b) == other.get(otherAt + b)) b++;
+			if (b == _keyWidth) return false;
+		}
+		return true;
+	}
+
+	/*
+	 * A fail-fast iterator over a sequence of slots. Subclasses position _slot
+	 * on the first slot to yield (or -1 when there is none) with advance(),
+	 * and step() moves past the current slot before advance() is called again.
+	 */
+	private abstract class SlotIterator<Item> implements Iterator<Item>
+	{
+		private final int _expectedModCount = _modCount;
+		int _slot;
+
+		abstract void advance();
+
+		abstract Item current();
+
+		abstract void step();
+
+		public boolean hasNext()
+		{
+			if (_modCount != _expectedModCount) throw new ConcurrentModificationException();
+			return _slot != -1;
+		}
+
+		public Item next()
+		{
+			if (!hasNext()) throw new NoSuchElementException();
+
+			Item item = current();
+			step();
+			advance();
+			return item;
+		}
+	}
+
+	/**
+	 * Forces all changes to the backing file onto the storage device.
+	 */
+	public void flush() { _table.force(); }
+
+	/**
+	 * Flushes and closes the backing file. The map must not be used afterwards.
+	 *
+	 * @throws IOException if the file cannot be closed
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		flush();
+		_table._channel.close();
+	}
+}
@@ -25,6 +25,49 @@
  *  The <em>size</em>, and <em>is-empty</em> operations take constant time.
  *  Construction takes constant time.
  *  <p>
+ *  <em>getAll</em> and <em>keySet</em> return live views that walk the chains
+ *  directly instead of copying into a new collection; their iterators throw
+ *  {@link ConcurrentModificationException} if the map is modified during
+ *  iteration.
+ *  <p>
+ *  The distinct keys are also kept in a dense array (each key's position is
+ *  stored with its values, and removal moves the last key into the hole), so
+ *  <em>keySet</em> takes time proportional to the number of distinct keys
+ *  rather than to the table length, <em>distinctKeyCount</em> takes constant
+ *  time, and <em>randomKey</em> samples a key uniformly in constant time.
+ *  The order of <em>keySet</em> is unspecified and changes as keys are deleted.
+ *  <p>
+ *  By default a resize rehashes every pair in a single call. In
+ *  <em>incremental</em> mode the old and new tables are kept together instead,
+ *  and each subsequent <em>put</em>, <em>delete</em> or <em>deleteAll</em>
+ *  migrates a bounded number of old chains ({@code MIGRATION_STEP}), so no
+ *  single operation pays for the whole rehash. Until migration finishes, a key
+ *  lives in its old chain if that chain has not been moved yet, and in its new
+ *  chain otherwise.
+ *  <p>
+ *  The resize policy can be tuned through {@link Builder}: the table grows by
+ *  {@code resizeFactor} once the average chain holds {@code growLoadFactor}
+ *  pairs (10 by default) and shrinks by the same factor once it holds at most
+ *  {@code shrinkLoadFactor} (2 by default). Shrinking is hysteresis-aware: it
+ *  never goes below {@code minCapacity} chains, it waits until
+ *  {@code shrinkCooldown} operations have passed since the previous resize, and
+ *  it only happens if the shrunken table would still be a full
+ *  {@code resizeFactor} away from growing again. A workload that hovers around
+ *  a threshold therefore does not rehash back and forth.
+ *  <p>
+ *  Keys that collide cannot degrade the table to sequential search: a chain
+ *  of more than 8 {@link Comparable} keys is also indexed by a balanced tree
+ *  (see {@link LinkedMultiMap}), so every operation on it takes
+ *  logarithmic time. A {@link Builder#hashSeed seeded} map also makes it
+ *  impossible to predict which hash codes share a chain; keys with equal hash
+ *  codes always share one, and for those the tree is what bounds the cost.
+ *  <p>
+ *  <em>putAll</em> grows the table once, up front, when it is given a
+ *  {@link Collection}, and {@link #bulkLoad} builds a presized map from a
+ *  collection of pairs on a {@link ForkJoinPool}: the pairs are hashed in
+ *  parallel, sorted by chain with a counting sort, and then every chain is
+ *  built by exactly one task, so no locking is needed and nothing is rehashed.
+ *  <p>
  *  For additional documentation, see <a href="https://algs4.cs.princeton.edu/34hash">Section 3.4</a> of
  *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
  *  For other implementations, see {@link ST}, {@link BinarySearchST},
@@ -51,21 +94,59 @@
 
 package hashing;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiPredicate;
 
 import hash_util.Constants;
 
-public class MultiHashMap<Key, Value> implements MultiMap<Key, Value>
+public class MultiHashMap<Key, Value> implements MultiMap<Key, Value>, Versioned
 {
 	private static final int INIT_CAPACITY = 4;
 
 	private int _size;                        // number of key-value pairs
 	private int _tableLength;                 // hash table size
 	private LinkedMultiMap<Key, Value>[] st;  // array of linked-list symbol tables
+	private int _modCount;                    // structural modifications, for fail-fast views
+
+	// Distinct-key index: _keys[0, _distinctKeys) holds every key once, and
+	// _groups[i] is that key's ValueSet, whose _slot is i
+	private Key[] _keys;
+	private ValueSet<Value>[] _groups;
+	private int _distinctKeys;
+
+	private static final int INCREASE_DECREASE_FACTOR = 2;
+	private static final double GROW_LOAD_FACTOR = 10;    // grow when average chain length >= 10
+	private static final double SHRINK_LOAD_FACTOR = 2;   // shrink when average chain length <= 2
 
-	private static int INCREASE_DECREASE_FACTOR = 2;
+	// Resize policy (see Builder)
+	private final double _growLoadFactor;
+	private final double _shrinkLoadFactor;
+	private final int _resizeFactor;
+	private final int _minCapacity;
+	private final int _shrinkCooldown;    // operations that must pass after a resize before shrinking
+	private int _opsSinceResize;
+	private int _resizeCount;
+
+	// Incremental rehashing: while _oldTable is non-null, chains [0, _migrated)
+	// of it have been moved into st and the remaining ones are still live.
+	private static final int MIGRATION_STEP = 4;  // old chains moved per operation
+	private final boolean _incremental;
+	private LinkedMultiMap<Key, Value>[] _oldTable;
+	private int _oldTableLength;
+	private int _migrated;
+
+	// Collision resistance (see Builder)
+	private final boolean _treeifyChains;  // index long chains of Comparable keys by a tree
+	private final boolean _seeded;         // mix a secret seed into every hash
+	private final int _hashSeed;
 
 	/**
 	 * Initializes an empty symbol table.
@@ -76,53 +157,339 @@ public class MultiHashMap<Key, Value> implements MultiMap<Key, Value>
 	 * Initializes an empty symbol table with {@code m} chains.
 	 * @param _tableLength the initial number of chains
 	 */
-	@SuppressWarnings("unchecked")
-	public MultiHashMap(int m)
+	public MultiHashMap(int m) { this(m, false); }
+
+	/**
+	 * Initializes an empty symbol table with {@code m} chains.
+	 * @param m the initial number of chains
+	 * @param incrementalRehash -- spread each resize across later operations
+	 *                             rather than rehashing everything at once
+	 */
+	public MultiHashMap(int m, boolean incrementalRehash)
+	{
+		this(m, incrementalRehash, GROW_LOAD_FACTOR, SHRINK_LOAD_FACTOR,
+		     INCREASE_DECREASE_FACTOR, INIT_CAPACITY, 0, true, false, 0);
+	}
+
+	private MultiHashMap(int m, boolean incrementalRehash, double growLoadFactor, double shrinkLoadFactor,
+	                     int resizeFactor, int minCapacity, int shrinkCooldown,
+	                     boolean treeifyChains, boolean seeded, int hashSeed)
 	{
 		_tableLength = m;
+		_incremental = incrementalRehash;
+		_growLoadFactor = growLoadFactor;
+		_shrinkLoadFactor = shrinkLoadFactor;
+		_resizeFactor = resizeFactor;
+		_minCapacity = minCapacity;
+		_shrinkCooldown = shrinkCooldown;
+		_treeifyChains = treeifyChains;
+		_seeded = seeded;
+		_hashSeed = hashSeed;
 
-		st = (LinkedMultiMap<Key, Value>[]) new LinkedMultiMap[_tableLength];
+		st = newTable(_tableLength);
+		resizeKeyIndex(INIT_CAPACITY);
+	}
 
-		for (int i = 0; i < _tableLength; i++)
+	/**
+	 * @return a builder for a MultiHashMap with a custom resize policy
+	 */
+	public static <Key, Value> Builder<Key, Value> builder() { return new Builder<Key, Value>(); }
+
+	/**
+	 * Configures the resize policy and collision handling of a MultiHashMap.
+	 * Unset options keep the defaults used by the plain constructors.
+	 */
+	public static class Builder<Key, Value>
+	{
+		private int _initialCapacity = INIT_CAPACITY;
+		private int _minCapacity = INIT_CAPACITY;
+		private double _growLoadFactor = GROW_LOAD_FACTOR;
+		private double _shrinkLoadFactor = SHRINK_LOAD_FACTOR;
+		private int _resizeFactor = INCREASE_DECREASE_FACTOR;
+		private int _shrinkCooldown = 0;
+		private boolean _incremental = false;
+		private boolean _treeifyChains = true;
+		private boolean _seeded = false;
+		private int _hashSeed;
+
+		/** @param m the initial number of chains; rounded up to a power of 2 */
+		public Builder<Key, Value> initialCapacity(int m) { _initialCapacity = m; return this; }
+
+		/** @param m the table never shrinks below this many chains; rounded up to a power of 2 */
+		public Builder<Key, Value> minCapacity(int m) { _minCapacity = m; return this; }
+
+		/** @param load grow once the average chain holds this many pairs */
+		public Builder<Key, Value> growLoadFactor(double load) { _growLoadFactor = load; return this; }
+
+		/** @param load shrink once the average chain holds at most this many pairs */
+		public Builder<Key, Value> shrinkLoadFactor(double load) { _shrinkLoadFactor = load; return this; }
+
+		/** @param factor multiply or divide the number of chains by this power of 2 on each resize */
+		public Builder<Key, Value> resizeFactor(int factor) { _resizeFactor = factor; return this; }
+
+		/** @param ops number of put/delete/deleteAll calls after a resize during which no shrink happens */
+		public Builder<Key, Value> shrinkCooldown(int ops) { _shrinkCooldown = ops; return this; }
+
+		/** @param incremental spread each resize across later operations */
+		public Builder<Key, Value> incrementalRehash(boolean incremental) { _incremental = incremental; return this; }
+
+		/** @param treeify index chains of more than 8 Comparable keys by a balanced tree (on by default) */
+		public Builder<Key, Value> treeifyChains(boolean treeify) { _treeifyChains = treeify; return this; }
+
+		/**
+		 * @param seed mixed into every hash, so that which keys share a chain
+		 *             cannot be predicted without it; use a secret random value
+		 *             (e.g. from {@link java.security.SecureRandom}) when keys
+		 *             come from untrusted sources
+		 */
+		public Builder<Key, Value> hashSeed(int seed) { _seeded = true; _hashSeed = seed; return this; }
+
+		/**
+		 * @return a new, empty map with this policy
+		 * @throws IllegalArgumentException if the policy is inconsistent
+		 */
+		public MultiHashMap<Key, Value> build()
 		{
-			st[i] = new LinkedMultiMap<Key, Value>();
+			if (_growLoadFactor <= 0) throw new IllegalArgumentException("grow load factor must be positive");
+			if (_shrinkLoadFactor < 0 || _shrinkLoadFactor >= _growLoadFactor)
+				throw new IllegalArgumentException("shrink load factor must be in [0, grow load factor)");
+			if (_resizeFactor < 2 || Integer.bitCount(_resizeFactor) != 1)
+				throw new IllegalArgumentException("resize factor must be a power of 2 and at least 2");
+			if (_minCapacity < 1) throw new IllegalArgumentException("minimum capacity must be positive");
+			if (_shrinkCooldown < 0) throw new IllegalArgumentException("shrink cooldown must be non-negative");
+
+			int minCapacity = powerOfTwoAtLeast(_minCapacity);
+			int initialCapacity = Math.max(powerOfTwoAtLeast(_initialCapacity), minCapacity);
+
+			return new MultiHashMap<Key, Value>(initialCapacity, _incremental, _growLoadFactor,
+			                                    _shrinkLoadFactor, _resizeFactor, minCapacity, _shrinkCooldown,
+			                                    _treeifyChains, _seeded, _hashSeed);
 		}
+
+		private static int powerOfTwoAtLeast(int n)
+		{
+			int p = 1;
+			while (p < n) p *= 2;
+			return p;
+		}
+	}
+
+	// chains are created on first put, so a fresh table costs only the array
+	@SuppressWarnings("unchecked")
+	private static <Key, Value> LinkedMultiMap<Key, Value>[] newTable(int chains)
+	{
+		return (LinkedMultiMap<Key, Value>[]) new LinkedMultiMap[chains];
 	}
 
 	// resize the hash table to have the given number of chains,
-	// rehashing all of the keys
-	private void resize(int chains)
+	// rehashing all of the keys (or, in incremental mode, starting to)
+	private void resize(int chains) { resize(chains, _incremental); }
+
+	private void resize(int chains, boolean incremental)
 	{
 		if (Constants.DEBUG)
            System.err.println("Resizing from " + _tableLength + "(" + _size + ")" + " to " + chains);
 		
-		MultiHashMap<Key, Value> temp = new MultiHashMap<Key, Value>(chains);
+		_resizeCount++;
+		_opsSinceResize = 0;
+		_modCount++;
+
+		if (incremental)
+		{
+			_oldTable = st;
+			_oldTableLength = _tableLength;
+			_migrated = 0;
+
+			_tableLength = chains;
+			st = newTable(chains);
+			return;
+		}
+
+		// each key moves with all of its values; no pair is copied
+		LinkedMultiMap<Key, Value>[] table = newTable(chains);
 
 		for (int i = 0; i < _tableLength; i++)
 		{
-			//
-			// Get all the values for each key and add them back to the temp
-			for (Key key : st[i].keySet())
-			{
-				for (Value value : st[i].getAll(key))
-				{
-					temp.put(key, value);
-				}								
-			}
+			if (st[i] == null) continue;
+
+			st[i].forEachGroup((key, values) -> chainForPut(key, table, hash(key, chains)).putGroup(key, values));
 		}
 
-		this._tableLength  = temp._tableLength;
-		this._size  = temp._size;
-		this.st = temp.st;
+		this._tableLength = chains;
+		this.st = table;
+	}
+
+	// grow if the average chain has reached the grow load factor
+	private void growIfFull()
+	{
+		if (!isRehashing() && _size >= _growLoadFactor * _tableLength)
+			resize(_resizeFactor * _tableLength);
+	}
+
+	// shrink if the average chain is short enough, the table stays above the
+	// floor, the cooldown has passed, and the smaller table would not be within
+	// one resize factor of growing straight back
+	private void shrinkIfSparse()
+	{
+		if (isRehashing() || _opsSinceResize < _shrinkCooldown) return;
+
+		int chains = _tableLength / _resizeFactor;
+
+		if (chains >= _minCapacity &&
+		    _size <= _shrinkLoadFactor * _tableLength &&
+		    _size * _resizeFactor <= _growLoadFactor * chains)
+			resize(chains);
+	}
+
+	// bookkeeping shared by every mutating operation
+	private void beginOperation()
+	{
+		if (_opsSinceResize < Integer.MAX_VALUE) _opsSinceResize++;
+		rehashStep();
+	}
+
+	// move the next few chains of the old table into the new one
+	private void rehashStep()
+	{
+		if (_oldTable == null) return;
+
+		_modCount++;
+
+		for (int n = 0; n < MIGRATION_STEP && _migrated < _oldTableLength; n++)
+		{
+			LinkedMultiMap<Key, Value> chain = _oldTable[_migrated];
+			_oldTable[_migrated++] = null;
+
+			if (chain == null) continue;
+
+			// each key moves with all of its values; no pair is copied
+			chain.forEachGroup((key, values) -> chainForPut(key, st, hash(key)).putGroup(key, values));
+		}
+
+		if (_migrated == _oldTableLength) _oldTable = null;
+	}
+
+	// move every remaining chain of the old table, ending any incremental rehash
+	private void finishRehash()
+	{
+		while (isRehashing()) rehashStep();
+	}
+
+	// the number of chains, starting from the given one, at which the grow
+	// policy would hold the given number of pairs without growing
+	private static int chainsFor(long pairs, int chains, double growLoadFactor, int resizeFactor)
+	{
+		while (pairs >= growLoadFactor * chains && chains <= Integer.MAX_VALUE / resizeFactor / 2)
+			chains *= resizeFactor;
+		return chains;
+	}
+
+	// grow the table, in a single rehash, until it can hold the given
+	// number of pairs without growing again
+	private void ensureCapacity(long pairs)
+	{
+		int chains = chainsFor(pairs, _tableLength, _growLoadFactor, _resizeFactor);
+		if (chains == _tableLength) return;
+
+		finishRehash();
+		resize(chains, false);
+	}
+
+	// Is a resize already being spread across operations?
+	private boolean isRehashing() { return _oldTable != null; }
+
+	// the chain currently holding the pairs for key; null if it is still empty
+	private LinkedMultiMap<Key, Value> chainFor(Key key)
+	{
+		if (isRehashing())
+		{
+			int i = hash(key, _oldTableLength);
+			if (i >= _migrated) return _oldTable[i];
+		}
+		return st[hash(key)];
+	}
+
+	// as chainFor, but creates the chain if it does not exist yet
+	private LinkedMultiMap<Key, Value> chainForPut(Key key)
+	{
+		if (isRehashing())
+		{
+			int i = hash(key, _oldTableLength);
+			if (i >= _migrated) return chainForPut(key, _oldTable, i);
+		}
+		return chainForPut(key, st, hash(key));
+	}
+
+	private LinkedMultiMap<Key, Value> chainForPut(Key key, LinkedMultiMap<Key, Value>[] table, int i)
+	{
+		if (table[i] == null) table[i] = new LinkedMultiMap<Key, Value>(_treeifyChains);
+		return table[i];
+	}
+
+	// reallocate the distinct-key index with room for the given number of keys
+	@SuppressWarnings("unchecked")
+	private void resizeKeyIndex(int capacity)
+	{
+		Key[] keys = (Key[]) new Object[capacity];
+		ValueSet<Value>[] groups = (ValueSet<Value>[]) new ValueSet[capacity];
+
+		if (_keys != null)
+		{
+			System.arraycopy(_keys, 0, keys, 0, _distinctKeys);
+			System.arraycopy(_groups, 0, groups, 0, _distinctKeys);
+		}
+
+		_keys = keys;
+		_groups = groups;
+	}
+
+	// add a newly created key to the end of the index
+	private void indexKey(Key key, ValueSet<Value> values)
+	{
+		if (_distinctKeys == _keys.length) resizeKeyIndex(2 * _keys.length);
+
+		values._slot = _distinctKeys;
+		_keys[_distinctKeys] = key;
+		_groups[_distinctKeys] = values;
+		_distinctKeys++;
+	}
+
+	// remove a deleted key from the index, moving the last key into its slot
+	private void unindexKey(ValueSet<Value> values)
+	{
+		int slot = values._slot;
+		int last = --_distinctKeys;
+
+		_keys[slot] = _keys[last];
+		_groups[slot] = _groups[last];
+		_groups[slot]._slot = slot;
+		_keys[last] = null;
+		_groups[last] = null;
+		values._slot = -1;
+
+		if (_keys.length > INIT_CAPACITY && 4 * _distinctKeys <= _keys.length)
+			resizeKeyIndex(_keys.length / 2);
 	}
 
 	// hash function for keys - returns value between 0 and m-1 (assumes m is a power of 2)
-	// (from Java 7 implementation, protects against poor quality hashCode() implementations)
-	private int hash(Key key)
+	// (from Java 7 implementation, protects against poor quality hashCode() implementations;
+	// a seeded map instead runs the seeded hash code through the MurmurHash3 finalizer)
+	private int hash(Key key) { return hash(key, _tableLength); }
+
+	private int hash(Key key, int m)
 	{
 		int h = key.hashCode();
-		h ^= (h >>> 20) ^ (h >>> 12) ^ (h >>> 7) ^ (h >>> 4);
-		return h & (_tableLength-1);
+		if (_seeded)
+		{
+			h ^= _hashSeed;
+			h ^= h >>> 16;
+			h *= 0x85ebca6b;
+			h ^= h >>> 13;
+			h *= 0xc2b2ae35;
+			h ^= h >>> 16;
+		}
+		else h ^= (h >>> 20) ^ (h >>> 12) ^ (h >>> 7) ^ (h >>> 4);
+		return h & (m-1);
 	}
 
 	/**
@@ -132,6 +499,16 @@ public class MultiHashMap<Key, Value> implements MultiMap<Key, Value>
 	 */
 	public int size() { return _size; }
 
+	public int modCount() { return _modCount; }
+
+	/**
+	 * Returns the number of resizes (grow or shrink) started so far;
+	 * useful for checking that a resize policy is not thrashing.
+	 *
+	 * @return the number of resizes of this table
+	 */
+	public int resizeCount() { return _resizeCount; }
+
 	/**
 	 * Returns *true* if this symbol table is empty.
 	 *
@@ -140,6 +517,27 @@ public class MultiHashMap<Key, Value> implements MultiMap<Key, Value>
 	 */
 	public boolean isEmpty() { return size() == 0; }
 
+	/**
+	 * Returns the number of distinct keys in this symbol table.
+	 *
+	 * @return the number of distinct keys in this symbol table
+	 */
+	public int distinctKeyCount() { return _distinctKeys; }
+
+	/**
+	 * Returns a key chosen uniformly at random from the distinct keys.
+	 *
+	 * @param  random the source of randomness
+	 * @return a random key
+	 * @throws NoSuchElementException if this symbol table is empty
+	 */
+	public Key randomKey(Random random)
+	{
+		if (isEmpty()) throw new NoSuchElementException("symbol table is empty");
+
+		return _keys[random.nextInt(_distinctKeys)];
+	}
+
 	/**
 	 * Returns *true* if this symbol table contains the specified key.
 	 *
@@ -153,7 +551,8 @@ public class MultiHashMap<Key, Value> implements MultiMap<Key, Value>
 		if (key == null) throw new IllegalArgumentException("argument to contains() is null");
 
 		// Do we have at least one <key,value> pair?
-		return st[hash(key)].getAll(key).iterator().hasNext();
+		LinkedMultiMap<Key, Value> chain = chainFor(key);
+		return chain != null && chain.contains(key);
 	} 
 	
 	/**
@@ -169,7 +568,8 @@ public class MultiHashMap<Key, Value> implements MultiMap<Key, Value>
 		if (key == null) throw new IllegalArgumentException("argument to contains() is null");
 
 		// Do we have at least one <key,value> pair?
-		return st[hash(key)].containsPair(key, value);
+		LinkedMultiMap<Key, Value> chain = chainFor(key);
+		return chain != null && chain.containsPair(key, value);
 	} 
 
 	/**
@@ -184,12 +584,173 @@ public class MultiHashMap<Key, Value> implements MultiMap<Key, Value>
 		if (key == null) throw new IllegalArgumentException("first argument to put() is null");
 		if (value == null) throw new IllegalArgumentException("second argument to put() is null");
 
-        // double table size if average length of list >= 10
-        if (_size >= 10 * _tableLength) resize(INCREASE_DECREASE_FACTOR * _tableLength);
+		beginOperation();
+		growIfFull();
         
-        int origSize = st[hash(key)].size();
-        st[hash(key)].put(key, value);
-        _size += st[hash(key)].size() - origSize;
+        LinkedMultiMap<Key, Value> chain = chainForPut(key);
+        int origSize = chain.size();
+        chain.put(key, value);
+        updateSize(chain.size() - origSize);
+
+        // put links a new key in at the front of its chain
+        ValueSet<Value> first = chain.firstNode()._values;
+        if (first._slot == -1) indexKey(key, first);
+	}
+
+	/**
+	 * Inserts every key-value pair of {@code pairs} (skipping those already
+	 * contained). If {@code pairs} is a {@link Collection}, the table first
+	 * grows once to its final size instead of doubling repeatedly.
+	 *
+	 * @param  pairs the pairs to insert
+	 * @throws IllegalArgumentException if {@code pairs} is {@code null}, or any
+	 *                                  key or value in it is {@code null}
+	 */
+	@Override
+	public void putAll(Iterable<? extends Map.Entry<? extends Key, ? extends Value>> pairs)
+	{
+		if (pairs == null) throw new IllegalArgumentException("argument to putAll() is null");
+
+		if (pairs instanceof Collection) ensureCapacity((long) _size + ((Collection<?>) pairs).size());
+
+		for (Map.Entry<? extends Key, ? extends Value> pair : pairs) put(pair.getKey(), pair.getValue());
+	}
+
+	/**
+	 * Builds a symbol table holding {@code pairs}, with the default resize
+	 * policy, in parallel on the common fork-join pool.
+	 *
+	 * @param  pairs the pairs to load; repeated pairs are stored once
+	 * @return a new symbol table sized for {@code pairs}
+	 * @throws IllegalArgumentException if {@code pairs} is {@code null}, or any
+	 *                                  key or value in it is {@code null}
+	 */
+	public static <Key, Value> MultiHashMap<Key, Value> bulkLoad(Collection<? extends Map.Entry<? extends Key, ? extends Value>> pairs)
+	{
+		return bulkLoad(pairs, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Builds a symbol table holding {@code pairs}, with the default resize
+	 * policy, in parallel on the given fork-join pool. The table is created at
+	 * its final size, so it never rehashes while loading.
+	 *
+	 * @param  pairs the pairs to load; repeated pairs are stored once
+	 * @param  pool the pool that runs the hashing and chain-building tasks
+	 * @return a new symbol table sized for {@code pairs}
+	 * @throws IllegalArgumentException if {@code pairs} or {@code pool} is {@code null},
+	 *                                  or any key or value in {@code pairs} is {@code null}
+	 */
+	@SuppressWarnings("unchecked")
+	public static <Key, Value> MultiHashMap<Key, Value> bulkLoad(Collection<? extends Map.Entry<? extends Key, ? extends Value>> pairs,
+	                                                            ForkJoinPool pool)
+	{
+		if (pairs == null) throw new IllegalArgumentException("first argument to bulkLoad() is null");
+		if (pool == null) throw new IllegalArgumentException("second argument to bulkLoad() is null");
+
+		Map.Entry<? extends Key, ? extends Value>[] entries = pairs.toArray(new Map.Entry[0]);
+		int n = entries.length;
+		int chains = chainsFor(n, INIT_CAPACITY, GROW_LOAD_FACTOR, INCREASE_DECREASE_FACTOR);
+		MultiHashMap<Key, Value> map = new MultiHashMap<Key, Value>(chains);
+
+		// 1. hash every pair
+		int[] chainOf = new int[n];
+		pool.invoke(new RangeTask(0, n, grain(n, pool), (lo, hi) -> {
+			for (int i = lo; i < hi; i++)
+			{
+				if (entries[i].getKey() == null) throw new IllegalArgumentException("null key passed to bulkLoad()");
+				if (entries[i].getValue() == null) throw new IllegalArgumentException("null value passed to bulkLoad()");
+
+				chainOf[i] = map.hash(entries[i].getKey());
+			}
+		}));
+
+		// 2. counting sort: the pairs of chain c are order[start[c], start[c + 1])
+		int[] start = new int[chains + 1];
+		for (int i = 0; i < n; i++) start[chainOf[i] + 1]++;
+		for (int c = 0; c < chains; c++) start[c + 1] += start[c];
+
+		int[] order = new int[n];
+		int[] next = new int[chains];
+		System.arraycopy(start, 0, next, 0, chains);
+		for (int i = 0; i < n; i++) order[next[chainOf[i]]++] = i;
+
+		// 3. build each chain; tasks own disjoint ranges of chains
+		pool.invoke(new RangeTask(0, chains, grain(chains, pool), (lo, hi) -> {
+			for (int c = lo; c < hi; c++)
+			{
+				if (start[c] == start[c + 1]) continue;
+
+				LinkedMultiMap<Key, Value> chain = new LinkedMultiMap<Key, Value>(map._treeifyChains);
+				for (int k = start[c]; k < start[c + 1]; k++)
+				{
+					Map.Entry<? extends Key, ? extends Value> pair = entries[order[k]];
+					chain.put(pair.getKey(), pair.getValue());
+				}
+				map.st[c] = chain;
+			}
+		}));
+
+		// 4. sizes and the distinct-key index
+		for (int c = 0; c < chains; c++)
+		{
+			if (map.st[c] == null) continue;
+
+			map._size += map.st[c].size();
+			map.st[c].forEachGroup(map::indexKey);
+		}
+		map._modCount++;
+
+		return map;
+	}
+
+	// pieces small enough to balance across the pool, large enough to amortize forking
+	private static int grain(int n, ForkJoinPool pool)
+	{
+		return Math.max(1024, n / (8 * pool.getParallelism()));
+	}
+
+	/*
+	 * Runs a body over [lo, hi) by splitting the range in half until pieces
+	 * are at most grain long.
+	 */
+	@SuppressWarnings("serial")
+	private static class RangeTask extends RecursiveAction
+	{
+		interface Body { void run(int lo, int hi); }
+
+		private final int _lo, _hi, _grain;
+		private final Body _body;
+
+		RangeTask(int lo, int hi, int grain, Body body)
+		{
+			_lo = lo;
+			_hi = hi;
+			_grain = grain;
+			_body = body;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if (_hi - _lo <= _grain)
+			{
+				_body.run(_lo, _hi);
+				return;
+			}
+
+			int mid = (_lo + _hi) >>> 1;
+			invokeAll(new RangeTask(_lo, mid, _grain, _body), new RangeTask(mid, _hi, _grain, _body));
+		}
+	}
+
+	// record a change in the number of pairs
+	private void updateSize(int delta)
+	{
+		if (delta == 0) return;
+
+		_size += delta;
+		_modCount++;
 	}
 
 	/**
@@ -203,21 +764,36 @@ public class MultiHashMap<Key, Value> implements MultiMap<Key, Value>
 	{
 		if (key == null) throw new IllegalArgumentException("argument to delete() is null");
 		
-		int origSize = st[hash(key)].size();
-        st[hash(key)].delete(key,  value);
-        _size -= origSize - st[hash(key)].size();
+		beginOperation();
 
-		// halve table size if average length of list <= 2
-		if (_tableLength > INIT_CAPACITY && _size <= 2 * _tableLength)
-			resize(_tableLength / INCREASE_DECREASE_FACTOR);
+		LinkedMultiMap<Key, Value> chain = chainFor(key);
+		ValueSet<Value> values = chain == null ? null : chain.valuesFor(key);
+		if (values == null) return;
+
+		int origSize = chain.size();
+        chain.delete(key,  value);
+        updateSize(chain.size() - origSize);
+        if (values.isEmpty()) unindexKey(values);
+
+		shrinkIfSparse();
 	}
 
+	/**
+	 * Returns a live view of the values for key; the key is looked up when
+	 * iteration starts and nothing is copied.
+	 */
 	@Override
 	public Iterable<Value> getAll(Key key)
 	{
 		if (key == null) throw new IllegalArgumentException("argument to get() is null");
 
-        return st[hash(key)].getAll(key);
+		return () -> {
+			LinkedMultiMap<Key, Value> chain = chainFor(key);
+			ValueSet<Value> values = chain == null ? null : chain.valuesFor(key);
+
+			if (values == null) return Collections.emptyIterator();
+			return values.iterator(this);
+		};
 	}
 
 	@Override
@@ -225,26 +801,69 @@ public class MultiHashMap<Key, Value> implements MultiMap<Key, Value>
 	{
 		if (key == null) throw new IllegalArgumentException("argument to get() is null");
 
-		int origSize = st[hash(key)].size();
-        st[hash(key)].deleteAll(key);
-        _size -= origSize - st[hash(key)].size();
+		beginOperation();
+
+		LinkedMultiMap<Key, Value> chain = chainFor(key);
+		ValueSet<Value> values = chain == null ? null : chain.valuesFor(key);
+		if (values == null) return;
+
+		int origSize = chain.size();
+        chain.deleteAll(key);
+        updateSize(chain.size() - origSize);
+        unindexKey(values);
         
-		// halve table size if average length of list <= 2
-		if (_tableLength > INIT_CAPACITY && _size <= 2 * _tableLength)
-			resize(_tableLength / INCREASE_DECREASE_FACTOR);
+		shrinkIfSparse();
 	} 
 
+	/**
+	 * Removes every pair for which {@code filter} returns true, in a single
+	 * pass over the chains.
+	 *
+	 * @param  filter the test applied to each <key, value> pair
+	 * @return the number of pairs removed
+	 * @throws IllegalArgumentException if {@code filter} is {@code null}
+	 */
+	public int deleteIf(BiPredicate<? super Key, ? super Value> filter)
+	{
+		if (filter == null) throw new IllegalArgumentException("argument to deleteIf() is null");
+
+		beginOperation();
+
+		int removed = 0;
+		for (int i = 0; i < _tableLength; i++)
+		{
+			if (st[i] != null) removed += st[i].deleteIf(filter, this::unindexKey);
+		}
+		for (int i = _migrated; isRehashing() && i < _oldTableLength; i++)
+		{
+			if (_oldTable[i] != null) removed += _oldTable[i].deleteIf(filter, this::unindexKey);
+		}
+
+		updateSize(-removed);
+		shrinkIfSparse();
+		return removed;
+	}
+
 	// return all unique keys in symbol table as an Iterable
+	// (a live view over the distinct-key index)
 	public Iterable<Key> keySet()
 	{
-		Queue<Key> queue = new LinkedList<Key>();
+		return () -> new Iterator<Key>()
+		{
+			private final int _expectedModCount = _modCount;
+			private int _next = 0;
 
-		for (LinkedMultiMap<Key,Value> chains : st) {
-			if (chains != null && chains.firstKey() != null) {
-				queue.add(chains.firstKey());
+			public boolean hasNext()
+			{
+				if (_modCount != _expectedModCount) throw new ConcurrentModificationException();
+				return _next < _distinctKeys;
 			}
-		}
-        
-		return queue;
+
+			public Key next()
+			{
+				if (!hasNext()) throw new NoSuchElementException();
+				return _keys[_next++];
+			}
+		};
 	}
-}
\ No newline at end of file
+}
@@ -9,6 +9,8 @@
  */
 package hashing;
 
+import java.util.Map;
+
 public interface MultiMap<Key, Value>
 {
 	/**
@@ -67,6 +69,20 @@ public interface MultiMap<Key, Value>
 	 */
 	public void put(Key key, Value val);
 
+	/**
+	 * Inserts every key-value pair of {@code pairs} (skipping those already contained).
+	 *
+	 * @param  pairs the pairs to insert
+	 * @throws IllegalArgumentException if {@code pairs} is {@code null}, or any
+	 *                                  key or value in it is {@code null}
+	 */
+	public default void putAll(Iterable<? extends Map.Entry<? extends Key, ? extends Value>> pairs)
+	{
+		if (pairs == null) throw new IllegalArgumentException("argument to putAll() is null");
+
+		for (Map.Entry<? extends Key, ? extends Value> pair : pairs) put(pair.getKey(), pair.getValue());
+	}
+
 	/**
 	 * Removes the specified <key, value> pair value from this symbol table     
 	 * (if present).
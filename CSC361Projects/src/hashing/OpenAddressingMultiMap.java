@@ -0,0 +1,414 @@
+/******************************************************************************
+ *
+ *  A multi-map symbol table implemented with a linear-probing hash table.
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code OpenAddressingMultiMap} class represents a multi-map of generic
+ *  key-value pairs.
+ *  It supports the usual <em>put</em>, <em>getAll</em>, <em>contains</em>,
+ *  <em>delete</em>, <em>size</em>, and <em>is-empty</em> methods.
+ *  It also provides a <em>keySet</em> method for iterating over all of the keys.
+ *  As with the other multi-maps, multiple pairs with the same key are possible,
+ *  but a <key, value> pair cannot be repeated.
+ *  <p>
+ *  This implementation uses <em>open addressing</em> with <em>linear probing</em>
+ *  over two parallel arrays, one of keys and one of values; every slot holds a
+ *  single <key, value> pair, so no node or bucket objects are allocated.
+ *  All pairs sharing a key hash to the same home slot and therefore sit in the
+ *  same cluster. Deletion uses backward-shift so that no tombstones are needed.
+ *  The table is kept between 1/8 and 1/2 full, doubling and halving as needed.
+ *  <em>getAll</em> and <em>keySet</em> return live views that scan the table
+ *  in place; their iterators fail fast if the map is modified.
+ *  It requires that the key type overrides the {@code equals()} and
+ *  {@code hashCode()} methods.
+ *  The expected time per <em>put</em>, <em>contains</em>, or <em>delete</em>
+ *  operation is constant, subject to the uniform hashing assumption and a
+ *  bounded number of values per key.
+ *  <p>
+ *  For additional documentation, see <a href="https://algs4.cs.princeton.edu/34hash">Section 3.4</a> of
+ *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ *
+ *	Timings:
+ *	<t> <t>   <t> Put <t> Del
+ *  <t> 500   <t> 8   <t> 9
+ *  <t> 1000  <t> 1   <t> 4
+ *  <t> 2000  <t> 7   <t> 9
+ *  <t> 5000  <t> 9   <t> 15
+ *  <t> 7500  <t> 9   <t> 10
+ *  <t> 10000 <t> 1   <t> 8
+ *  <t> 12500 <t> 9   <t> 10
+ *  <t> 15000 <t> 13  <t> 15
+ *  <t> <t>   <t> O(1)<t> O(1)
+ *
+ *  @author Robert Sedgewick
+ *  @author Kevin Wayne
+ *  @modified Michael Peeler
+ */
+
+package hashing;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import hash_util.Constants;
+
+public class OpenAddressingMultiMap<Key, Value> implements MultiMap<Key, Value>, Versioned
+{
+	private static final int INIT_CAPACITY = 16;
+
+	private int _size;         // number of key-value pairs
+	private int _capacity;     // length of the parallel arrays; always a power of 2
+	private Key[] _keys;       // the keys; null marks an empty slot
+	private Value[] _values;   // the values, parallel to _keys
+	private int _modCount;     // structural modifications, for fail-fast views
+
+	/**
+	 * Initializes an empty symbol table.
+	 */
+	public OpenAddressingMultiMap() { this(INIT_CAPACITY); }
+
+	/**
+	 * Initializes an empty symbol table able to hold roughly {@code capacity / 2}
+	 * pairs before resizing.
+	 * @param capacity the initial number of slots; rounded up to a power of 2
+	 */
+	@SuppressWarnings("unchecked")
+	public OpenAddressingMultiMap(int capacity)
+	{
+		_capacity = INIT_CAPACITY;
+		while (_capacity < capacity) _capacity *= 2;
+
+		_keys = (Key[]) new Object[_capacity];
+		_values = (Value[]) new Object[_capacity];
+	}
+
+	// hash function for keys - returns value between 0 and _capacity-1
+	// (MurmurHash3 finalizer; linear probing needs neighbouring keys such as
+	// sequential Integers spread apart, or their clusters run together)
+	private int hash(Key key)
+	{
+		int h = key.hashCode();
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return h & (_capacity - 1);
+	}
+
+	// the slot following i, wrapping around the end of the table
+	private int next(int i) { return (i + 1) & (_capacity - 1); }
+
+	// resize the table to the given number of slots, rehashing all of the pairs;
+	// pairs are already unique so each goes straight into its first empty slot
+	@SuppressWarnings("unchecked")
+	private void resize(int capacity)
+	{
+		if (Constants.DEBUG)
+			System.err.println("Resizing from " + _capacity + "(" + _size + ")" + " to " + capacity);
+
+		Key[] oldKeys = _keys;
+		Value[] oldValues = _values;
+
+		_capacity = capacity;
+		_keys = (Key[]) new Object[_capacity];
+		_values = (Value[]) new Object[_capacity];
+		_modCount++;
+
+		for (int i = 0; i < oldKeys.length; i++)
+		{
+			if (oldKeys[i] == null) continue;
+
+			int j = hash(oldKeys[i]);
+			while (_keys[j] != null) j = next(j);
+
+			_keys[j] = oldKeys[i];
+			_values[j] = oldValues[i];
+		}
+	}
+
+	/**
+	 * Returns the number of key-value pairs in this symbol table.
+	 *
+	 * @return the number of key-value pairs in this symbol table
+	 */
+	public int size() { return _size; }
+
+	/**
+	 * Returns *true* if this symbol table is empty.
+	 *
+	 * @return {@code true} if this symbol table is empty;
+	 *         {@code false} otherwise
+	 */
+	public boolean isEmpty() { return size() == 0; }
+
+	public int modCount() { return _modCount; }
+
+	/**
+	 * Returns *true* if this symbol table contains the specified key.
+	 *
+	 * @param  key the key
+	 * @return {@code true} if this symbol table contains {@code key};
+	 *         {@code false} otherwise
+	 * @throws IllegalArgumentException if {@code key} is {@code null}
+	 */
+	public boolean contains(Key key)
+	{
+		if (key == null) throw new IllegalArgumentException("argument to contains() is null");
+
+		for (int i = hash(key); _keys[i] != null; i = next(i))
+		{
+			if (_keys[i].equals(key)) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns true if this symbol table contains the specified <key, value> pair.
+	 *
+	 * @param  key the key
+	 * @param  value the value
+	 * @return {@code true} if this symbol table contains the pair;
+	 *         {@code false} otherwise
+	 * @throws IllegalArgumentException if {@code key} is {@code null}
+	 */
+	public boolean containsPair(Key key, Value value)
+	{
+		if (key == null) throw new IllegalArgumentException("argument to containsPair() is null");
+
+		return indexOf(key, value) != -1;
+	}
+
+	// returns the slot holding <key, value>, or -1 if the pair is absent
+	private int indexOf(Key key, Value value)
+	{
+		for (int i = hash(key); _keys[i] != null; i = next(i))
+		{
+			if (_keys[i].equals(key) && _values[i].equals(value)) return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Inserts the specified key-value pair into the symbol table (if not already contained).
+	 *
+	 * @param  key the key
+	 * @param  value the value
+	 * @throws IllegalArgumentException if {@code key} is {@code null} or
+	 *                                  {@code value} is {@code null}
+	 */
+	public void put(Key key, Value value)
+	{
+		if (key == null) throw new IllegalArgumentException("first argument to put() is null");
+		if (value == null) throw new IllegalArgumentException("second argument to put() is null");
+
+		// Walk the cluster: either we find the pair already present or
+		// we reach the empty slot at the end of the cluster.
+		int i = hash(key);
+		for ( ; _keys[i] != null; i = next(i))
+		{
+			if (_keys[i].equals(key) && _values[i].equals(value)) return;
+		}
+
+		// double table size if it would become more than half full; the pair
+		// is new, so only its empty slot in the new table has to be found
+		if (2 * (_size + 1) > _capacity)
+		{
+			resize(2 * _capacity);
+			i = hash(key);
+			while (_keys[i] != null) i = next(i);
+		}
+
+		_keys[i] = key;
+		_values[i] = value;
+		_size++;
+		_modCount++;
+	}
+
+	/**
+	 * Removes the specified <key, value> pair from this symbol table (if present).
+	 *
+	 * @param  key the key
+	 * @param  value the value
+	 * @throws IllegalArgumentException if {@code key} is {@code null}
+	 */
+	public void delete(Key key, Value value)
+	{
+		if (key == null) throw new IllegalArgumentException("argument to delete() is null");
+		if (value == null) throw new IllegalArgumentException("second argument to delete() is null");
+
+		int i = indexOf(key, value);
+		if (i == -1) return;
+
+		removeAt(i);
+		shrinkIfSparse();
+	}
+
+	/**
+	 * Removes all pairs with the given key.
+	 *
+	 * @param  key the key
+	 * @throws IllegalArgumentException if {@code key} is {@code null}
+	 */
+	public void deleteAll(Key key)
+	{
+		if (key == null) throw new IllegalArgumentException("argument to deleteAll() is null");
+
+		// After a removal, a later pair may have been shifted into slot i,
+		// so we only advance when slot i does not match.
+		int i = hash(key);
+		while (_keys[i] != null)
+		{
+			if (_keys[i].equals(key)) removeAt(i);
+			else i = next(i);
+		}
+
+		shrinkIfSparse();
+	}
+
+	// halve table size if it is at most 1/8 full
+	private void shrinkIfSparse()
+	{
+		if (_capacity > INIT_CAPACITY && 8 * _size <= _capacity) resize(_capacity / 2);
+	}
+
+	// Empties slot i, then shifts later members of the cluster backward so that
+	// every remaining pair is still reachable from its home slot.
+	private void removeAt(int i)
+	{
+		_keys[i] = null;
+		_values[i] = null;
+		_size--;
+		_modCount++;
+
+		for (int j = next(i); _keys[j] != null; j = next(j))
+		{
+			int home = hash(_keys[j]);
+
+			// The pair at j may stay put if its home lies cyclically in (i, j]
+			boolean stays = (i <= j) ? (i < home && home <= j) : (i < home || home <= j);
+			if (stays) continue;
+
+			_keys[i] = _keys[j];
+			_values[i] = _values[j];
+			_keys[j] = null;
+			_values[j] = null;
+			i = j;
+		}
+	}
+
+	/**
+	 * Returns all values associated with the specified key in this symbol table.
+	 * The result is a live view over the key's cluster; nothing is copied.
+	 *
+	 * @param  key the key
+	 * @return the values associated with {@code key}; empty if there are none
+	 * @throws IllegalArgumentException if {@code key} is {@code null}
+	 */
+	public Iterable<Value> getAll(Key key)
+	{
+		if (key == null) throw new IllegalArgumentException("argument to getAll() is null");
+
+		return () -> new SlotIterator<Value>()
+		{
+			{ _slot = hash(key); advance(); }
+
+			// the key's pairs all lie between its home slot and the end of the cluster
+			void advance()
+			{
+				while (_keys[_slot] != null && !_keys[_slot].equals(key)) _slot = OpenAddressingMultiMap.this.next(_slot);
+				if (_keys[_slot] == null) _slot = -1;
+			}
+
+			Value current() { return _values[_slot]; }
+
+			void step() { _slot = OpenAddressingMultiMap.this.next(_slot); }
+		};
+	}
+
+	/**
+	 * Returns all unique keys in the symbol table as an {@code Iterable}.
+	 * The result is a live view that scans the table; nothing is copied.
+	 *
+	 * @return all keys in the symbol table
+	 */
+	public Iterable<Key> keySet()
+	{
+		return () -> new SlotIterator<Key>()
+		{
+			{ _slot = 0; advance(); }
+
+			void advance()
+			{
+				while (_slot < _capacity && (_keys[_slot] == null || !isFirstOfKey(_slot))) _slot++;
+				if (_slot == _capacity) _slot = -1;
+			}
+
+			Key current() { return _keys[_slot]; }
+
+			void step() { _slot++; }
+		};
+	}
+
+	/*
+	 * A fail-fast iterator over a sequence of slots. Subclasses position _slot
+	 * on the first slot to yield (or -1 when there is none) with advance(),
+	 * and step() moves past the current slot before advance() is called again.
+	 */
+	private abstract class SlotIterator<Item> implements Iterator<Item>
+	{
+		private final int _expectedModCount = _modCount;
+		int _slot;
+
+		abstract void advance();
+
+		abstract Item current();
+
+		abstract void step();
+
+		public boolean hasNext()
+		{
+			if (_modCount != _expectedModCount) throw new ConcurrentModificationException();
+			return _slot != -1;
+		}
+
+		public Item next()
+		{
+			if (!hasNext()) throw new NoSuchElementException();
+
+			Item item = current();
+			step();
+			advance();
+			return item;
+		}
+	}
+
+	// Is slot i the first slot of its key's probe sequence holding that key?
+	// Every pair for a key lies between its home slot and the end of the cluster,
+	// so only the slots from home up to i need to be examined.
+	private boolean isFirstOfKey(int i)
+	{
+		Key key = _keys[i];
+		for (int j = hash(key); j != i; j = next(j))
+		{
+			if (_keys[j].equals(key)) return false;
+		}
+		return true;
+	}
+
+	public String toString()
+	{
+		StringBuilder sb = new StringBuilder();
+
+		for (int i = 0; i < _capacity; i++)
+		{
+			if (_keys[i] != null)
+				sb.append("(" + _keys[i].toString() + ", " + _values[i].toString() + ") ");
+		}
+
+		return sb.toString();
+	}
+}
@@ -0,0 +1,241 @@
+/**
+ * The values stored under one key of a multi-map.
+ *
+ * Values are kept in a dense array in insertion order, so iterating the set
+ * touches only the values themselves. Small sets are searched linearly; once a
+ * set holds more than INDEX_THRESHOLD values, an open-addressing index of
+ * positions (linear probing over an int[]) keeps membership tests O(1).
+ * Removal moves the last value into the hole, so the array never has gaps.
+ *
+ * @author Michael Peeler
+ */
+package hashing;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiPredicate;
+
+class ValueSet<Value> implements Iterable<Value>
+{
+	private static final int INIT_CAPACITY = 4;
+	private static final int INDEX_THRESHOLD = 8;
+
+	private Object[] _items;   // the values, dense in [0, _size)
+	private int _size;
+	private int[] _index;      // position + 1 of each value, 0 marks an empty slot; null while small
+
+	int _slot = -1;            // position of this key in the owning MultiHashMap's key index; -1 if not indexed
+
+	ValueSet() { _items = new Object[INIT_CAPACITY]; }
+
+	int size() { return _size; }
+
+	boolean isEmpty() { return _size == 0; }
+
+	@SuppressWarnings("unchecked")
+	Value get(int i) { return (Value) _items[i]; }
+
+	boolean contains(Value value) { return positionOf(value) != -1; }
+
+	/**
+	 * Adds the value if it is not already present.
+	 * @return true if the set changed
+	 */
+	boolean add(Value value)
+	{
+		if (contains(value)) return false;
+
+		if (_size == _items.length)
+		{
+			Object[] larger = new Object[2 * _items.length];
+			System.arraycopy(_items, 0, larger, 0, _size);
+			_items = larger;
+		}
+
+		_items[_size] = value;
+		_size++;
+
+		if (_index != null && 2 * _size > _index.length) rebuildIndex(2 * _index.length);
+		else if (_index != null) indexInsert(_size - 1);
+		else if (_size > INDEX_THRESHOLD) rebuildIndex(4 * INDEX_THRESHOLD);
+
+		return true;
+	}
+
+	/**
+	 * Removes the value if present, moving the last value into its position.
+	 * @return true if the set changed
+	 */
+	boolean remove(Value value)
+	{
+		int pos = positionOf(value);
+		if (pos == -1) return false;
+
+		int last = _size - 1;
+
+		if (_index != null)
+		{
+			indexRemove(slotOf(pos));
+			if (pos != last) _index[slotOf(last)] = pos + 1;
+		}
+
+		_items[pos] = _items[last];
+		_items[last] = null;
+		_size--;
+
+		// small again: linear search is cheaper than maintaining the index
+		if (_index != null && _size <= INDEX_THRESHOLD / 2) _index = null;
+
+		return true;
+	}
+
+	/**
+	 * Removes every value v for which filter.test(key, v) is true, keeping the
+	 * remaining values in order.
+	 * @return the number of values removed
+	 */
+	@SuppressWarnings("unchecked")
+	<Key> int removeIf(Key key, BiPredicate<? super Key, ? super Value> filter)
+	{
+		int kept = 0;
+		for (int i = 0; i < _size; i++)
+		{
+			if (!filter.test(key, (Value) _items[i])) _items[kept++] = _items[i];
+		}
+
+		int removed = _size - kept;
+		if (removed == 0) return 0;
+
+		for (int i = kept; i < _size; i++) _items[i] = null;
+		_size = kept;
+
+		// positions have moved, so the index is rebuilt (or dropped if small again)
+		if (_index != null)
+		{
+			if (_size <= INDEX_THRESHOLD / 2) _index = null;
+			else rebuildIndex(_index.length);
+		}
+
+		return removed;
+	}
+
+	// position of value in _items, or -1
+	private int positionOf(Value value)
+	{
+		if (_index == null)
+		{
+			for (int i = 0; i < _size; i++)
+			{
+				if (_items[i].equals(value)) return i;
+			}
+			return -1;
+		}
+
+		for (int s = hash(value); _index[s] != 0; s = next(s))
+		{
+			if (_items[_index[s] - 1].equals(value)) return _index[s] - 1;
+		}
+		return -1;
+	}
+
+	//
+	// Index maintenance; _index.length is always a power of 2 at least twice _size
+	//
+	private int hash(Object value)
+	{
+		int h = value.hashCode();
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		return h & (_index.length - 1);
+	}
+
+	private int next(int s) { return (s + 1) & (_index.length - 1); }
+
+	private void rebuildIndex(int capacity)
+	{
+		_index = new int[capacity];
+		for (int i = 0; i < _size; i++) indexInsert(i);
+	}
+
+	private void indexInsert(int pos)
+	{
+		int s = hash(_items[pos]);
+		while (_index[s] != 0) s = next(s);
+		_index[s] = pos + 1;
+	}
+
+	// the index slot that refers to position pos
+	private int slotOf(int pos)
+	{
+		int s = hash(_items[pos]);
+		while (_index[s] != pos + 1) s = next(s);
+		return s;
+	}
+
+	// empty slot s, shifting later members of its cluster back (no tombstones)
+	private void indexRemove(int s)
+	{
+		_index[s] = 0;
+
+		for (int j = next(s); _index[j] != 0; j = next(j))
+		{
+			int home = hash(_items[_index[j] - 1]);
+
+			boolean stays = (s <= j) ? (s < home && home <= j) : (s < home || home <= j);
+			if (stays) continue;
+
+			_index[s] = _index[j];
+			_index[j] = 0;
+			s = j;
+		}
+	}
+
+	@Override
+	public Iterator<Value> iterator()
+	{
+		return new Iterator<Value>()
+		{
+			private int _next = 0;
+
+			public boolean hasNext() { return _next < _size; }
+
+			public Value next()
+			{
+				if (!hasNext()) throw new NoSuchElementException();
+				return get(_next++);
+			}
+		};
+	}
+
+	/**
+	 * An iterator over the values that throws ConcurrentModificationException
+	 * if {@code owner} is modified after the iterator is created.
+	 */
+	Iterator<Value> iterator(Versioned owner)
+	{
+		return new Iterator<Value>()
+		{
+			private final int _expectedModCount = owner.modCount();
+			private int _next = 0;
+
+			public boolean hasNext()
+			{
+				checkForComodification();
+				return _next < _size;
+			}
+
+			public Value next()
+			{
+				if (!hasNext()) throw new NoSuchElementException();
+				return get(_next++);
+			}
+
+			private void checkForComodification()
+			{
+				if (owner.modCount() != _expectedModCount) throw new ConcurrentModificationException();
+			}
+		};
+	}
+}
@@ -0,0 +1,15 @@
+/**
+ * A container that counts its structural modifications, so that iterators
+ * over live views of it can fail fast when it changes underneath them.
+ *
+ * @author Michael Peeler
+ */
+package hashing;
+
+interface Versioned
+{
+	/**
+	 * @return a counter that changes whenever the container is structurally modified
+	 */
+	int modCount();
+}
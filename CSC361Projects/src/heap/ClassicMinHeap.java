@@ -19,7 +19,27 @@
  * * Since the function is initially sorted by inserting all elements and then sinking the
  * upper half, this will take up to (n lg(n)) operations. 
  * ** Though this appears to be an O(1) operation, in actuality the worst case should be an O(lg(n)) 
- * operation, as the sink function could require up to that many exchanges.
+ * operation, as the sink function could require up to that many moves.
+ * 
+ * <p>sink and swim are iterative and move a hole rather than exchanging nodes: each node
+ * passed over is written once, one level up or down, and the sifting node only at the end.
+ * They order nodes as HeapNode.precedes does, one exact double compare in all but ties,
+ * which are broken by insertion order, rather than with the epsilon compare of compareTo.
+ * Each node's key and sequence number are mirrored by position in a double[] and a long[]
+ * beside the node array, so comparisons read no nodes; only a node that moves is reached,
+ * to update its _index.
+ * 
+ * <p>Each node's _index tracks its position in the array, so decreaseKey, increaseKey and
+ * remove(HeapNode) find the node directly and then swim or sink it: O(lg(n)) each.
+ * 
+ * <p>parallelBuild builds the same heap as build on a fork-join pool. The subtrees of
+ * a node are independent, so each task builds one subtree: small subtrees are filled
+ * and heapified by a single task, and a larger one forks a task per child subtree,
+ * then creates and sinks its own root once both are done.
+ * 
+ * <p>meld with another array-based heap appends its array to this one, then either
+ * swims each appended node, as inserting them would, or re-heapifies the whole array
+ * as build does, whichever is cheaper: O(min(m lg(n + m), n + m)) for m nodes.
  *
  * @author Michael Peeler
  * @date   3/30/2022
@@ -30,34 +50,111 @@ package heap;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
 
 public class ClassicMinHeap<T> extends ExpandableHeapBase<T>
 {
+	private double[] _keys;        // _keys[i] == _heap[i]._key for every i < _size
+	private long[]   _sequences;   // _sequences[i] == _heap[i]._sequence likewise
+	
 	public ClassicMinHeap()
 	{
 		super();
 	}
 	
+	@Override
+	protected void init()
+	{
+		super.init();
+		_keys = new double[_heap.length];
+		_sequences = new long[_heap.length];
+	}
+	
+	@Override
+	protected void ensureCapacity(int minCapacity)
+	{
+		super.ensureCapacity(minCapacity);
+		if (_keys.length < _heap.length) {
+			_keys = Arrays.copyOf(_keys, _heap.length);
+			_sequences = Arrays.copyOf(_sequences, _heap.length);
+		}
+	}
+	
 	/**
 	 * Removes the minimum node from the heap and returns the minimum node to the caller.
-	 * Does so after switching the first node with the last node. The node that was formerly
-	 * last is then sunk to its new position, allowing the new minimum node to float to the top.
+	 * The last node fills the hole left at the root and is then sunk to its new position,
+	 * allowing the new minimum node to float to the top.
 	 * 
-	 * @return - Returns node containing minimum key and value associated with it.
+	 * @return - Returns node containing minimum key and value associated with it,
+	 *           or null if the heap is empty.
 	 */
 	public HeapNode<T> extractMin() {
 		
-		exchange(_heap[0], _heap[_size - 1]);
-		HeapNode<T> node = _heap[_size - 1];
-		_heap[_size - 1] = null;
+		if (_size == 0) return null;
+		
+		HeapNode<T> node = _heap[0];
 		
 		_size--;
+		HeapNode<T> last = _heap[_size];
+		_heap[_size] = null;
 		
-		sink(_heap[0]);
+		if (_size > 0) sink(0, last);
 		
 		return node;
 	}
 	
+	/**
+	 * Removes the k smallest nodes, handing them to action smallest first.
+	 * 
+	 * Each root is removed bottom-up: the hole left at the root is sent straight down
+	 * to a leaf, promoting the smaller child at each level, and the last node swims up
+	 * from there. The last node nearly always belongs near the bottom, so this takes
+	 * about half the comparisons of sinking it from the root.
+	 * 
+	 * @param k Most nodes to remove.
+	 * @param action Receives each removed node, smallest first.
+	 * @return Number of nodes removed.
+	 */
+	@Override
+	public int extractMin(int k, Consumer<? super HeapNode<T>> action) {
+		if (k < 0) throw new IllegalArgumentException("k must not be negative");
+		
+		int n = Math.min(k, _size);
+		if (n == 0) return 0;
+		
+		for (int i = 0; i < n; i++) action.accept(extractMinBottomUp());
+		return n;
+	}
+	
+	/**
+	 * Removes the root as described in extractMin(int, Consumer).
+	 * @return The root, which the heap must have.
+	 */
+	private HeapNode<T> extractMinBottomUp() {
+		HeapNode<T> min = _heap[0];
+		
+		_size--;
+		HeapNode<T> last = _heap[_size];
+		_heap[_size] = null;
+		if (_size == 0) return min;
+		
+		// Moves the hole down to a leaf along the smaller children.
+		int i = 0;
+		int child = 1;
+		while (child < _size) {
+			if (child + 1 < _size && precedes(child + 1, child)) child++;
+			
+			place(i, _heap[child]);
+			i = child;
+			child = i * 2 + 1;
+		}
+		
+		swim(i, last);
+		return min;
+	}
+	
 	/**
 	 * Returns the minimum node from the heap, which will always be the first node
 	 * in the array.
@@ -69,82 +166,80 @@ public class ClassicMinHeap<T> extends ExpandableHeapBase<T>
 	}
 	
 	/**
-	 * Switches the positions in the heap of node1 and node2
-	 * @param node1 First node being swapped
-	 * @param node2 Second node being swapped
+	 * Stores node at index i, mirroring its key and sequence number, and records the
+	 * index in the node.
+	 * @param i Index in the heap array.
+	 * @param node Node being placed.
 	 */
-	private void exchange(HeapNode<T> node1, HeapNode<T> node2) {
-		int n1 = node1._index;
-		int n2 = node2._index;
-		
-		_heap[n1] = node2;
-		_heap[n2] = node1;
-		
-		_heap[n1]._index = n1;
-		_heap[n2]._index = n2;
+	private void place(int i, HeapNode<T> node) {
+		_heap[i] = node;
+		_keys[i] = node._key;
+		_sequences[i] = node._sequence;
+		node._index = i;
 	}
 	
-	
 	/**
-	 * Checks whether the specified child index can be sunk with; that is to say, whether
-	 * there is a value there and whether that value is less than the parent node.
-	 * @param node Node being compared to children
-	 * @param childIndex Index of child node.
-	 * @return Boolean indicating sinkability.
+	 * HeapNode.precedes for the nodes at two indices, read from the mirrors.
 	 */
-	private boolean canChildBeSwitchedWith(HeapNode<T> node, int childIndex) {
-		return childIndex < _size && node.compareTo(_heap[childIndex]) > 0;
+	private boolean precedes(int a, int b) {
+		double keyA = _keys[a];
+		double keyB = _keys[b];
+		return keyA < keyB || (keyA == keyB && _sequences[a] < _sequences[b]);
 	}
 	
 	/**
-	 * Node sinks downwards until the nodes below it are greater than it.
+	 * Node sinks downwards from index i until the nodes below it are greater than it.
+	 * Index i is treated as a hole: each smaller child moves up into it, and node
+	 * is written once, at its final position.
+	 * @param i Index at which node starts; its current contents are overwritten.
 	 * @param node Node that is sinking.
 	 */
-	private void sink(HeapNode<T> node) {
+	private void sink(int i, HeapNode<T> node) {
+		
+		double key = node._key;
 		
-		if (node == null) return;
-				
-		int childL = node._index * 2 + 1;
-		int childR = node._index * 2 + 2;
-				
+		// Indices below half have at least one child.
+		int half = _size / 2;
 		
-		// Makes certain that one of the child nodes can be switched with
-		if (canChildBeSwitchedWith(node, childL) || canChildBeSwitchedWith(node, childR)) {
+		while (i < half) {
 			
-			// Switches with child that is smaller, then sinks the new child node.
-			if (childR >= _size || _heap[childL].compareTo(_heap[childR]) < 0) {
-				
-				exchange(node, _heap[childL]);
-				sink(_heap[childL]);
-				
-			} else {
-
-				exchange(node, _heap[childR]);
-				sink(_heap[childR]);
-				
-			}
+			// Picks the smaller child; the left one unless the right one is smaller.
+			int child = i * 2 + 1;
+			if (child + 1 < _size && precedes(child + 1, child)) child++;
 			
+			double childKey = _keys[child];
+			if (!(childKey < key || (childKey == key && _sequences[child] < node._sequence))) break;
+			
+			place(i, _heap[child]);
+			i = child;
 		}
 		
+		place(i, node);
 	}
 	
 	/**
-	 * Node moves upward until its parents are less than it and its children
-	 * are greater than it.
+	 * Node moves upward from index i until its parent is less than it, with
+	 * index i treated as a hole as in sink.
+	 * @param i Index at which node starts; its current contents are overwritten.
 	 * @param node Node that is swimming upwards.
 	 */
-	private void swim(HeapNode<T> node) {
-		// Stops swimming up if the node is at the root.
-		if (node._index != 0) {
+	private void swim(int i, HeapNode<T> node) {
+		
+		double key = node._key;
+		
+		while (i > 0) {
 			
-			int parent = (node._index - 1) / 2;
+			int parent = (i - 1) / 2;
 			
-			// Switches a node with its parent if it is less than its parent.
-			if (node.compareTo(_heap[parent]) < 0) {
-				exchange(node, _heap[parent]);
-				swim(_heap[parent]);
-			}
+			// Stops once the node is no less than its parent.
+			double parentKey = _keys[parent];
+			if (!(key < parentKey || (key == parentKey && node._sequence < _sequences[parent]))) break;
+			
+			place(i, _heap[parent]);
+			i = parent;
 		}
+		
+		place(i, node);
 	}
 	
 	/**
@@ -154,17 +249,66 @@ public class ClassicMinHeap<T> extends ExpandableHeapBase<T>
 	 * @param node HeapNode that will be inserted into the current heap.
 	 */
 	public void insert(HeapNode<T> node) {
+		if (Double.isNaN(node._key)) throw new IllegalArgumentException("key is NaN");
 		
 		ensureCapacity(_size + 1);
+		node._sequence = _nextSequence++;
 
-		// Adds node to end of array
-		_heap[_size] = node;
-		_heap[_size]._index = _size;
+		// Opens a hole at the end of the array and swims node up from it.
 		_size ++;
+		swim(_size - 1, node);
 
-		// Swims node to correct position.
-		swim(node);
+	}
 
+	/**
+	 * Lowers the key of a node already in the heap, then swims it up to its new
+	 * position. The node is found through its _index, so this takes O(lg(n)) time.
+	 * 
+	 * @param node HeapNode currently in this heap.
+	 * @param newKey Replacement key, no greater than the current key.
+	 */
+	public void decreaseKey(HeapNode<T> node, double newKey) {
+		checkKeyChange(node, newKey, true);
+		
+		node._key = newKey;
+		swim(node._index, node);
+	}
+	
+	/**
+	 * Raises the key of a node already in the heap, then sinks it down to its new
+	 * position in O(lg(n)) time.
+	 * 
+	 * @param node HeapNode currently in this heap.
+	 * @param newKey Replacement key, no less than the current key.
+	 */
+	public void increaseKey(HeapNode<T> node, double newKey) {
+		checkKeyChange(node, newKey, false);
+		
+		node._key = newKey;
+		sink(node._index, node);
+	}
+	
+	/**
+	 * Removes a node from anywhere in the heap in O(lg(n)) time. The last node
+	 * takes its place and then sinks or swims, whichever restores the heap property.
+	 * 
+	 * @param node HeapNode to remove.
+	 * @return Whether the node was in this heap.
+	 */
+	public boolean remove(HeapNode<T> node) {
+		if (!holds(node)) return false;
+		
+		_size--;
+		HeapNode<T> last = _heap[_size];
+		_heap[_size] = null;
+		
+		// The last node fills the hole, then moves whichever way it must.
+		if (last != node) {
+			sink(node._index, last);
+			swim(last._index, last);
+		}
+		
+		return true;
 	}
 
 	/**
@@ -181,23 +325,165 @@ public class ClassicMinHeap<T> extends ExpandableHeapBase<T>
 	@Override
 	public void build(List<T> values, List<Double> keys)
 	{
-		this.clear();
 		int sz = Math.min(values.size(), keys.size());
+		checkKeys(keys, sz);
+		this.clear();
 		ensureCapacity(sz);
 		
 		// Inserts each node into the heap in order.
 		for (int i = 0; i < sz; i++)
 		{
-			_heap[i] = new HeapNode<T>(values.get(i), keys.get(i));
-			_heap[i]._index = i;
+			place(i, newNode(i, values, keys));
 		}
 		
 		_size = sz;
+		_nextSequence = sz;
 		
 		// For each of the bottom half nodes, sinks them to the correct
 		// position.
-		for (int i = _size / 2; i >= 0; i--) {
-			sink(_heap[i]);
+		for (int i = _size / 2 - 1; i >= 0; i--) {
+			sink(i, _heap[i]);
+		}
+	}
+	
+	/**
+	 * Moves every node of other into this heap. Another array-based heap hands over
+	 * its array: a few nodes are swum up one by one, and otherwise the combined
+	 * array is re-heapified in linear time. Any other heap is drained into this one.
+	 * 
+	 * @param other The heap to empty into this one.
+	 */
+	@Override
+	public void meld(MinHeap<T> other) {
+		if (!(other instanceof ExpandableHeapBase) || other == this) {
+			super.meld(other);
+			return;
+		}
+		
+		int start = _size;
+		append((ExpandableHeapBase<T>) other);
+		for (int i = start; i < _size; i++) {
+			_keys[i] = _heap[i]._key;
+			_sequences[i] = _heap[i]._sequence;
+		}
+		
+		// Swimming m nodes costs about m lg(n + m); re-heapifying, about n + m.
+		int depth = 32 - Integer.numberOfLeadingZeros(_size);
+		if ((long) (_size - start) * depth < _size) {
+			for (int i = start; i < _size; i++) swim(i, _heap[i]);
+		}
+		else {
+			for (int i = _size / 2 - 1; i >= 0; i--) sink(i, _heap[i]);
+		}
+	}
+	
+	/**
+	 * Builds the heap as build does, in parallel on the common fork-join pool.
+	 * 
+	 * @param values -- a set of values; we will create HeapNode objects for them
+	 * @param keys -- a set of keys (as Doubles)
+	 */
+	public void parallelBuild(List<T> values, List<Double> keys)
+	{
+		parallelBuild(values, keys, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Builds the heap as build does, in parallel on the given fork-join pool. Both
+	 * the nodes and the heap order are the same as build would produce: sinking a
+	 * node depends only on its own subtree, not on the order subtrees are finished.
+	 * 
+	 * @param values -- a set of values; we will create HeapNode objects for them;
+	 *                  read concurrently, so it should be random-access
+	 * @param keys -- a set of keys (as Doubles), likewise
+	 * @param pool -- the pool that runs the subtree tasks
+	 */
+	public void parallelBuild(List<T> values, List<Double> keys, ForkJoinPool pool)
+	{
+		if (pool == null) throw new IllegalArgumentException("pool is null");
+		
+		int sz = Math.min(values.size(), keys.size());
+		checkKeys(keys, sz);
+		this.clear();
+		ensureCapacity(sz);
+		_size = sz;
+		_nextSequence = sz;
+		
+		if (sz == 0) return;
+		
+		// Subtrees small enough to balance across the pool, large enough to amortize forking.
+		int grain = Math.max(1024, sz / (8 * pool.getParallelism()));
+		pool.invoke(new BuildTask(0, values, keys, grain));
+	}
+	
+	/**
+	 * Fills and heapifies the subtree at root on the calling thread: creates its
+	 * nodes level by level, then sinks its internal nodes from the deepest level up.
+	 * The subtree's nodes at each depth below root occupy one contiguous range.
+	 */
+	private void buildSubtree(int root, List<T> values, List<Double> keys) {
+		int half = _size / 2;
+		
+		int levels = 0;
+		for (long first = root; first < _size; first = first * 2 + 1, levels++) {
+			int end = (int) Math.min(first + (1L << levels), _size);
+			for (int i = (int) first; i < end; i++) {
+				place(i, newNode(i, values, keys));
+			}
+		}
+		
+		for (int level = levels - 1; level >= 0; level--) {
+			long first = ((root + 1L) << level) - 1;
+			if (first >= half) continue;
+			
+			int end = (int) Math.min(first + (1L << level), half);
+			for (int i = end - 1; i >= first; i--) sink(i, _heap[i]);
+		}
+	}
+	
+	// Creates the node for position i of a build, numbered as build numbers it.
+	private HeapNode<T> newNode(int i, List<T> values, List<Double> keys) {
+		HeapNode<T> node = new HeapNode<T>(values.get(i), keys.get(i));
+		node._sequence = i;
+		return node;
+	}
+	
+	/*
+	 * Builds the subtree at _root: on its own if it has at most _grain nodes,
+	 * otherwise by building both child subtrees in parallel and then sinking _root.
+	 */
+	@SuppressWarnings("serial")
+	private class BuildTask extends RecursiveAction
+	{
+		private final int          _root, _grain;
+		private final List<T>      _values;
+		private final List<Double> _keys;
+		
+		BuildTask(int root, List<T> values, List<Double> keys, int grain)
+		{
+			_root = root;
+			_values = values;
+			_keys = keys;
+			_grain = grain;
+		}
+		
+		@Override
+		protected void compute()
+		{
+			if (_root >= _size) return;
+			
+			// The subtree at depth d holds about _size / 2^d nodes.
+			int depth = 31 - Integer.numberOfLeadingZeros(_root + 1);
+			if ((_size >> depth) <= _grain)
+			{
+				buildSubtree(_root, _values, _keys);
+				return;
+			}
+			
+			invokeAll(new BuildTask(_root * 2 + 1, _values, _keys, _grain),
+			          new BuildTask(_root * 2 + 2, _values, _keys, _grain));
+			
+			sink(_root, newNode(_root, _values, _keys));
 		}
 	}
 	
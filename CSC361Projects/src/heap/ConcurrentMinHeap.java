@@ -0,0 +1,466 @@
+/**
+ * A thread-safe implementation of the MinHeap interface for many producers and
+ * consumers, in one of two modes.
+ *
+ * <p>The default, relaxed mode is a MultiQueue: the nodes are spread over a fixed
+ * number of shards, each an ordinary DaryMinHeap behind its own lock. insert locks
+ * a random shard. extractMin samples two random shards, reads the minimum key
+ * each one publishes, and extracts from the smaller; a shard that is locked by
+ * another thread is skipped rather than waited for. Threads therefore rarely
+ * contend, but extractMin is approximate: it returns one of the smallest keys,
+ * usually within a few multiples of the number of shards of the true minimum,
+ * not always the minimum itself. With a single shard it is exact.
+ *
+ * <p>The strict mode, from strict(), orders every node in one
+ * ConcurrentSkipListMap, breaking ties between equal keys by insertion order.
+ * extractMin always returns a node of minimum key, at the cost of contention on
+ * the head of the list.
+ *
+ * <p>decreaseKey, increaseKey and remove work in both modes without searching:
+ * each node records its shard (or its insertion number) in HeapNode._handle.
+ * Concurrent key changes to the same node must be ordered by the caller. size
+ * is the sum of per-thread counters and may be momentarily stale while
+ * operations are in flight.
+ *
+ * <p>        Insert     ExtractMin    decreaseKey
+ * <p>      O(lg(n))     O(lg(n))      O(lg(n))
+ *
+ * @author Michael Peeler
+ */
+
+package heap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class ConcurrentMinHeap<T> implements MinHeap<T>
+{
+	private static final int SHARD_ARITY = 4;
+
+	/*
+	 * One relaxed-mode shard: a heap, its lock, and the key at its root, which
+	 * is published so that extractMin can choose a shard without locking it.
+	 * Keys are never NaN, so NaN marks an empty shard; +Infinity is a legal key.
+	 */
+	@SuppressWarnings("serial")
+	private static final class Shard<T> extends ReentrantLock
+	{
+		final Object _owner;
+		final DaryMinHeap<T> _heap = new DaryMinHeap<T>(SHARD_ARITY);
+		volatile double _top = Double.NaN;   // key at the root; NaN if empty
+
+		Shard(Object owner) { _owner = owner; }
+
+		// called with the lock held after every change
+		void publish() { _top = _heap.isEmpty() ? Double.NaN : _heap.peekMin()._key; }
+	}
+
+	// the shard publishing the smaller key, preferring a that is not empty; b if both are
+	private static <T> Shard<T> lower(Shard<T> a, Shard<T> b)
+	{
+		double aTop = a._top;
+		return Double.isNaN(aTop) || b._top < aTop ? b : a;
+	}
+
+	/*
+	 * The handle of a node in strict mode: its insertion number, which orders
+	 * equal keys, and the heap it was inserted into.
+	 */
+	private static final class Ticket
+	{
+		final Object _owner;
+		final long   _sequence;
+
+		Ticket(Object owner, long sequence)
+		{
+			_owner = owner;
+			_sequence = sequence;
+		}
+	}
+
+	private final Shard<T>[] _shards;                                // relaxed mode; null if strict
+	private final ConcurrentSkipListMap<HeapNode<T>, Boolean> _set;  // strict mode; null if relaxed
+	private final AtomicLong _sequence = new AtomicLong();           // next insertion number (strict)
+	private final LongAdder _size = new LongAdder();
+
+	/**
+	 * Initializes an empty relaxed heap with four shards per available processor.
+	 */
+	public ConcurrentMinHeap() { this(4 * Runtime.getRuntime().availableProcessors()); }
+
+	/**
+	 * Initializes an empty relaxed heap.
+	 * @param shards the number of independently locked shards; 1 gives exact order
+	 */
+	@SuppressWarnings("unchecked")
+	public ConcurrentMinHeap(int shards)
+	{
+		if (shards < 1) throw new IllegalArgumentException("number of shards must be positive");
+
+		_shards = (Shard<T>[]) new Shard[shards];
+		for (int i = 0; i < shards; i++) _shards[i] = new Shard<T>(this);
+		_set = null;
+	}
+
+	private ConcurrentMinHeap(boolean strict)
+	{
+		_shards = null;
+		_set = new ConcurrentSkipListMap<HeapNode<T>, Boolean>((a, b) -> {
+			int c = Double.compare(a._key, b._key);
+			return c != 0 ? c : Long.compare(((Ticket) a._handle)._sequence, ((Ticket) b._handle)._sequence);
+		});
+	}
+
+	/**
+	 * @return an empty heap whose extractMin always returns a node of minimum key
+	 */
+	public static <T> ConcurrentMinHeap<T> strict() { return new ConcurrentMinHeap<T>(true); }
+
+	public boolean isStrict() { return _set != null; }
+
+	public int size() { return (int) _size.sum(); }
+	public boolean isEmpty() { return size() == 0; }
+
+	/**
+	 * Empties the heap. Operations running concurrently with clear may or may
+	 * not take effect before it.
+	 */
+	public void clear()
+	{
+		if (isStrict())
+		{
+			_set.clear();
+			_size.reset();
+			return;
+		}
+
+		for (Shard<T> shard : _shards) shard.lock();
+		try
+		{
+			for (Shard<T> shard : _shards)
+			{
+				shard._heap.clear();
+				shard.publish();
+			}
+			_size.reset();
+		}
+		finally
+		{
+			for (Shard<T> shard : _shards) shard.unlock();
+		}
+	}
+
+	/**
+	 * Replaces the contents of the heap with the given pairs. In relaxed mode the
+	 * pairs are dealt round-robin to the shards, each of which is built in O(n).
+	 *
+	 * @param values -- a set of values; we will create HeapNode objects for them
+	 * @param keys -- a set of keys (as Doubles)
+	 *
+	 * We do NOT assume the lengths of the lists are equal.
+	 * @throws IllegalArgumentException if a key is NaN; the heap is then left unchanged
+	 */
+	public void build(List<T> values, List<Double> keys)
+	{
+		int sz = Math.min(values.size(), keys.size());
+		for (int i = 0; i < sz; i++)
+		{
+			if (Double.isNaN(keys.get(i))) throw new IllegalArgumentException("key " + i + " is NaN");
+		}
+
+		clear();
+
+		if (isStrict())
+		{
+			for (int i = 0; i < sz; i++) insert(new HeapNode<T>(values.get(i), keys.get(i)));
+			return;
+		}
+
+		for (int s = 0; s < _shards.length; s++)
+		{
+			List<T> shardValues = new ArrayList<T>();
+			List<Double> shardKeys = new ArrayList<Double>();
+			for (int i = s; i < sz; i += _shards.length)
+			{
+				shardValues.add(values.get(i));
+				shardKeys.add(keys.get(i));
+			}
+
+			Shard<T> shard = _shards[s];
+			shard.lock();
+			try
+			{
+				shard._heap.build(shardValues, shardKeys);
+				for (int i = 0; i < shard._heap._size; i++) shard._heap._heap[i]._handle = shard;
+				shard.publish();
+			}
+			finally
+			{
+				shard.unlock();
+			}
+			_size.add(shardValues.size());
+		}
+	}
+
+	/**
+	 * Inserts the node into a random shard that is not locked, or into the
+	 * ordered set in strict mode.
+	 *
+	 * @param node HeapNode that will be inserted into the current heap.
+	 */
+	public void insert(HeapNode<T> node)
+	{
+		if (Double.isNaN(node._key)) throw new IllegalArgumentException("key is NaN");
+
+		if (isStrict())
+		{
+			node._handle = new Ticket(this, _sequence.getAndIncrement());
+			_set.put(node, Boolean.TRUE);
+			_size.increment();
+			return;
+		}
+
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		while (true)
+		{
+			Shard<T> shard = _shards[random.nextInt(_shards.length)];
+			if (!shard.tryLock()) continue;
+
+			try
+			{
+				node._handle = shard;
+				shard._heap.insert(node);
+				shard.publish();
+			}
+			finally
+			{
+				shard.unlock();
+			}
+			_size.increment();
+			return;
+		}
+	}
+
+	/**
+	 * Removes a node of small key: the minimum in strict mode, and in relaxed mode
+	 * the minimum of the better of two random shards.
+	 *
+	 * @return the node removed, or null if the heap is empty
+	 */
+	public HeapNode<T> extractMin()
+	{
+		if (isStrict())
+		{
+			Map.Entry<HeapNode<T>, Boolean> first = _set.pollFirstEntry();
+			if (first == null) return null;
+
+			_size.decrement();
+			return first.getKey();
+		}
+
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		for (int attempt = 0; attempt < 2 * _shards.length; attempt++)
+		{
+			Shard<T> a = _shards[random.nextInt(_shards.length)];
+			Shard<T> b = _shards[random.nextInt(_shards.length)];
+			Shard<T> shard = lower(a, b);
+
+			if (Double.isNaN(shard._top))
+			{
+				if (isEmpty()) return null;
+				continue;
+			}
+			if (!shard.tryLock()) continue;
+
+			try
+			{
+				HeapNode<T> node = takeMin(shard);
+				if (node != null) return node;
+			}
+			finally
+			{
+				shard.unlock();
+			}
+		}
+
+		// Sampling keeps missing the nonempty shards: visit them all, waiting for locks
+		for (Shard<T> shard : _shards)
+		{
+			shard.lock();
+			try
+			{
+				HeapNode<T> node = takeMin(shard);
+				if (node != null) return node;
+			}
+			finally
+			{
+				shard.unlock();
+			}
+		}
+		return null;
+	}
+
+	// extracts the root of a locked shard; null if it is empty
+	private HeapNode<T> takeMin(Shard<T> shard)
+	{
+		if (shard._heap.isEmpty()) return null;
+
+		HeapNode<T> node = shard._heap.extractMin();
+		node._handle = null;
+		shard.publish();
+		_size.decrement();
+		return node;
+	}
+
+	/**
+	 * Returns a node of small key without removing it: the minimum in strict mode,
+	 * and in relaxed mode the root of the shard publishing the smallest key. Under
+	 * concurrent updates the node may already be gone when it is returned.
+	 *
+	 * @return a node of small key, or null if the heap is empty
+	 */
+	public HeapNode<T> peekMin()
+	{
+		if (isStrict())
+		{
+			Map.Entry<HeapNode<T>, Boolean> first = _set.firstEntry();
+			return first == null ? null : first.getKey();
+		}
+
+		Shard<T> best = _shards[0];
+		for (Shard<T> shard : _shards) best = lower(best, shard);
+		if (Double.isNaN(best._top)) return null;
+
+		best.lock();
+		try
+		{
+			return best._heap.peekMin();
+		}
+		finally
+		{
+			best.unlock();
+		}
+	}
+
+	/**
+	 * Lowers the key of a node in the heap, within its shard; O(lg(n)).
+	 *
+	 * @param node HeapNode currently in this heap.
+	 * @param newKey Replacement key, no greater than the current key.
+	 */
+	public void decreaseKey(HeapNode<T> node, double newKey) { changeKey(node, newKey, true); }
+
+	/**
+	 * Raises the key of a node in the heap, within its shard; O(lg(n)).
+	 *
+	 * @param node HeapNode currently in this heap.
+	 * @param newKey Replacement key, no less than the current key.
+	 */
+	public void increaseKey(HeapNode<T> node, double newKey) { changeKey(node, newKey, false); }
+
+	private void changeKey(HeapNode<T> node, double newKey, boolean decrease)
+	{
+		if (Double.isNaN(newKey)) throw new IllegalArgumentException("key is NaN");
+
+		if (isStrict())
+		{
+			checkDirection(node, newKey, decrease);
+
+			// re-file the node under its new key
+			if (!ticketed(node) || _set.remove(node) == null)
+				throw new IllegalArgumentException("node is not in this heap");
+			node._key = newKey;
+			_set.put(node, Boolean.TRUE);
+			return;
+		}
+
+		Shard<T> shard = lockShardOf(node);
+		if (shard == null) throw new IllegalArgumentException("node is not in this heap");
+
+		try
+		{
+			if (decrease) shard._heap.decreaseKey(node, newKey);
+			else shard._heap.increaseKey(node, newKey);
+			shard.publish();
+		}
+		finally
+		{
+			shard.unlock();
+		}
+	}
+
+	/**
+	 * Removes a node from anywhere in the heap.
+	 *
+	 * @param node HeapNode to remove.
+	 * @return Whether the node was in this heap.
+	 */
+	public boolean remove(HeapNode<T> node)
+	{
+		if (node == null) return false;
+
+		if (isStrict())
+		{
+			if (!ticketed(node) || _set.remove(node) == null) return false;
+
+			_size.decrement();
+			return true;
+		}
+
+		Shard<T> shard = lockShardOf(node);
+		if (shard == null) return false;
+
+		try
+		{
+			shard._heap.remove(node);
+			node._handle = null;
+			shard.publish();
+		}
+		finally
+		{
+			shard.unlock();
+		}
+		_size.decrement();
+		return true;
+	}
+
+	// Locks and returns the shard holding node, or returns null (and holds no
+	// lock) if node is in none of this heap's shards.
+	private Shard<T> lockShardOf(HeapNode<T> node)
+	{
+		if (node == null) return null;
+
+		Object handle = node._handle;
+		if (!(handle instanceof Shard) || ((Shard<?>) handle)._owner != this) return null;
+
+		@SuppressWarnings("unchecked")
+		Shard<T> shard = (Shard<T>) handle;
+		shard.lock();
+
+		// the node may have left the shard while we waited
+		if (node._handle == shard && shard._heap.holds(node)) return shard;
+
+		shard.unlock();
+		return null;
+	}
+
+	// whether node was inserted into this heap in strict mode (it may since have left)
+	private boolean ticketed(HeapNode<T> node)
+	{
+		return node._handle instanceof Ticket && ((Ticket) node._handle)._owner == this;
+	}
+
+	private static void checkDirection(HeapNode<?> node, double newKey, boolean decrease)
+	{
+		if (decrease && newKey > node._key)
+			throw new IllegalArgumentException("new key " + newKey + " is greater than current key " + node._key);
+		if (!decrease && newKey < node._key)
+			throw new IllegalArgumentException("new key " + newKey + " is less than current key " + node._key);
+	}
+}
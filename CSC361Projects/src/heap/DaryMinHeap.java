@@ -0,0 +1,226 @@
+/**
+ * An implementation of the MinHeap interface as a d-ary heap: the children of
+ * position i are d*i+1 through d*i+d, where the arity d is fixed at construction.
+ * A wider node makes the heap shallower, so swim does log_d(n) comparisons and
+ * insert and decreaseKey get cheaper as d grows; sink compares up to d children
+ * per level, which pays off while those children are adjacent in memory.
+ *
+ * <p>To keep them adjacent, each key is mirrored, by position, in a double[]
+ * next to the HeapNode array, and sink scans the children's keys there
+ * instead of dereferencing d nodes; with d = 8 a group of siblings is 64 bytes,
+ * one cache line. The JVM does not let us align the array itself, so a group
+ * may straddle two lines. Sifting moves a hole rather than exchanging nodes.
+ *
+ * <p>Keys are compared exactly, not within an epsilon as HeapNode.compareTo does.
+ * Unlike ClassicMinHeap, equal keys are not ordered by insertion, and come out in
+ * no particular order. Breaking ties by sequence number made extractMin about twice
+ * as slow on a million keys drawn from 16 values (SiftBenchmark), since the last
+ * node must then sink past every equal key, and this heap is for throughput: it
+ * also backs the shards of ConcurrentMinHeap, whose relaxed extractMin keeps no
+ * order across shards anyway.
+ *
+ * <p>        Build   ExtractMin       Insert / decreaseKey
+ * <p>      O(n)      O(d log_d(n))    O(log_d(n))
+ *
+ * @author Michael Peeler
+ */
+
+package heap;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class DaryMinHeap<T> extends ExpandableHeapBase<T>
+{
+	public static final int DEFAULT_ARITY = 4;
+
+	private final int _arity;
+	private double[]  _keys;   // _keys[i] == _heap[i]._key for every i < _size
+
+	public DaryMinHeap()
+	{
+		this(DEFAULT_ARITY);
+	}
+
+	/**
+	 * @param arity the number of children of each node; at least 2
+	 */
+	public DaryMinHeap(int arity)
+	{
+		super();
+		if (arity < 2) throw new IllegalArgumentException("arity must be at least 2");
+		_arity = arity;
+	}
+
+	public int arity() { return _arity; }
+
+	@Override
+	protected void init()
+	{
+		super.init();
+		_keys = new double[_heap.length];
+	}
+
+	@Override
+	protected void ensureCapacity(int minCapacity)
+	{
+		super.ensureCapacity(minCapacity);
+		if (_keys.length < _heap.length) _keys = Arrays.copyOf(_keys, _heap.length);
+	}
+
+	/**
+	 * Returns the minimum node, which is always at the root.
+	 *
+	 * @return - Returns node containing minimum key and value associated with it.
+	 */
+	public HeapNode<T> peekMin() {
+		return _heap[0];
+	}
+
+	/**
+	 * Removes the minimum node; the last node fills the root and sinks.
+	 *
+	 * @return - Returns node containing minimum key and value associated with it,
+	 *           or null if the heap is empty.
+	 */
+	public HeapNode<T> extractMin() {
+		if (_size == 0) return null;
+
+		HeapNode<T> min = _heap[0];
+		removeAt(0);
+		return min;
+	}
+
+	/**
+	 * Appends the node and swims it to its position.
+	 *
+	 * @param node HeapNode that will be inserted into the current heap.
+	 */
+	public void insert(HeapNode<T> node) {
+		if (Double.isNaN(node._key)) throw new IllegalArgumentException("key is NaN");
+		ensureCapacity(_size + 1);
+		_size++;
+		swim(_size - 1, node);
+	}
+
+	/**
+	 * Lowers the key of a node in the heap and swims it; O(log_d(n)).
+	 *
+	 * @param node HeapNode currently in this heap.
+	 * @param newKey Replacement key, no greater than the current key.
+	 */
+	public void decreaseKey(HeapNode<T> node, double newKey) {
+		checkKeyChange(node, newKey, true);
+		node._key = newKey;
+		swim(node._index, node);
+	}
+
+	/**
+	 * Raises the key of a node in the heap and sinks it; O(d log_d(n)).
+	 *
+	 * @param node HeapNode currently in this heap.
+	 * @param newKey Replacement key, no less than the current key.
+	 */
+	public void increaseKey(HeapNode<T> node, double newKey) {
+		checkKeyChange(node, newKey, false);
+		node._key = newKey;
+		sink(node._index, node);
+	}
+
+	/**
+	 * Removes a node from anywhere in the heap.
+	 *
+	 * @param node HeapNode to remove.
+	 * @return Whether the node was in this heap.
+	 */
+	public boolean remove(HeapNode<T> node) {
+		if (!holds(node)) return false;
+		removeAt(node._index);
+		return true;
+	}
+
+	/**
+	 * Builds the heap from two lists in O(n) time by placing every node and then
+	 * sinking each internal node, deepest first.
+	 *
+	 * @param values -- a set of values; we will create HeapNode objects for them
+	 * @param keys -- a set of keys (as Doubles)
+	 *
+	 * We do NOT assume the lengths of the lists are equal.
+	 */
+	@Override
+	public void build(List<T> values, List<Double> keys)
+	{
+		int sz = Math.min(values.size(), keys.size());
+		checkKeys(keys, sz);
+		this.clear();
+		ensureCapacity(sz);
+
+		for (int i = 0; i < sz; i++)
+		{
+			place(i, new HeapNode<T>(values.get(i), keys.get(i)));
+		}
+		_size = sz;
+
+		if (_size < 2) return;
+		for (int i = (_size - 2) / _arity; i >= 0; i--) sink(i, _heap[i]);
+	}
+
+	// removes the node at position i < _size; the last node fills the hole
+	private void removeAt(int i) {
+		_size--;
+		HeapNode<T> last = _heap[_size];
+		_heap[_size] = null;
+
+		if (i == _size) return;
+
+		if (i > 0 && last._key < _keys[(i - 1) / _arity]) swim(i, last);
+		else sink(i, last);
+	}
+
+	// moves the hole at position i up until node fits, then places node there
+	private void swim(int i, HeapNode<T> node) {
+		double key = node._key;
+
+		while (i > 0) {
+			int parent = (i - 1) / _arity;
+			if (key >= _keys[parent]) break;
+
+			place(i, _heap[parent]);
+			i = parent;
+		}
+		place(i, node);
+	}
+
+	// moves the hole at position i down until node fits, then places node there
+	private void sink(int i, HeapNode<T> node) {
+		double key = node._key;
+
+		while (true) {
+			int first = _arity * i + 1;
+			if (first >= _size) break;
+
+			// smallest child, scanning the contiguous keys
+			int last = Math.min(first + _arity, _size);
+			int min = first;
+			double minKey = _keys[first];
+			for (int c = first + 1; c < last; c++) {
+				if (_keys[c] < minKey) {
+					min = c;
+					minKey = _keys[c];
+				}
+			}
+			if (key <= minKey) break;
+
+			place(i, _heap[min]);
+			i = min;
+		}
+		place(i, node);
+	}
+
+	private void place(int i, HeapNode<T> node) {
+		_heap[i] = node;
+		_keys[i] = node._key;
+		node._index = i;
+	}
+}
@@ -11,6 +11,7 @@ public abstract class ExpandableHeapBase<T> implements MinHeap<T>
 	protected HeapNode<T>[] _heap;
 	protected int           _size;
 	protected final int     _MIN_CAPACITY = 10;
+	protected long          _nextSequence;   // the next HeapNode._sequence to hand out
 
 	public ExpandableHeapBase() { init(); }
 
@@ -37,12 +38,29 @@ public abstract class ExpandableHeapBase<T> implements MinHeap<T>
 	public void build(List<T> values, List<Double> keys)
 	{
 		int sz = Math.min(values.size(), keys.size());
+		checkKeys(keys, sz);
 		for (int i = 0; i < sz; i++)
 		{
 			this.insert(new HeapNode<T>(values.get(i), keys.get(i)));
 		}
 	}
 	
+	/*
+	 * Checks the keys a build will use, so that a bad one is rejected before
+	 * the heap is changed.
+	 *
+	 * @param keys -- the keys passed to build
+	 * @param sz -- how many of them build will use
+	 * @throws IllegalArgumentException if any of them is NaN
+	 */
+	protected static void checkKeys(List<Double> keys, int sz)
+	{
+		for (int i = 0; i < sz; i++)
+		{
+			if (Double.isNaN(keys.get(i))) throw new IllegalArgumentException("key " + i + " is NaN");
+		}
+	}
+	
 	/**
 	*Increasesthecapacityofthisexpandable array-based data structure,if
 	*necessary,toensurethatitcanholdatleastthenumberofelements
@@ -95,6 +113,78 @@ public abstract class ExpandableHeapBase<T> implements MinHeap<T>
 		return node;
 	}
 
+	/**
+	 * Remove the element at the particular index by moving the last element into
+	 * its place; O(1). Only the moved element's _index changes, so this suits
+	 * implementations that keep no order among the elements.
+	 * @param index - a valid index: 0 <= index < _size 
+	 * @return the node at the index
+	 */
+	protected HeapNode<T> swapRemove(int index)
+	{
+		if (index < 0 || index >= _size) return null;
+
+		HeapNode<T> node = _heap[index];
+
+		_size--;
+		if (index < _size)
+		{
+			_heap[index] = _heap[_size];
+			_heap[index]._index = index;
+		}
+		_heap[_size] = null;
+
+		return node;
+	}
+
+	/**
+	 * Moves every node of other onto the end of this array, in other's array
+	 * order, and empties other; O(m) for m nodes. The nodes get new sequence
+	 * numbers, in that order. The caller restores its own ordering afterwards.
+	 * @param other - another array-based heap
+	 */
+	protected void append(ExpandableHeapBase<T> other)
+	{
+		ensureCapacity(_size + other._size);
+
+		for (int i = 0; i < other._size; i++)
+		{
+			_heap[_size] = other._heap[i];
+			_heap[_size]._index = _size;
+			_heap[_size]._sequence = _nextSequence++;
+			_size++;
+		}
+
+		other.clear();
+	}
+
+	/**
+	 * Returns whether node is currently stored in this heap; a node removed from
+	 * the heap keeps a stale _index, so the slot it names must still hold it.
+	 * @param node - any node
+	 * @return true if node is in this heap
+	 */
+	protected boolean holds(HeapNode<T> node)
+	{
+		return node != null && node._index >= 0 && node._index < _size && _heap[node._index] == node;
+	}
+
+	/**
+	 * Checks the arguments of decreaseKey (decrease == true) or increaseKey.
+	 * @param node - must be in this heap
+	 * @param newKey - must not move the key in the wrong direction
+	 * @throws IllegalArgumentException if either argument is invalid
+	 */
+	protected void checkKeyChange(HeapNode<T> node, double newKey, boolean decrease)
+	{
+		if (!holds(node)) throw new IllegalArgumentException("node is not in this heap");
+		if (Double.isNaN(newKey)) throw new IllegalArgumentException("key is NaN");
+		if (decrease && newKey > node._key)
+			throw new IllegalArgumentException("new key " + newKey + " is greater than current key " + node._key);
+		if (!decrease && newKey < node._key)
+			throw new IllegalArgumentException("new key " + newKey + " is less than current key " + node._key);
+	}
+
 	/*
 	 * @return (For debugging purposes) dump (key, data) pairs
 	 */
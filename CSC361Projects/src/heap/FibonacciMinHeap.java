@@ -0,0 +1,446 @@
+/**
+ * An implementation of the MinHeap interface as a Fibonacci heap: a circular
+ * list of heap-ordered trees, the root with the minimum key marked by _min.
+ * Each entry points to its parent, to one of its children, and to its left and
+ * right siblings in a circular list.
+ *
+ * <p>Insert adds a one-node tree to the root list, O(1). decreaseKey cuts the
+ * node from its parent if the heap order would break, moving it to the root
+ * list; a parent that loses a second child is cut as well (cascading cuts),
+ * which keeps every tree of degree k at least Fibonacci(k + 2) nodes large and
+ * decreaseKey O(1) amortized. extractMin promotes the minimum's children to the
+ * root list and consolidates the roots until no two share a degree, which costs
+ * O(lg(n)) amortized.
+ *
+ * <p>meld with another FibonacciMinHeap splices the two root lists together, O(1);
+ * the other heap's entries change hands through its HeapToken, without being visited.
+ *
+ * <p>A node's entry is kept in HeapNode._handle; _index is not used.
+ * Keys are compared exactly, not within an epsilon as HeapNode.compareTo does.
+ *
+ * <p>        Build   ExtractMin        Insert   decreaseKey
+ * <p>      O(n)      O(lg(n)) amort.   O(1)     O(1) amort.
+ *
+ * @author Michael Peeler
+ */
+
+package heap;
+
+import java.util.List;
+
+public class FibonacciMinHeap<T> implements MinHeap<T>
+{
+	// The largest degree of a heap of n < 2^31 nodes is below log_phi(2^31) < 45
+	private static final int MAX_DEGREE = 64;
+
+	private static final class Entry<T>
+	{
+		final HeapNode<T> _node;
+		HeapToken _owner;   // resolves to the heap's _token while the entry is in that heap
+		Entry<T> _parent;
+		Entry<T> _child;    // any one child
+		Entry<T> _left;     // siblings, in a circular list
+		Entry<T> _right;
+		int      _degree;   // number of children
+		boolean  _mark;     // lost a child since it last became a child
+
+		Entry(HeapNode<T> node, HeapToken owner)
+		{
+			_node = node;
+			_owner = owner;
+			_left = _right = this;
+		}
+	}
+
+	private Entry<T> _min;   // the root with the minimum key; null if empty
+	private int      _size;
+
+	// Entries belong to the heap whose current token theirs resolves to; clear()
+	// replaces the token, so that nodes from before the clear are no longer
+	// members, and meld forwards the other heap's token to this one.
+	private HeapToken _token = new HeapToken();
+
+	// Scratch table for consolidate: the root of each degree seen so far
+	@SuppressWarnings("unchecked")
+	private final Entry<T>[] _byDegree = (Entry<T>[]) new Entry[MAX_DEGREE];
+
+	public FibonacciMinHeap() { }
+
+	public void clear()
+	{
+		_min = null;
+		_size = 0;
+		_token = new HeapToken();
+	}
+
+	public boolean isEmpty() { return _size == 0; }
+	public int size() { return _size; }
+
+	/**
+	 * Builds the heap by inserting each pair; O(n).
+	 *
+	 * @param values -- a set of values; we will create HeapNode objects for them
+	 * @param keys -- a set of keys (as Doubles)
+	 *
+	 * We do NOT assume the lengths of the lists are equal; the heap is cleared first.
+	 */
+	public void build(List<T> values, List<Double> keys)
+	{
+		int sz = Math.min(values.size(), keys.size());
+		for (int i = 0; i < sz; i++)
+		{
+			if (Double.isNaN(keys.get(i))) throw new IllegalArgumentException("key " + i + " is NaN");
+		}
+
+		clear();
+		for (int i = 0; i < sz; i++)
+		{
+			insert(new HeapNode<T>(values.get(i), keys.get(i)));
+		}
+	}
+
+	/**
+	 * Adds node to the root list in O(1).
+	 *
+	 * @param node HeapNode that will be inserted into the current heap.
+	 */
+	public void insert(HeapNode<T> node)
+	{
+		if (Double.isNaN(node._key)) throw new IllegalArgumentException("key is NaN");
+
+		Entry<T> entry = new Entry<T>(node, _token);
+		node._handle = entry;
+
+		addRoot(entry);
+		_size++;
+	}
+
+	/**
+	 * @return the node with the minimum key; null if empty
+	 */
+	public HeapNode<T> peekMin()
+	{
+		return _min == null ? null : _min._node;
+	}
+
+	/**
+	 * Removes the minimum root, promotes its children and consolidates the roots.
+	 *
+	 * @return the node with the minimum key; null if the heap is empty
+	 */
+	public HeapNode<T> extractMin()
+	{
+		if (_min == null) return null;
+
+		HeapNode<T> node = _min._node;
+		removeMin();
+		return node;
+	}
+
+	/**
+	 * Lowers the key of a node in the heap; O(1) amortized.
+	 *
+	 * @param node HeapNode currently in this heap.
+	 * @param newKey Replacement key, no greater than the current key.
+	 */
+	public void decreaseKey(HeapNode<T> node, double newKey)
+	{
+		Entry<T> entry = entryOf(node);
+		checkKeyChange(node, newKey, true);
+
+		node._key = newKey;
+
+		Entry<T> parent = entry._parent;
+		if (parent != null && newKey < parent._node._key)
+		{
+			cut(entry);
+			cascadingCut(parent);
+		}
+		if (newKey < _min._node._key) _min = entry;
+	}
+
+	/**
+	 * Raises the key of a node in the heap by removing it and inserting it
+	 * again; O(lg(n)) amortized.
+	 *
+	 * @param node HeapNode currently in this heap.
+	 * @param newKey Replacement key, no less than the current key.
+	 */
+	public void increaseKey(HeapNode<T> node, double newKey)
+	{
+		entryOf(node);
+		checkKeyChange(node, newKey, false);
+
+		remove(node);
+		node._key = newKey;
+		insert(node);
+	}
+
+	/**
+	 * Removes a node from anywhere in the heap: it is cut to the root list, made
+	 * the minimum regardless of its key, and extracted; O(lg(n)) amortized.
+	 *
+	 * @param node HeapNode to remove.
+	 * @return Whether the node was in this heap.
+	 */
+	public boolean remove(HeapNode<T> node)
+	{
+		if (!holds(node)) return false;
+
+		@SuppressWarnings("unchecked")
+		Entry<T> entry = (Entry<T>) node._handle;
+
+		Entry<T> parent = entry._parent;
+		if (parent != null)
+		{
+			cut(entry);
+			cascadingCut(parent);
+		}
+		_min = entry;
+		removeMin();
+		return true;
+	}
+
+	/**
+	 * Moves every node of other into this heap. Another FibonacciMinHeap is melded
+	 * by splicing the two root lists together, O(1); any other heap is drained
+	 * into this one.
+	 *
+	 * @param other The heap to empty into this one.
+	 */
+	@Override
+	public void meld(MinHeap<T> other)
+	{
+		if (!(other instanceof FibonacciMinHeap) || other == this)
+		{
+			MinHeap.super.meld(other);
+			return;
+		}
+
+		FibonacciMinHeap<T> that = (FibonacciMinHeap<T>) other;
+		that._token.forwardTo(_token);
+
+		if (_min == null) _min = that._min;
+		else if (that._min != null)
+		{
+			// join the two circular lists
+			Entry<T> minRight = _min._right;
+			Entry<T> thatLeft = that._min._left;
+			_min._right = that._min;
+			that._min._left = _min;
+			thatLeft._right = minRight;
+			minRight._left = thatLeft;
+
+			if (that._min._node._key < _min._node._key) _min = that._min;
+		}
+		_size += that._size;
+
+		that._min = null;
+		that._size = 0;
+		that._token = new HeapToken();
+	}
+
+	//
+	// Tree operations
+	//
+
+	// Splices entry, a lone tree, into the root list and updates _min.
+	private void addRoot(Entry<T> entry)
+	{
+		if (_min == null)
+		{
+			entry._left = entry._right = entry;
+			_min = entry;
+			return;
+		}
+
+		splice(entry, _min);
+		if (entry._node._key < _min._node._key) _min = entry;
+	}
+
+	// Inserts entry into the circular list containing at, to the right of at.
+	private void splice(Entry<T> entry, Entry<T> at)
+	{
+		entry._left = at;
+		entry._right = at._right;
+		at._right._left = entry;
+		at._right = entry;
+	}
+
+	// Removes entry from its circular sibling list.
+	private void unsplice(Entry<T> entry)
+	{
+		entry._left._right = entry._right;
+		entry._right._left = entry._left;
+		entry._left = entry._right = entry;
+	}
+
+	// Removes _min from the root list, promotes its children and consolidates.
+	private void removeMin()
+	{
+		Entry<T> min = _min;
+
+		// children become roots
+		Entry<T> child = min._child;
+		if (child != null)
+		{
+			Entry<T> c = child;
+			do
+			{
+				c._parent = null;
+				c._mark = false;
+				c = c._right;
+			} while (c != child);
+
+			// join the two circular lists
+			Entry<T> minRight = min._right;
+			Entry<T> childLeft = child._left;
+			min._right = child;
+			child._left = min;
+			childLeft._right = minRight;
+			minRight._left = childLeft;
+		}
+
+		Entry<T> rest = min._right == min ? null : min._right;
+		unsplice(min);
+		release(min);
+
+		_min = rest;
+		if (rest != null) consolidate();
+	}
+
+	// Links roots of equal degree until all degrees differ, then finds the minimum.
+	private void consolidate()
+	{
+		// count the roots first, since linking changes the list as we walk it
+		int roots = 0;
+		Entry<T> r = _min;
+		do
+		{
+			roots++;
+			r = r._right;
+		} while (r != _min);
+
+		int maxDegree = 0;
+		Entry<T> next = _min;
+		for (int i = 0; i < roots; i++)
+		{
+			Entry<T> x = next;
+			next = x._right;
+
+			int d = x._degree;
+			while (_byDegree[d] != null)
+			{
+				Entry<T> y = _byDegree[d];
+				_byDegree[d] = null;
+
+				if (y._node._key < x._node._key)
+				{
+					Entry<T> t = x;
+					x = y;
+					y = t;
+				}
+				makeChild(y, x);
+				d++;
+			}
+			_byDegree[d] = x;
+			maxDegree = Math.max(maxDegree, d);
+		}
+
+		// rebuild the root list from the table
+		_min = null;
+		for (int d = 0; d <= maxDegree; d++)
+		{
+			Entry<T> x = _byDegree[d];
+			if (x == null) continue;
+
+			_byDegree[d] = null;
+			x._left = x._right = x;
+			addRoot(x);
+		}
+	}
+
+	// Makes root y a child of root x.
+	private void makeChild(Entry<T> y, Entry<T> x)
+	{
+		unsplice(y);
+
+		y._parent = x;
+		y._mark = false;
+		if (x._child == null) x._child = y;
+		else splice(y, x._child);
+
+		x._degree++;
+	}
+
+	// Moves entry from its parent's child list to the root list.
+	private void cut(Entry<T> entry)
+	{
+		Entry<T> parent = entry._parent;
+
+		if (entry._right == entry) parent._child = null;
+		else if (parent._child == entry) parent._child = entry._right;
+		unsplice(entry);
+		parent._degree--;
+
+		entry._parent = null;
+		entry._mark = false;
+		splice(entry, _min);
+	}
+
+	// Cuts marked ancestors of a node that has just lost a child; marks the first unmarked one.
+	private void cascadingCut(Entry<T> entry)
+	{
+		while (entry._parent != null)
+		{
+			if (!entry._mark)
+			{
+				entry._mark = true;
+				return;
+			}
+
+			Entry<T> parent = entry._parent;
+			cut(entry);
+			entry = parent;
+		}
+	}
+
+	// Marks a removed entry as no longer in the heap.
+	private void release(Entry<T> entry)
+	{
+		entry._owner = null;
+		entry._parent = entry._child = null;
+		entry._degree = 0;
+		entry._node._handle = null;
+		_size--;
+	}
+
+	/**
+	 * Returns whether node is currently stored in this heap.
+	 * @param node any node
+	 * @return true if node is in this heap
+	 */
+	private boolean holds(HeapNode<T> node)
+	{
+		if (node == null || !(node._handle instanceof Entry)) return false;
+
+		HeapToken owner = ((Entry<?>) node._handle)._owner;
+		return owner != null && owner.resolve() == _token;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Entry<T> entryOf(HeapNode<T> node)
+	{
+		if (!holds(node)) throw new IllegalArgumentException("node is not in this heap");
+		return (Entry<T>) node._handle;
+	}
+
+	private void checkKeyChange(HeapNode<T> node, double newKey, boolean decrease)
+	{
+		if (Double.isNaN(newKey)) throw new IllegalArgumentException("key is NaN");
+		if (decrease && newKey > node._key)
+			throw new IllegalArgumentException("new key " + newKey + " is greater than current key " + node._key);
+		if (!decrease && newKey < node._key)
+			throw new IllegalArgumentException("new key " + newKey + " is less than current key " + node._key);
+	}
+}
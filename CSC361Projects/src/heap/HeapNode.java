@@ -1,5 +1,11 @@
 /**
  * Implements a node for the mininum-heaps.
+ * 
+ * compareTo treats keys within an epsilon as equal, which is convenient for callers
+ * but not a consistent order: a can equal b and b equal c while a is less than c.
+ * ClassicMinHeap, SortedListMinHeap and UnsortedListMinHeap order nodes with precedes
+ * instead: keys are compared exactly, and equal keys by _sequence, which the heap sets
+ * when the node is inserted.
  */
 package heap;
 
@@ -7,7 +13,9 @@ public class HeapNode<T> implements Comparable<T>
 {
 	public T      _data;
 	public double _key;
-	public int    _index;   // index in the min-heap
+	public int    _index = -1;   // index in the min-heap; -1 until inserted
+	Object        _handle;       // the node's entry in a pointer-based heap (pairing, Fibonacci)
+	long          _sequence;     // insertion order in a heap ordered by precedes; breaks its ties
 
 	public HeapNode(T data, double key)
 	{
@@ -17,6 +25,27 @@ public class HeapNode<T> implements Comparable<T>
 
 	public String toString() { return Double.toString(_key); }
 
+	/**
+	 * The strict order of the array-based heaps: by key, compared exactly, then by
+	 * _sequence, so no two nodes of one heap tie.
+	 * @param that another node
+	 * @return true if this node comes before that one
+	 */
+	boolean precedes(HeapNode<?> that)
+	{
+		return _key < that._key || (_key == that._key && _sequence < that._sequence);
+	}
+
+	/**
+	 * The order of precedes as a comparator, for sorting.
+	 */
+	static int order(HeapNode<?> a, HeapNode<?> b)
+	{
+		if (a._key < b._key) return -1;
+		if (a._key > b._key) return 1;
+		return Long.compare(a._sequence, b._sequence);
+	}
+
 	@Override
 	public int compareTo(Object o)
 	{
@@ -0,0 +1,43 @@
+/**
+ * Marks which heap a pointer-based heap's entries belong to. Each entry holds
+ * a token, and a heap owns exactly the entries whose token resolves to the
+ * heap's current one. Melding forwards the emptied heap's token to the other
+ * heap's, which hands over every entry at once without visiting them; clearing
+ * a heap gives it a fresh token, which disowns every entry at once.
+ *
+ * <p>resolve follows the forwarding pointers as a union-find does, halving the
+ * path as it goes, so a chain of melds costs O(lg(n)) amortized to follow.
+ *
+ * @author Michael Peeler
+ */
+
+package heap;
+
+final class HeapToken
+{
+	private HeapToken _forward;   // the token this one was melded into; null if none
+
+	/**
+	 * @return the token this one now stands for: the end of its forwarding chain
+	 */
+	HeapToken resolve()
+	{
+		HeapToken token = this;
+		while (token._forward != null)
+		{
+			if (token._forward._forward != null) token._forward = token._forward._forward;
+			token = token._forward;
+		}
+		return token;
+	}
+
+	/**
+	 * Makes every entry holding this token (or a token forwarded to it) resolve
+	 * to target instead.
+	 * @param target the token of the heap that takes over the entries
+	 */
+	void forwardTo(HeapToken target)
+	{
+		_forward = target;
+	}
+}
@@ -3,8 +3,11 @@
  * 
  *  build
  *  insert
- *  extractMin
+ *  extractMin (one node, or the k smallest in a batch)
  *  peekMin
+ *  decreaseKey / increaseKey
+ *  remove
+ *  meld
  *  isEmpty
  *  size
  *  clear
@@ -13,7 +16,9 @@
  */
 package heap;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface MinHeap<T>
 {
@@ -47,10 +52,93 @@ public interface MinHeap<T>
 	 * @return the HeapNode corresponding to the minimum key
 	 */
     public HeapNode<T> peekMin();
+
+	/*
+	 * Remove the k nodes with the smallest keys, passing each to action in
+	 * increasing key order; action must not modify this heap.
+	 *
+	 * By default this calls extractMin up to k times, stopping as soon as it
+	 * returns null, so that a heap emptied by another thread in the meantime
+	 * never hands action a null; implementations override it where a batch
+	 * can be removed more cheaply.
+	 *
+	 * @param k -- the most nodes to remove; fewer are removed if the heap runs out
+	 * @param action -- receives each removed node
+	 * @return the number of nodes removed
+	 */
+	public default int extractMin(int k, Consumer<? super HeapNode<T>> action)
+	{
+		if (k < 0) throw new IllegalArgumentException("k must not be negative");
+
+		int n = 0;
+		while (n < k)
+		{
+			HeapNode<T> node = extractMin();
+			if (node == null) break;
+
+			action.accept(node);
+			n++;
+		}
+		return n;
+	}
+
+	/*
+	 * Remove up to maxElements nodes with the smallest keys, adding them to
+	 * target in increasing key order
+	 *
+	 * @return the number of nodes removed
+	 */
+	public default int drainTo(Collection<? super HeapNode<T>> target, int maxElements)
+	{
+		return extractMin(maxElements, target::add);
+	}
+
+	/*
+	 * Lower the key of a node in the heap, moving it toward the minimum
+	 *
+	 * @param node -- a node currently in this heap (located through HeapNode._index)
+	 * @param newKey -- the new key; must not be greater than node._key
+	 * @throws IllegalArgumentException if node is not in this heap or newKey is larger
+	 */
+	public void decreaseKey(HeapNode<T> node, double newKey);
+
+	/*
+	 * Raise the key of a node in the heap, moving it away from the minimum
+	 *
+	 * @param node -- a node currently in this heap (located through HeapNode._index)
+	 * @param newKey -- the new key; must not be less than node._key
+	 * @throws IllegalArgumentException if node is not in this heap or newKey is smaller
+	 */
+	public void increaseKey(HeapNode<T> node, double newKey);
+
+	/*
+	 * Remove a particular node from the heap
+	 *
+	 * @param node -- the node to remove
+	 * @return true if node was in this heap (and is now removed); false otherwise
+	 */
+	public boolean remove(HeapNode<T> node);
+
+	/*
+	 * Move every node of other into this heap, leaving other empty; the nodes
+	 * keep their keys and belong to this heap afterwards
+	 *
+	 * By default each node is extracted from other and inserted here, which
+	 * takes O(m lg(n + m)) for m nodes; implementations override it where two
+	 * heaps of the same kind can be combined directly.
+	 *
+	 * @param other -- the heap to empty into this one
+	 * @throws IllegalArgumentException if other is null or is this heap
+	 */
+	public default void meld(MinHeap<T> other)
+	{
+		if (other == null) throw new IllegalArgumentException("other heap is null");
+		if (other == this) throw new IllegalArgumentException("cannot meld a heap with itself");
+
+		while (!other.isEmpty()) insert(other.extractMin());
+	}
 	
 	public boolean isEmpty();
 	public int size();
 	public void clear();
-}
-
-//public void decreaseKey(HeapNode<T> node, double newKey);
\ No newline at end of file
+}
\ No newline at end of file
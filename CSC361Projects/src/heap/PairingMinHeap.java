@@ -0,0 +1,339 @@
+/**
+ * An implementation of the MinHeap interface as a pairing heap: a heap-ordered
+ * multiway tree, stored as linked entries. Each entry points to its leftmost
+ * child and to its right sibling, and back to its left sibling (or, for a
+ * leftmost child, to its parent), so any entry can be cut out in O(1).
+ *
+ * <p>Insert and decreaseKey link the node with the root: one comparison, O(1).
+ * extractMin removes the root and merges its children in two passes, pairing
+ * them left to right and then linking the pairs right to left, which costs
+ * O(lg(n)) amortized. The passes are loops, so a long child list cannot
+ * overflow the stack.
+ *
+ * <p>meld with another PairingMinHeap links the two roots, O(1); the other heap's
+ * entries change hands through its HeapToken, without being visited.
+ *
+ * <p>A node's entry is kept in HeapNode._handle; _index is not used.
+ * Keys are compared exactly, not within an epsilon as HeapNode.compareTo does.
+ *
+ * <p>        Build   ExtractMin        Insert   decreaseKey
+ * <p>      O(n)      O(lg(n)) amort.   O(1)     O(1)*
+ * 
+ * * Actual time; counting the merging it defers to extractMin, the amortized
+ * cost is known to be o(lg(n)), though not O(1).
+ *
+ * @author Michael Peeler
+ */
+
+package heap;
+
+import java.util.List;
+
+public class PairingMinHeap<T> implements MinHeap<T>
+{
+	private static final class Entry<T>
+	{
+		final HeapNode<T> _node;
+		HeapToken _owner;   // resolves to the heap's _token while the entry is in that heap
+		Entry<T> _child;    // leftmost child
+		Entry<T> _next;     // right sibling
+		Entry<T> _prev;     // left sibling, or the parent of a leftmost child
+
+		Entry(HeapNode<T> node, HeapToken owner)
+		{
+			_node = node;
+			_owner = owner;
+		}
+	}
+
+	private Entry<T> _root;
+	private int      _size;
+
+	// Entries belong to the heap whose current token theirs resolves to; clear()
+	// replaces the token, so that nodes from before the clear are no longer
+	// members, and meld forwards the other heap's token to this one.
+	private HeapToken _token = new HeapToken();
+
+	public PairingMinHeap() { }
+
+	public void clear()
+	{
+		_root = null;
+		_size = 0;
+		_token = new HeapToken();
+	}
+
+	public boolean isEmpty() { return _size == 0; }
+	public int size() { return _size; }
+
+	/**
+	 * Builds the heap by inserting each pair; O(n).
+	 *
+	 * @param values -- a set of values; we will create HeapNode objects for them
+	 * @param keys -- a set of keys (as Doubles)
+	 *
+	 * We do NOT assume the lengths of the lists are equal; the heap is cleared first.
+	 */
+	public void build(List<T> values, List<Double> keys)
+	{
+		int sz = Math.min(values.size(), keys.size());
+		for (int i = 0; i < sz; i++)
+		{
+			if (Double.isNaN(keys.get(i))) throw new IllegalArgumentException("key " + i + " is NaN");
+		}
+
+		clear();
+		for (int i = 0; i < sz; i++)
+		{
+			insert(new HeapNode<T>(values.get(i), keys.get(i)));
+		}
+	}
+
+	/**
+	 * Links node with the root in O(1).
+	 *
+	 * @param node HeapNode that will be inserted into the current heap.
+	 */
+	public void insert(HeapNode<T> node)
+	{
+		if (Double.isNaN(node._key)) throw new IllegalArgumentException("key is NaN");
+
+		Entry<T> entry = new Entry<T>(node, _token);
+		node._handle = entry;
+
+		_root = link(_root, entry);
+		_size++;
+	}
+
+	/**
+	 * @return the node with the minimum key, which is at the root; null if empty
+	 */
+	public HeapNode<T> peekMin()
+	{
+		return _root == null ? null : _root._node;
+	}
+
+	/**
+	 * Removes the root and merges its children.
+	 *
+	 * @return the node with the minimum key; null if the heap is empty
+	 */
+	public HeapNode<T> extractMin()
+	{
+		if (_root == null) return null;
+
+		Entry<T> min = _root;
+		_root = mergePairs(min._child);
+		release(min);
+		return min._node;
+	}
+
+	/**
+	 * Lowers the key of a node in the heap; the node and its subtree are cut
+	 * from their parent and linked with the root, in O(1).
+	 *
+	 * @param node HeapNode currently in this heap.
+	 * @param newKey Replacement key, no greater than the current key.
+	 */
+	public void decreaseKey(HeapNode<T> node, double newKey)
+	{
+		Entry<T> entry = entryOf(node);
+		checkKeyChange(node, newKey, true);
+
+		node._key = newKey;
+		if (entry == _root) return;
+
+		cut(entry);
+		_root = link(_root, entry);
+	}
+
+	/**
+	 * Raises the key of a node in the heap: the node leaves the tree, its
+	 * children are merged back, and it is linked in again with its new key.
+	 *
+	 * @param node HeapNode currently in this heap.
+	 * @param newKey Replacement key, no less than the current key.
+	 */
+	public void increaseKey(HeapNode<T> node, double newKey)
+	{
+		Entry<T> entry = entryOf(node);
+		checkKeyChange(node, newKey, false);
+
+		detach(entry);
+		node._key = newKey;
+		_root = link(_root, entry);
+	}
+
+	/**
+	 * Removes a node from anywhere in the heap: its subtree is cut out, and
+	 * its children merged and linked with the root.
+	 *
+	 * @param node HeapNode to remove.
+	 * @return Whether the node was in this heap.
+	 */
+	public boolean remove(HeapNode<T> node)
+	{
+		if (!holds(node)) return false;
+
+		@SuppressWarnings("unchecked")
+		Entry<T> entry = (Entry<T>) node._handle;
+
+		detach(entry);
+		release(entry);
+		return true;
+	}
+
+	/**
+	 * Moves every node of other into this heap. Another PairingMinHeap is melded
+	 * by linking the two roots, O(1); any other heap is drained into this one.
+	 *
+	 * @param other The heap to empty into this one.
+	 */
+	@Override
+	public void meld(MinHeap<T> other)
+	{
+		if (!(other instanceof PairingMinHeap) || other == this)
+		{
+			MinHeap.super.meld(other);
+			return;
+		}
+
+		PairingMinHeap<T> that = (PairingMinHeap<T>) other;
+		that._token.forwardTo(_token);
+
+		_root = link(_root, that._root);
+		_size += that._size;
+
+		that._root = null;
+		that._size = 0;
+		that._token = new HeapToken();
+	}
+
+	//
+	// Tree operations
+	//
+
+	// Takes entry out of the tree, leaving it a lone root, and merges its
+	// children back into the heap.
+	private void detach(Entry<T> entry)
+	{
+		Entry<T> children = entry._child;
+		entry._child = null;
+
+		if (entry == _root) _root = mergePairs(children);
+		else
+		{
+			cut(entry);
+			_root = link(_root, mergePairs(children));
+		}
+	}
+
+	// Unlinks entry (with its subtree) from its parent and siblings.
+	private void cut(Entry<T> entry)
+	{
+		if (entry._prev._child == entry) entry._prev._child = entry._next;
+		else entry._prev._next = entry._next;
+
+		if (entry._next != null) entry._next._prev = entry._prev;
+
+		entry._next = null;
+		entry._prev = null;
+	}
+
+	// Links two roots: the one with the larger key becomes the leftmost child
+	// of the other, which is returned.
+	private Entry<T> link(Entry<T> a, Entry<T> b)
+	{
+		if (a == null) return b;
+		if (b == null) return a;
+
+		if (b._node._key < a._node._key)
+		{
+			Entry<T> t = a;
+			a = b;
+			b = t;
+		}
+
+		b._next = a._child;
+		if (a._child != null) a._child._prev = b;
+		b._prev = a;
+		a._child = b;
+
+		return a;
+	}
+
+	// Merges a sibling list into one tree: links the entries in pairs from the
+	// left, then links the pairs into one tree from the right.
+	private Entry<T> mergePairs(Entry<T> first)
+	{
+		// First pass; the pairs are stacked through _next, the last pair on top.
+		Entry<T> pairs = null;
+		while (first != null)
+		{
+			Entry<T> a = first;
+			Entry<T> b = a._next;
+			first = b == null ? null : b._next;
+
+			a._next = a._prev = null;
+			if (b != null)
+			{
+				b._next = b._prev = null;
+				a = link(a, b);
+			}
+
+			a._next = pairs;
+			pairs = a;
+		}
+
+		// Second pass, from the rightmost pair.
+		Entry<T> tree = null;
+		while (pairs != null)
+		{
+			Entry<T> next = pairs._next;
+			pairs._next = null;
+			tree = link(tree, pairs);
+			pairs = next;
+		}
+
+		if (tree != null) tree._prev = null;
+		return tree;
+	}
+
+	// Marks a removed entry as no longer in the heap.
+	private void release(Entry<T> entry)
+	{
+		entry._owner = null;
+		entry._child = entry._next = entry._prev = null;
+		entry._node._handle = null;
+		_size--;
+	}
+
+	/**
+	 * Returns whether node is currently stored in this heap.
+	 * @param node any node
+	 * @return true if node is in this heap
+	 */
+	private boolean holds(HeapNode<T> node)
+	{
+		if (node == null || !(node._handle instanceof Entry)) return false;
+
+		HeapToken owner = ((Entry<?>) node._handle)._owner;
+		return owner != null && owner.resolve() == _token;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Entry<T> entryOf(HeapNode<T> node)
+	{
+		if (!holds(node)) throw new IllegalArgumentException("node is not in this heap");
+		return (Entry<T>) node._handle;
+	}
+
+	private void checkKeyChange(HeapNode<T> node, double newKey, boolean decrease)
+	{
+		if (Double.isNaN(newKey)) throw new IllegalArgumentException("key is NaN");
+		if (decrease && newKey > node._key)
+			throw new IllegalArgumentException("new key " + newKey + " is greater than current key " + node._key);
+		if (!decrease && newKey < node._key)
+			throw new IllegalArgumentException("new key " + newKey + " is less than current key " + node._key);
+	}
+}
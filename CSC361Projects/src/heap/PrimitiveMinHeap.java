@@ -0,0 +1,446 @@
+/**
+ * An implementation of the MinHeap interface that needs no HeapNode objects.
+ * The binary heap itself is two parallel arrays, the keys in a double[] and
+ * the handle of each entry in an int[]; payloads live in an Object[] and heap
+ * positions in an int[], both indexed by handle. A handle is a small int that
+ * names an entry for as long as it is in the heap, and is reused after the
+ * entry leaves.
+ *
+ * <p>The primitive operations (insert(double, T), build(double[], T[]), minKey,
+ * extractMinValue, decreaseKey(int, double), ...) never box a key or allocate
+ * a node. An entry costs about 28 bytes of arrays plus its payload, and
+ * sinking or swimming reads only the key and handle arrays, updating the
+ * position of each entry it moves.
+ *
+ * <p>The HeapNode operations of MinHeap are kept for compatibility: insert
+ * records the entry's handle in the node's _index, and the heap keeps the node
+ * by handle, so extractMin and peekMin return the node that was inserted, as
+ * every other MinHeap does. An entry added by a primitive operation gets a
+ * node the first time one is asked for. decreaseKey, increaseKey and remove
+ * go through the node's _index, and only act if the heap holds that very node
+ * for the handle; a node whose handle has since been reused, or that came from
+ * another heap, is not a member.
+ *
+ * <p>Keys are compared exactly, not within an epsilon as HeapNode.compareTo does.
+ *
+ * <p>        Build   ExtractMin   decreaseKey
+ * <p>      O(n)      O(lg(n))     O(lg(n))
+ *
+ * @author Michael Peeler
+ */
+
+package heap;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public class PrimitiveMinHeap<T> implements MinHeap<T>
+{
+	private static final int MIN_CAPACITY = 10;
+
+	// The heap, by position: _keys[p] is the key of the entry with handle _handles[p]
+	private double[] _keys;
+	private int[]    _handles;
+	private int      _size;
+
+	// By handle: the payload, the heap position (-1 if the handle is free) and
+	// the HeapNode standing for the entry, if one has been inserted or returned
+	private Object[] _values;
+	private int[]    _positions;
+	private Object[] _nodes;
+	private int      _handleCount;   // handles [0, _handleCount) have been issued
+
+	// Freed handles, reused before new ones are issued
+	private int[] _free;
+	private int   _freeCount;
+
+	public PrimitiveMinHeap() { init(MIN_CAPACITY); }
+
+	private void init(int capacity)
+	{
+		_keys = new double[capacity];
+		_handles = new int[capacity];
+		_values = new Object[capacity];
+		_positions = new int[capacity];
+		_nodes = new Object[capacity];
+		_free = new int[capacity];
+		_size = 0;
+		_handleCount = 0;
+		_freeCount = 0;
+	}
+
+	public void clear() { init(MIN_CAPACITY); }
+	public boolean isEmpty() { return _size == 0; }
+	public int size() { return _size; }
+
+	/**
+	 * Grows every array, if necessary, so that minCapacity entries fit.
+	 * @param minCapacity the number of entries that must fit
+	 */
+	private void ensureCapacity(int minCapacity)
+	{
+		int oldCapacity = _keys.length;
+		if (minCapacity <= oldCapacity) return;
+
+		int newCapacity = Math.max((oldCapacity * 3) / 2 + 1, minCapacity);
+
+		_keys = Arrays.copyOf(_keys, newCapacity);
+		_handles = Arrays.copyOf(_handles, newCapacity);
+		_values = Arrays.copyOf(_values, newCapacity);
+		_positions = Arrays.copyOf(_positions, newCapacity);
+		_nodes = Arrays.copyOf(_nodes, newCapacity);
+		_free = Arrays.copyOf(_free, newCapacity);
+	}
+
+	//
+	// Primitive operations
+	//
+
+	/**
+	 * Returns whether handle names an entry currently in this heap.
+	 * @param handle any int
+	 * @return true if the entry is in this heap
+	 */
+	public boolean contains(int handle)
+	{
+		return handle >= 0 && handle < _handleCount && _positions[handle] != -1;
+	}
+
+	/**
+	 * Inserts a key and its payload.
+	 * @param key the key; must not be NaN
+	 * @param value the payload; may be null
+	 * @return the handle of the new entry
+	 */
+	public int insert(double key, T value)
+	{
+		if (Double.isNaN(key)) throw new IllegalArgumentException("key is NaN");
+
+		ensureCapacity(_size + 1);
+
+		int handle = _freeCount > 0 ? _free[--_freeCount] : _handleCount++;
+		_values[handle] = value;
+
+		swim(_size++, key, handle);
+		return handle;
+	}
+
+	/**
+	 * Replaces the contents of the heap with keys[i] and values[i], in O(n) time.
+	 * The entry built from position i gets handle i. We do NOT assume the lengths
+	 * of the arrays are equal; values may be null, leaving every payload null.
+	 *
+	 * @param keys the keys; none may be NaN
+	 * @param values the payloads, or null
+	 * @throws IllegalArgumentException if a key is NaN; the heap is then left unchanged
+	 */
+	public void build(double[] keys, T[] values)
+	{
+		int sz = values == null ? keys.length : Math.min(keys.length, values.length);
+
+		// reject a bad key before the old contents are thrown away
+		for (int i = 0; i < sz; i++)
+		{
+			if (Double.isNaN(keys[i])) throw new IllegalArgumentException("key " + i + " is NaN");
+		}
+
+		init(Math.max(sz, MIN_CAPACITY));
+		for (int i = 0; i < sz; i++)
+		{
+			_keys[i] = keys[i];
+			_handles[i] = i;
+			_positions[i] = i;
+		}
+		if (values != null) System.arraycopy(values, 0, _values, 0, sz);
+
+		_size = sz;
+		_handleCount = sz;
+
+		// sink each internal position, deepest first
+		for (int p = _size / 2 - 1; p >= 0; p--) sink(p, _keys[p], _handles[p]);
+	}
+
+	/**
+	 * @return the smallest key
+	 * @throws NoSuchElementException if the heap is empty
+	 */
+	public double minKey()
+	{
+		checkNotEmpty();
+		return _keys[0];
+	}
+
+	/**
+	 * @return the handle of the entry with the smallest key
+	 * @throws NoSuchElementException if the heap is empty
+	 */
+	public int minHandle()
+	{
+		checkNotEmpty();
+		return _handles[0];
+	}
+
+	/**
+	 * Removes the entry with the smallest key.
+	 * @return its payload
+	 * @throws NoSuchElementException if the heap is empty
+	 */
+	public T extractMinValue()
+	{
+		checkNotEmpty();
+
+		int handle = _handles[0];
+		T value = value(handle);
+		removeAt(0);
+		return value;
+	}
+
+	/**
+	 * @param handle an entry in this heap
+	 * @return its key
+	 */
+	public double key(int handle)
+	{
+		checkContains(handle);
+		return _keys[_positions[handle]];
+	}
+
+	/**
+	 * @param handle an entry in this heap
+	 * @return its payload
+	 */
+	@SuppressWarnings("unchecked")
+	public T value(int handle)
+	{
+		checkContains(handle);
+		return (T) _values[handle];
+	}
+
+	/**
+	 * Lowers the key of an entry and swims it up; O(lg(n)).
+	 * @param handle an entry in this heap
+	 * @param newKey no greater than the entry's key
+	 */
+	public void decreaseKey(int handle, double newKey)
+	{
+		checkKeyChange(handle, newKey, true);
+		swim(_positions[handle], newKey, handle);
+		if (_nodes[handle] != null) node(handle)._key = newKey;
+	}
+
+	/**
+	 * Raises the key of an entry and sinks it down; O(lg(n)).
+	 * @param handle an entry in this heap
+	 * @param newKey no less than the entry's key
+	 */
+	public void increaseKey(int handle, double newKey)
+	{
+		checkKeyChange(handle, newKey, false);
+		sink(_positions[handle], newKey, handle);
+		if (_nodes[handle] != null) node(handle)._key = newKey;
+	}
+
+	/**
+	 * Removes an entry from anywhere in the heap; O(lg(n)).
+	 * @param handle any int
+	 * @return true if handle named an entry in this heap
+	 */
+	public boolean remove(int handle)
+	{
+		if (!contains(handle)) return false;
+
+		removeAt(_positions[handle]);
+		return true;
+	}
+
+	//
+	// MinHeap operations, in terms of the primitive ones
+	//
+
+	/**
+	 * Builds the heap from boxed lists; see build(double[], T[]).
+	 */
+	@SuppressWarnings("unchecked")
+	public void build(List<T> values, List<Double> keys)
+	{
+		int sz = Math.min(values.size(), keys.size());
+		double[] k = new double[sz];
+		for (int i = 0; i < sz; i++) k[i] = keys.get(i);
+
+		build(k, (T[]) values.subList(0, sz).toArray());
+	}
+
+	/**
+	 * Inserts node._key and node._data, records the new handle in node._index,
+	 * and keeps node as the entry's node.
+	 */
+	public void insert(HeapNode<T> node)
+	{
+		int handle = insert(node._key, node._data);
+		node._index = handle;
+		_nodes[handle] = node;
+	}
+
+	/**
+	 * @return the node of the minimum entry, or null if the heap is empty
+	 */
+	public HeapNode<T> extractMin()
+	{
+		if (_size == 0) return null;
+
+		HeapNode<T> node = node(_handles[0]);
+		removeAt(0);
+		return node;
+	}
+
+	/**
+	 * @return the node of the minimum entry, or null if the heap is empty
+	 */
+	public HeapNode<T> peekMin()
+	{
+		return _size == 0 ? null : node(_handles[0]);
+	}
+
+	public void decreaseKey(HeapNode<T> node, double newKey)
+	{
+		checkMember(node);
+		decreaseKey(node._index, newKey);
+	}
+
+	public void increaseKey(HeapNode<T> node, double newKey)
+	{
+		checkMember(node);
+		increaseKey(node._index, newKey);
+	}
+
+	public boolean remove(HeapNode<T> node) { return isMember(node) && remove(node._index); }
+
+	// the node of a live handle, made from its key and payload if it has none yet
+	@SuppressWarnings("unchecked")
+	private HeapNode<T> node(int handle)
+	{
+		HeapNode<T> node = (HeapNode<T>) _nodes[handle];
+		if (node == null)
+		{
+			node = new HeapNode<T>((T) _values[handle], _keys[_positions[handle]]);
+			node._index = handle;
+			_nodes[handle] = node;
+		}
+		return node;
+	}
+
+	// node is the one this heap holds for its handle
+	private boolean isMember(HeapNode<T> node)
+	{
+		return node != null && contains(node._index) && _nodes[node._index] == node;
+	}
+
+	//
+	// Sifting: each moves a hole rather than exchanging entries, and writes
+	// the moving entry once, at its final position
+	//
+
+	// place (key, handle) at position p or above
+	private void swim(int p, double key, int handle)
+	{
+		while (p > 0)
+		{
+			int parent = (p - 1) / 2;
+			if (key >= _keys[parent]) break;
+
+			move(parent, p);
+			p = parent;
+		}
+		place(p, key, handle);
+	}
+
+	// place (key, handle) at position p or below
+	private void sink(int p, double key, int handle)
+	{
+		int half = _size / 2;   // positions below half have at least one child
+		while (p < half)
+		{
+			int child = 2 * p + 1;
+			if (child + 1 < _size && _keys[child + 1] < _keys[child]) child++;
+			if (key <= _keys[child]) break;
+
+			move(child, p);
+			p = child;
+		}
+		place(p, key, handle);
+	}
+
+	private void move(int from, int to)
+	{
+		_keys[to] = _keys[from];
+		_handles[to] = _handles[from];
+		_positions[_handles[to]] = to;
+	}
+
+	private void place(int p, double key, int handle)
+	{
+		_keys[p] = key;
+		_handles[p] = handle;
+		_positions[handle] = p;
+	}
+
+	// removes the entry at position p, freeing its handle
+	private void removeAt(int p)
+	{
+		int handle = _handles[p];
+		_positions[handle] = -1;
+		_values[handle] = null;
+		_nodes[handle] = null;
+		_free[_freeCount++] = handle;
+
+		_size--;
+		if (p == _size) return;
+
+		// the last entry fills the hole, then moves whichever way it must
+		double key = _keys[_size];
+		int last = _handles[_size];
+		if (p > 0 && key < _keys[(p - 1) / 2]) swim(p, key, last);
+		else sink(p, key, last);
+	}
+
+	private void checkNotEmpty()
+	{
+		if (_size == 0) throw new NoSuchElementException("heap is empty");
+	}
+
+	private void checkContains(int handle)
+	{
+		if (!contains(handle)) throw new IllegalArgumentException("handle " + handle + " is not in this heap");
+	}
+
+	private void checkMember(HeapNode<T> node)
+	{
+		if (!isMember(node)) throw new IllegalArgumentException("node is not in this heap");
+	}
+
+	private void checkKeyChange(int handle, double newKey, boolean decrease)
+	{
+		checkContains(handle);
+		if (Double.isNaN(newKey)) throw new IllegalArgumentException("key is NaN");
+
+		double key = _keys[_positions[handle]];
+		if (decrease && newKey > key)
+			throw new IllegalArgumentException("new key " + newKey + " is greater than current key " + key);
+		if (!decrease && newKey < key)
+			throw new IllegalArgumentException("new key " + newKey + " is less than current key " + key);
+	}
+
+	/*
+	 * @return (For debugging purposes) dump (key, data) pairs in heap order
+	 */
+	public String toString()
+	{
+		StringBuilder sb = new StringBuilder();
+		for (int p = 0; p < _size; p++)
+		{
+			sb.append("(" + _keys[p] + ", " + _values[_handles[p]] + ") ");
+		}
+		return sb.append("\n").toString();
+	}
+}
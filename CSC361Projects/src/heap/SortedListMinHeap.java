@@ -17,6 +17,21 @@
  * be displaying roughly O(n) behavior.
  * ** I refactored the code to have the smallest value at the highest index, allowing 
  * extraction in constant time.
+ * 
+ * <p>insert finds its slot by binary search and opens it with one System.arraycopy;
+ * decreaseKey and increaseKey shift only the nodes between the old and new slots.
+ * The nodes moved keep stale _index values until an operation that needs them
+ * (membership checks, key changes, remove) renumbers the stale range in one pass,
+ * so a run of inserts renumbers once. Since the minimum sits at the end, inserts
+ * near the minimum move only the few nodes after their slot.
+ * 
+ * <p>Nodes are ordered by HeapNode.precedes: keys exactly, and equal keys by insertion
+ * order, the earliest nearest the end. Unlike the epsilon compare of compareTo this is
+ * a total order, as binary search and sorting require.
+ * 
+ * <p>meld merges the other heap's nodes in, as in merge sort: O(n + m) from another
+ * SortedListMinHeap, whose array is already in order, and O(n + m lg(m)) from any
+ * other array-based heap, whose array is sorted first.
  *
  * @author Michael Peeler
  * @date   3/30/2022
@@ -25,16 +40,33 @@
 package heap;
 
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class SortedListMinHeap<T> extends ExpandableHeapBase<T>
 {
+	// Only nodes from _staleFrom up to (not including) _staleTo may have stale
+	// _index values; none do when _staleFrom is CLEAN
+	private static final int CLEAN = Integer.MAX_VALUE;
+	private int _staleFrom = CLEAN;
+	private int _staleTo   = 0;
+	
+	// The array's order: the reverse of HeapNode.precedes
+	private static final Comparator<HeapNode<?>> DECREASING = (a, b) -> HeapNode.order(b, a);
+	
 	public SortedListMinHeap()
 	{
 		super();
 	}
 	
+	@Override
+	public void clear() {
+		super.clear();
+		_staleFrom = CLEAN;
+		_staleTo = 0;
+	}
+	
 	/**
 	 * Removes the minimum node from the heap and returns the minimum node to the caller.
 	 * No updates to index values, or shifts, are needed because values are kept in
@@ -47,6 +79,30 @@ public class SortedListMinHeap<T> extends ExpandableHeapBase<T>
 		return least;
 	}
 	
+	/**
+	 * Removes the k smallest nodes in one step: they are the last k of the array,
+	 * so they are handed to action from the end inward and the tail is cleared
+	 * at once. No other node moves, so no index values change.
+	 * 
+	 * @param k Most nodes to remove.
+	 * @param action Receives each removed node, smallest first.
+	 * @return Number of nodes removed.
+	 */
+	@Override
+	public int extractMin(int k, Consumer<? super HeapNode<T>> action) {
+		if (k < 0) throw new IllegalArgumentException("k must not be negative");
+		
+		int n = Math.min(k, _size);
+		int tail = _size - n;
+		
+		for (int i = _size - 1; i >= tail; i--) action.accept(_heap[i]);
+		
+		Arrays.fill(_heap, tail, _size, null);
+		_size = tail;
+		
+		return n;
+	}
+	
 	/**
 	 * Returns the minimum node from the heap, which will always be the last node
 	 * in the array.
@@ -58,35 +114,172 @@ public class SortedListMinHeap<T> extends ExpandableHeapBase<T>
 	}
 	
 	/**
-	 * Inserts the input node at its correct sorted position in the array.
+	 * Inserts the input node at its correct sorted position in the array, found by
+	 * binary search; the nodes after it move over by one in a single copy.
 	 * 
 	 * @param node HeapNode that will be inserted into the current heap.
 	 */
 	public void insert(HeapNode<T> node) {
+		if (Double.isNaN(node._key)) throw new IllegalArgumentException("key is NaN");
 		
 		ensureCapacity(_size + 1);
-		int i = _size;
-
-		// Empty space starts at the end, and continues moving right until it where 
-	    // node should be; this moves other nodes into the correct place without
-		// a temporary holding variable. Node is added afterwards in correct place.
-		while (i > 0 && _heap[i - 1].compareTo(node) < 0) {
-			
-			_heap[i] = _heap[i - 1];
-			_heap[i]._index = i;
-			
-			i--;
-		}
-
+		node._sequence = _nextSequence++;
+		int i = slotFor(node, 0, _size);
 		
-		// Adds node to the list
+		System.arraycopy(_heap, i, _heap, i + 1, _size - i);
 		_heap[i] = node;
-		_heap[i]._index = i;
+		node._index = i;
 		
 		_size ++;
+		markStale(i + 1, _size);
+	}
+	
+	/**
+	 * Finds where node belongs among positions lo to hi: the first position whose
+	 * node is smaller than it, or hi if there is none. Steps back from hi in
+	 * doubling strides first, so a slot near hi (near the minimum, for insert) is
+	 * found in a few comparisons, then binary searches the last stride.
+	 * @param node - node to place
+	 * @param lo - first position searched
+	 * @param hi - one past the last position searched
+	 * @return the position node should take
+	 */
+	private int slotFor(HeapNode<T> node, int lo, int hi) {
+		for (int step = 1; hi > lo; step <<= 1) {
+			int probe = Math.max(lo, hi - step);
+			if (!_heap[probe].precedes(node)) {
+				lo = probe + 1;
+				break;
+			}
+			hi = probe;
+		}
+		
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (_heap[mid].precedes(node)) hi = mid;
+			else lo = mid + 1;
+		}
+		return lo;
+	}
+	
+	// Records that the nodes from position lo up to hi may have moved.
+	private void markStale(int lo, int hi) {
+		if (lo < _staleFrom) _staleFrom = lo;
+		if (hi > _staleTo) _staleTo = hi;
+	}
+	
+	// Renumbers the nodes whose _index values may be stale.
+	private void refreshIndices() {
+		int end = Math.min(_staleTo, _size);
+		for (int i = _staleFrom; i < end; i++) _heap[i]._index = i;
+		_staleFrom = CLEAN;
+		_staleTo = 0;
+	}
+	
+	/**
+	 * Renumbers any stale _index values first, so that node's _index can be trusted.
+	 */
+	@Override
+	protected boolean holds(HeapNode<T> node) {
+		if (_staleFrom != CLEAN) refreshIndices();
+		return super.holds(node);
+	}
 
+	/**
+	 * Lowers the key of a node already in the heap. The node moves toward the end,
+	 * and the nodes between its old and new positions shift back by one; O(n).
+	 * 
+	 * @param node HeapNode currently in this heap.
+	 * @param newKey Replacement key, no greater than the current key.
+	 */
+	public void decreaseKey(HeapNode<T> node, double newKey) {
+		checkKeyChange(node, newKey, true);
+		
+		int from = node._index;
+		node._key = newKey;
+		int to = slotFor(node, from + 1, _size) - 1;
+		
+		System.arraycopy(_heap, from + 1, _heap, from, to - from);
+		_heap[to] = node;
+		markStale(from, to + 1);
+	}
+	
+	/**
+	 * Raises the key of a node already in the heap. The node moves toward the front,
+	 * and the nodes between its new and old positions shift up by one; O(n).
+	 * 
+	 * @param node HeapNode currently in this heap.
+	 * @param newKey Replacement key, no less than the current key.
+	 */
+	public void increaseKey(HeapNode<T> node, double newKey) {
+		checkKeyChange(node, newKey, false);
+		
+		int from = node._index;
+		node._key = newKey;
+		int to = slotFor(node, 0, from);
+		
+		System.arraycopy(_heap, to, _heap, to + 1, from - to);
+		_heap[to] = node;
+		markStale(to, from + 1);
+	}
+	
+	/**
+	 * Removes a node from anywhere in the heap, shifting the nodes after it down;
+	 * their index values are renumbered when next needed. O(n).
+	 * 
+	 * @param node HeapNode to remove.
+	 * @return Whether the node was in this heap.
+	 */
+	public boolean remove(HeapNode<T> node) {
+		if (!holds(node)) return false;
+		
+		remove(node._index);
+		markStale(node._index, _size);
+		
+		return true;
 	}
 
+	/**
+	 * Moves every node of other into this heap. The nodes of another array-based
+	 * heap are sorted into decreasing key order, unless they are already, and
+	 * merged with this array from the end. Any other heap is drained into this one.
+	 * 
+	 * @param other The heap to empty into this one.
+	 */
+	@Override
+	public void meld(MinHeap<T> other) {
+		if (!(other instanceof ExpandableHeapBase) || other == this) {
+			super.meld(other);
+			return;
+		}
+		
+		ExpandableHeapBase<T> that = (ExpandableHeapBase<T>) other;
+		HeapNode<T>[] incoming = Arrays.copyOf(that._heap, that._size);
+		that.clear();
+		
+		// New sequence numbers; from another sorted list, in an order that keeps its ties in place.
+		if (that instanceof SortedListMinHeap) {
+			for (int j = incoming.length - 1; j >= 0; j--) incoming[j]._sequence = _nextSequence++;
+		}
+		else {
+			for (HeapNode<T> node : incoming) node._sequence = _nextSequence++;
+			Arrays.sort(incoming, DECREASING);
+		}
+		
+		ensureCapacity(_size + incoming.length);
+		
+		// Fills from the end, taking the smaller of the two remaining nodes each time.
+		int i = _size - 1;
+		int j = incoming.length - 1;
+		for (int k = _size + incoming.length - 1; j >= 0; k--) {
+			if (i >= 0 && _heap[i].precedes(incoming[j])) _heap[k] = _heap[i--];
+			else _heap[k] = incoming[j--];
+		}
+		
+		_size += incoming.length;
+		markStale(i + 1, _size);
+	}
+	
 	/**
 	 * Builds a sorted MinHeap from two lists, a list of values and a 
 	 * comparable list of keys. Does so in O(n ln(n)) time, by inserting all values
@@ -102,20 +295,23 @@ public class SortedListMinHeap<T> extends ExpandableHeapBase<T>
 	@Override
 	public void build(List<T> values, List<Double> keys)
 	{
-		this.clear();
 		int sz = Math.min(values.size(), keys.size());
+		checkKeys(keys, sz);
+		this.clear();
 		ensureCapacity(sz);
 		
 		for (int i = 0; i < sz; i++)
 		{
 			_heap[i] = new HeapNode<T>(values.get(i), keys.get(i));
+			_heap[i]._sequence = i;
 		}
 		
 		_size = sz;
-	    Arrays.sort(_heap, Collections.reverseOrder());
+		_nextSequence = sz;
+	    Arrays.sort(_heap, 0, _size, DECREASING);
 	    
-	    // Sets index values
-		for (int j = 0; j < _size; j++) _heap[j]._index = j;
+	    // Index values are set when first needed
+		markStale(0, _size);
 	}
 	
 }
\ No newline at end of file
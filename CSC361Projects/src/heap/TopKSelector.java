@@ -0,0 +1,304 @@
+/**
+ * Keeps the k entries with the smallest keys out of a stream of any length.
+ * The entries kept form a binary max-heap of fixed capacity k, stored, as in
+ * PrimitiveMinHeap, as a double[] of keys beside an Object[] of payloads, so
+ * the largest key kept is always at the root. Once k entries are held, an
+ * offered key that is not below the root is rejected after that one
+ * comparison; one that is below it replaces the root and sinks.
+ *
+ * <p>offer(double[], T[]) takes a whole batch: the first entries fill the heap
+ * and are heapified at once, and the rest are compared against the root key,
+ * held in a local between replacements.
+ *
+ * <p>Selectors fed by separate threads are combined with merge, or with
+ * mergeAll, which merges a list of them pairwise in parallel on a fork-join
+ * pool. A selector itself is not thread-safe.
+ *
+ * <p>Keys are compared exactly, not within an epsilon as HeapNode.compareTo
+ * does. An offer whose key equals the threshold is rejected, but which of
+ * several kept entries with the largest key is evicted by a smaller one is
+ * unspecified: it need not be the one offered last.
+ *
+ * <p>        offer      offer (rejected)   merge        toSortedList
+ * <p>      O(lg(k))     O(1)               O(k lg(k))   O(k lg(k))
+ *
+ * @author Michael Peeler
+ */
+
+package heap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class TopKSelector<T>
+{
+	private final int _capacity;
+
+	// The max-heap, by position: _keys[p] is the key of the payload _values[p]
+	private final double[] _keys;
+	private final Object[] _values;
+	private int            _size;
+
+	/**
+	 * @param k the number of entries to keep; at least 1
+	 */
+	public TopKSelector(int k)
+	{
+		if (k < 1) throw new IllegalArgumentException("k must be at least 1");
+
+		_capacity = k;
+		_keys = new double[k];
+		_values = new Object[k];
+	}
+
+	public int capacity() { return _capacity; }
+	public boolean isEmpty() { return _size == 0; }
+	public int size() { return _size; }
+
+	public void clear()
+	{
+		Arrays.fill(_values, 0, _size, null);
+		_size = 0;
+	}
+
+	/**
+	 * @return the key an offer must be below to be kept: the largest key kept
+	 *         once the selector is full, and positive infinity until then
+	 */
+	public double threshold()
+	{
+		return _size < _capacity ? Double.POSITIVE_INFINITY : _keys[0];
+	}
+
+	/**
+	 * Offers one entry.
+	 * @param key the key; must not be NaN
+	 * @param value the payload; may be null
+	 * @return true if the entry is now among those kept
+	 */
+	public boolean offer(double key, T value)
+	{
+		if (_size == _capacity)
+		{
+			if (key < _keys[0])
+			{
+				sink(0, key, value);
+				return true;
+			}
+			if (Double.isNaN(key)) throw new IllegalArgumentException("key is NaN");
+			return false;
+		}
+
+		if (Double.isNaN(key)) throw new IllegalArgumentException("key is NaN");
+		swim(_size++, key, value);
+		return true;
+	}
+
+	/**
+	 * Offers the key and payload of a node; the node itself is not kept.
+	 * @param node the entry to offer
+	 * @return true if the entry is now among those kept
+	 */
+	public boolean offer(HeapNode<T> node)
+	{
+		return offer(node._key, node._data);
+	}
+
+	/**
+	 * Offers keys[i] with values[i] for every i. We do NOT assume the lengths
+	 * of the arrays are equal; values may be null, offering null payloads.
+	 *
+	 * @param keys the keys; none may be NaN
+	 * @param values the payloads, or null
+	 * @return the number of entries kept at the time they were offered
+	 */
+	public int offer(double[] keys, T[] values)
+	{
+		int sz = values == null ? keys.length : Math.min(keys.length, values.length);
+		int i = 0;
+		int accepted = 0;
+
+		// Fills the heap first, then restores its order once; the keys are checked
+		// before any is stored, so a NaN leaves the heap as it was.
+		if (_size < _capacity)
+		{
+			int fill = Math.min(sz, _capacity - _size);
+			for (int j = 0; j < fill; j++)
+			{
+				if (Double.isNaN(keys[j])) throw new IllegalArgumentException("key " + j + " is NaN");
+			}
+
+			int start = _size;
+			for (; i < fill; i++)
+			{
+				_keys[_size] = keys[i];
+				_values[_size] = values == null ? null : values[i];
+				_size++;
+			}
+			accepted = fill;
+
+			if (start == 0) heapify();
+			else for (int p = start; p < _size; p++) swim(p, _keys[p], _values[p]);
+		}
+
+		double top = _size == 0 ? Double.POSITIVE_INFINITY : _keys[0];
+		for (; i < sz; i++)
+		{
+			double key = keys[i];
+			if (key < top)
+			{
+				sink(0, key, values == null ? null : values[i]);
+				top = _keys[0];
+				accepted++;
+			}
+			else if (Double.isNaN(key)) throw new IllegalArgumentException("key " + i + " is NaN");
+		}
+
+		return accepted;
+	}
+
+	/**
+	 * Offers every entry of other to this selector; other is unchanged.
+	 * @param other another selector, of any capacity
+	 */
+	@SuppressWarnings("unchecked")
+	public void merge(TopKSelector<T> other)
+	{
+		if (other == null) throw new IllegalArgumentException("other selector is null");
+		if (other == this) return;
+
+		for (int p = 0; p < other._size; p++) offer(other._keys[p], (T) other._values[p]);
+	}
+
+	/**
+	 * Merges selectors in parallel on the common fork-join pool.
+	 * @see #mergeAll(List, ForkJoinPool)
+	 */
+	public static <T> TopKSelector<T> mergeAll(List<? extends TopKSelector<T>> selectors)
+	{
+		return mergeAll(selectors, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Merges selectors, such as one per thread, into a new selector holding the
+	 * k smallest entries among them all. Halves of the list are merged in
+	 * parallel, and the two results merged, so combining p selectors takes
+	 * about lg(p) rounds of merge. The selectors given are unchanged.
+	 *
+	 * @param selectors the selectors to merge; not empty, and all of capacity k
+	 * @param pool the pool that runs the merges
+	 * @return a new selector of capacity k
+	 * @throws IllegalArgumentException if either argument is null, selectors is
+	 *                                  empty, or the capacities differ
+	 */
+	public static <T> TopKSelector<T> mergeAll(List<? extends TopKSelector<T>> selectors, ForkJoinPool pool)
+	{
+		if (selectors == null) throw new IllegalArgumentException("selectors is null");
+		if (pool == null) throw new IllegalArgumentException("pool is null");
+		if (selectors.isEmpty()) throw new IllegalArgumentException("no selectors to merge");
+
+		int k = selectors.get(0).capacity();
+		for (TopKSelector<T> selector : selectors)
+		{
+			if (selector.capacity() != k) throw new IllegalArgumentException("selectors have different capacities");
+		}
+
+		return pool.invoke(new MergeTask<T>(selectors, 0, selectors.size()));
+	}
+
+	/*
+	 * Merges selectors [_lo, _hi) into a new selector: a single one is copied,
+	 * and a longer range is split in half.
+	 */
+	@SuppressWarnings("serial")
+	private static class MergeTask<T> extends RecursiveTask<TopKSelector<T>>
+	{
+		private final List<? extends TopKSelector<T>> _selectors;
+		private final int _lo, _hi;
+
+		MergeTask(List<? extends TopKSelector<T>> selectors, int lo, int hi)
+		{
+			_selectors = selectors;
+			_lo = lo;
+			_hi = hi;
+		}
+
+		@Override
+		protected TopKSelector<T> compute()
+		{
+			if (_hi - _lo == 1)
+			{
+				TopKSelector<T> copy = new TopKSelector<T>(_selectors.get(_lo).capacity());
+				copy.merge(_selectors.get(_lo));
+				return copy;
+			}
+
+			int mid = (_lo + _hi) >>> 1;
+			MergeTask<T> right = new MergeTask<T>(_selectors, mid, _hi);
+			right.fork();
+			TopKSelector<T> merged = new MergeTask<T>(_selectors, _lo, mid).compute();
+			merged.merge(right.join());
+			return merged;
+		}
+	}
+
+	/**
+	 * @return the entries kept, as new nodes, in increasing key order
+	 */
+	@SuppressWarnings("unchecked")
+	public List<HeapNode<T>> toSortedList()
+	{
+		List<HeapNode<T>> nodes = new ArrayList<HeapNode<T>>(_size);
+		for (int p = 0; p < _size; p++) nodes.add(new HeapNode<T>((T) _values[p], _keys[p]));
+
+		nodes.sort((a, b) -> Double.compare(a._key, b._key));
+		return nodes;
+	}
+
+	//
+	// Max-heap operations
+	//
+
+	// Sinks each internal entry, deepest first, as ClassicMinHeap.build does.
+	private void heapify()
+	{
+		for (int p = _size / 2 - 1; p >= 0; p--) sink(p, _keys[p], _values[p]);
+	}
+
+	// Moves the hole at position p down until key fits, then places the entry there.
+	private void sink(int p, double key, Object value)
+	{
+		int half = _size / 2;
+		while (p < half)
+		{
+			int child = 2 * p + 1;
+			if (child + 1 < _size && _keys[child + 1] > _keys[child]) child++;
+			if (key >= _keys[child]) break;
+
+			_keys[p] = _keys[child];
+			_values[p] = _values[child];
+			p = child;
+		}
+		_keys[p] = key;
+		_values[p] = value;
+	}
+
+	// Moves the hole at position p up until key fits, then places the entry there.
+	private void swim(int p, double key, Object value)
+	{
+		while (p > 0)
+		{
+			int parent = (p - 1) / 2;
+			if (key <= _keys[parent]) break;
+
+			_keys[p] = _keys[parent];
+			_values[p] = _values[parent];
+			p = parent;
+		}
+		_keys[p] = key;
+		_values[p] = value;
+	}
+}
@@ -12,68 +12,203 @@
  * <p>200000  83     82
  * <p>        O(n)   O(n)
  *
+ * <p>A node is removed by moving the last node into its slot, so only that one
+ * node's _index changes. The position of the minimum is cached once found and
+ * kept up to date by insert and decreaseKey, so a peekMin followed by extractMin
+ * scans only once; anything that may raise or remove the minimum forgets it.
+ * Nodes are compared with HeapNode.precedes: exactly, and by insertion order
+ * between equal keys.
+ *
  * @author Michael Peeler
  * @date   3/30/2022
  */
 package heap;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 //
 // Simple data structure that implements the required methods: decreaseKey O(1) and extractMin O(n)
 //
 public class UnsortedListMinHeap<T> extends ExpandableHeapBase<T>
 {
+	// Batches larger than this are sorted out rather than scanned for one at a time
+	private static final int SCAN_LIMIT = 8;
+	
+	// Position of the minimum node, or -1 if it must be found again
+	private int _minIndex = -1;
+	
 	public UnsortedListMinHeap()
 	{
 		super();
 	}
 	
+	@Override
+	public void clear() {
+		super.clear();
+		_minIndex = -1;
+	}
+	
 	/**
-	 * Removes the smallest node from the heap, updates internal 
-	 * index values for HeapNodes, and returns this node to the caller.
+	 * Removes the smallest node from the heap, filling its slot with the
+	 * last node, and returns it to the caller.
 	 * 
-	 * @return - Returns node containing minimum key and value associated with it.
+	 * @return - Returns node containing minimum key and value associated with it,
+	 *           or null if the heap is empty.
 	 */
 	public HeapNode<T> extractMin() {
 		
 		HeapNode<T> least = peekMin();
-		remove(least._index);
+		if (least == null) return null;
 		
-		// Updates internal index values.
-		for (int i = 0; i < _size; i ++) _heap[i]._index = i;
+		swapRemove(least._index);
+		_minIndex = -1;
 		return least;
 	}
 	
+	/**
+	 * Removes the k smallest nodes. Each extractMin scans the whole array, so
+	 * for more than a few nodes it is cheaper to sort the array once, O(n lg(n)),
+	 * hand over the first k, and shift the rest down.
+	 * 
+	 * @param k Most nodes to remove.
+	 * @param action Receives each removed node, smallest first.
+	 * @return Number of nodes removed.
+	 */
+	@Override
+	public int extractMin(int k, Consumer<? super HeapNode<T>> action) {
+		if (k < 0) throw new IllegalArgumentException("k must not be negative");
+		
+		int n = Math.min(k, _size);
+		if (n <= SCAN_LIMIT) {
+			for (int i = 0; i < n; i++) action.accept(extractMin());
+			return n;
+		}
+		
+		Arrays.sort(_heap, 0, _size, HeapNode::order);
+		for (int i = 0; i < n; i++) action.accept(_heap[i]);
+		
+		System.arraycopy(_heap, n, _heap, 0, _size - n);
+		Arrays.fill(_heap, _size - n, _size, null);
+		_size -= n;
+		
+		for (int i = 0; i < _size; i++) _heap[i]._index = i;
+		_minIndex = _size > 0 ? 0 : -1;
+		return n;
+	}
+	
+	/**
+	 * Moves every node of other into this heap. Another array-based heap hands
+	 * over its array, which is appended as it is; O(m), including a scan of the
+	 * appended nodes for the minimum. Any other heap is drained into this one.
+	 * 
+	 * @param other The heap to empty into this one.
+	 */
+	@Override
+	public void meld(MinHeap<T> other) {
+		if (!(other instanceof ExpandableHeapBase) || other == this) {
+			super.meld(other);
+			return;
+		}
+		if (other.isEmpty()) return;
+		
+		int start = _size;
+		append((ExpandableHeapBase<T>) other);
+		
+		// Keeps the cache if it was valid, checking the appended nodes against it.
+		if (start > 0 && _minIndex < 0) return;
+		
+		int least = start == 0 ? 0 : _minIndex;
+		for (int i = start; i < _size; i++) {
+			if (_heap[i].precedes(_heap[least])) least = i;
+		}
+		_minIndex = least;
+	}
+	
 	/**
 	 * Returns the smallest node from the heap without removal.
 	 * Finds smallest node by searching through all nodes and returning
-	 * the smallest found.
+	 * the smallest found, unless its position is already cached.
 	 * 
-	 * @return - Returns node containing minimum key and value associated with it.
+	 * @return - Returns node containing minimum key and value associated with it,
+	 *           or null if the heap is empty.
 	 */
 	public HeapNode<T> peekMin() {
+		if (_size == 0) return null;
+		if (_minIndex >= 0) return _heap[_minIndex];
+		
 		HeapNode<T> least = _heap[0];
 		
-		for (int i = least._index; i < _size; i++) {
+		for (int i = 1; i < _size; i++) {
 			
 			// Replaces least with node smaller than its old value, if found.
-			if (_heap[i].compareTo(least) < 0) least = _heap[i];
+			if (_heap[i].precedes(least)) least = _heap[i];
 			
 		}
 		
+		_minIndex = least._index;
 		return least;
 	}
 	
+	/**
+	 * Lowers the key of a node already in the heap. Nothing is ordered, so the
+	 * node stays where it is; O(1).
+	 * 
+	 * @param node HeapNode currently in this heap.
+	 * @param newKey Replacement key, no greater than the current key.
+	 */
+	public void decreaseKey(HeapNode<T> node, double newKey) {
+		checkKeyChange(node, newKey, true);
+		node._key = newKey;
+		if (_minIndex >= 0 && node.precedes(_heap[_minIndex])) _minIndex = node._index;
+	}
+	
+	/**
+	 * Raises the key of a node already in the heap in place; O(1).
+	 * 
+	 * @param node HeapNode currently in this heap.
+	 * @param newKey Replacement key, no less than the current key.
+	 */
+	public void increaseKey(HeapNode<T> node, double newKey) {
+		checkKeyChange(node, newKey, false);
+		node._key = newKey;
+		if (node._index == _minIndex) _minIndex = -1;
+	}
+	
+	/**
+	 * Removes a node from anywhere in the heap, filling its slot with the
+	 * last node; O(1).
+	 * 
+	 * @param node HeapNode to remove.
+	 * @return Whether the node was in this heap.
+	 */
+	public boolean remove(HeapNode<T> node) {
+		if (!holds(node)) return false;
+		
+		int index = node._index;
+		swapRemove(index);
+		
+		// The minimum is either gone or was the last node, now moved to index
+		if (_minIndex == index) _minIndex = -1;
+		else if (_minIndex == _size) _minIndex = index;
+		
+		return true;
+	}
+	
 	/**
 	 * Inserts the node supplied at the end of the array.
 	 * 
 	 * @param node HeapNode that will be inserted into the current heap.
 	 */
 	public void insert(HeapNode<T> node) {
+		if (Double.isNaN(node._key)) throw new IllegalArgumentException("key is NaN");
 		ensureCapacity(_size + 1);
+		node._sequence = _nextSequence++;
 		node._index = _size;
 		_heap[_size] = node;
 		_size++;
+		
+		if (_minIndex >= 0 && node.precedes(_heap[_minIndex])) _minIndex = node._index;
 	}
 }
\ No newline at end of file
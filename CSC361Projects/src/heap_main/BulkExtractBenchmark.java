@@ -0,0 +1,82 @@
+/**
+ * Times draining a heap of one million random keys in batches, as a batch
+ * consumer would: each batch is taken either by calling extractMin once per
+ * node or by one call to extractMin(k, action). Runs ClassicMinHeap and
+ * SortedListMinHeap with batches of 1,000 and 100,000.
+ *
+ * <p>Bugs: None noted
+ *
+ * @author Michael Peeler
+ */
+
+package heap_main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import heap.ClassicMinHeap;
+import heap.HeapNode;
+import heap.MinHeap;
+import heap.SortedListMinHeap;
+
+public class BulkExtractBenchmark
+{
+	private static final int KEYS = 1000000;
+	private static final int[] BATCHES = {1000, 100000};
+	private static final int ROUNDS = 5;
+
+	private static double _checksum;
+
+	// drains the heap in batches; returns the elapsed nanoseconds
+	private static long drain(MinHeap<Integer> heap, int batch, boolean bulk) {
+		long start = System.nanoTime();
+		while (!heap.isEmpty()) {
+			if (bulk) heap.extractMin(batch, node -> _checksum += node._key);
+			else {
+				for (int i = 0; i < batch && !heap.isEmpty(); i++) _checksum += heap.extractMin()._key;
+			}
+		}
+		return System.nanoTime() - start;
+	}
+
+	public static void main(String[] args)
+	{
+		Random rand = new Random(361);
+		List<Integer> values = new ArrayList<Integer>();
+		List<Double> keys = new ArrayList<Double>();
+		for (int i = 0; i < KEYS; i++) {
+			values.add(i);
+			keys.add(rand.nextDouble());
+		}
+
+		List<Supplier<MinHeap<Integer>>> heaps = new ArrayList<Supplier<MinHeap<Integer>>>();
+		heaps.add(ClassicMinHeap::new);
+		heaps.add(SortedListMinHeap::new);
+
+		System.out.println("Draining " + KEYS + " random keys, best of " + ROUNDS + " rounds");
+		for (Supplier<MinHeap<Integer>> make : heaps) {
+			for (int batch : BATCHES) {
+				long loop = Long.MAX_VALUE;
+				long bulk = Long.MAX_VALUE;
+				String name = "";
+
+				for (int round = 0; round < ROUNDS; round++) {
+					MinHeap<Integer> heap = make.get();
+					name = heap.getClass().getSimpleName();
+
+					heap.build(values, keys);
+					loop = Math.min(loop, drain(heap, batch, false));
+
+					heap.build(values, keys);
+					bulk = Math.min(bulk, drain(heap, batch, true));
+				}
+
+				System.out.printf("\t%-18s batch %6d: extractMin loop %7.1f ms, extractMin(k) %7.1f ms%n",
+				                  name, batch, loop / 1e6, bulk / 1e6);
+			}
+		}
+		System.out.println("(checksum " + (long) _checksum + ")");
+	}
+}
@@ -0,0 +1,113 @@
+/**
+ * Measures multi-threaded throughput of ConcurrentMinHeap, in relaxed and in
+ * strict mode, against a ClassicMinHeap behind one global lock, for 1 up to
+ * 2 * (available processors) threads. Each thread alternates insert and
+ * extractMin, as a scheduler's producers and consumers would, on a heap that
+ * starts with PREFILL nodes.
+ *
+ * <p>Bugs: None noted
+ *
+ * @author Michael Peeler
+ */
+
+package heap_main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+import heap.ClassicMinHeap;
+import heap.ConcurrentMinHeap;
+import heap.HeapNode;
+import heap.MinHeap;
+
+public class ConcurrentHeapThroughput
+{
+	private static final int PREFILL = 100000;
+	private static final int OPS_PER_THREAD = 1000000;
+
+	public static void main(String[] args) throws InterruptedException
+	{
+		int maxThreads = 2 * Runtime.getRuntime().availableProcessors();
+
+		Supplier<MinHeap<Integer>> relaxed = ConcurrentMinHeap::new;
+		Supplier<MinHeap<Integer>> strict = ConcurrentMinHeap::strict;
+		Supplier<MinHeap<Integer>> locked = () -> new LockedMinHeap<Integer>(new ClassicMinHeap<Integer>());
+
+		// warm-up
+		run(relaxed.get(), 2);
+		run(strict.get(), 2);
+		run(locked.get(), 2);
+
+		for (int threads = 1; threads <= maxThreads; threads *= 2)
+		{
+			System.out.println(threads + " threads");
+			System.out.println(String.format("\tConcurrentMinHeap, relaxed  %.0f ops/ms", run(relaxed.get(), threads)));
+			System.out.println(String.format("\tConcurrentMinHeap, strict   %.0f ops/ms", run(strict.get(), threads)));
+			System.out.println(String.format("\tlocked ClassicMinHeap       %.0f ops/ms", run(locked.get(), threads)));
+		}
+	}
+
+	// returns throughput in operations per millisecond
+	private static double run(MinHeap<Integer> heap, int threads) throws InterruptedException
+	{
+		Random fill = new Random(361);
+		for (int i = 0; i < PREFILL; i++) heap.insert(new HeapNode<Integer>(i, fill.nextDouble()));
+
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> workers = new ArrayList<Thread>();
+
+		for (int t = 0; t < threads; t++)
+		{
+			final long seed = t;
+			Thread worker = new Thread(() -> {
+				Random rand = new Random(seed);
+				try { start.await(); } catch (InterruptedException e) { return; }
+
+				// new keys land above the prefill on average, as deadlines move forward
+				double now = 0;
+				for (int op = 0; op < OPS_PER_THREAD; op++)
+				{
+					if ((op & 1) == 0) heap.insert(new HeapNode<Integer>(op, now + rand.nextDouble()));
+					else
+					{
+						HeapNode<Integer> node = heap.extractMin();
+						if (node != null) now = node._key;
+					}
+				}
+			});
+			workers.add(worker);
+			worker.start();
+		}
+
+		long begin = System.nanoTime();
+		start.countDown();
+		for (Thread worker : workers) worker.join();
+		long elapsed = System.nanoTime() - begin;
+
+		return (double) threads * OPS_PER_THREAD / (elapsed / 1000000.0);
+	}
+
+	/*
+	 * The single-lock baseline: every operation of the wrapped heap runs under one monitor.
+	 */
+	private static class LockedMinHeap<T> implements MinHeap<T>
+	{
+		private final MinHeap<T> _heap;
+
+		LockedMinHeap(MinHeap<T> heap) { _heap = heap; }
+
+		public synchronized void build(List<T> values, List<Double> keys) { _heap.build(values, keys); }
+		public synchronized void insert(HeapNode<T> node) { _heap.insert(node); }
+		public synchronized HeapNode<T> extractMin() { return _heap.extractMin(); }
+		public synchronized HeapNode<T> peekMin() { return _heap.peekMin(); }
+		public synchronized void decreaseKey(HeapNode<T> node, double newKey) { _heap.decreaseKey(node, newKey); }
+		public synchronized void increaseKey(HeapNode<T> node, double newKey) { _heap.increaseKey(node, newKey); }
+		public synchronized boolean remove(HeapNode<T> node) { return _heap.remove(node); }
+		public synchronized boolean isEmpty() { return _heap.isEmpty(); }
+		public synchronized int size() { return _heap.size(); }
+		public synchronized void clear() { _heap.clear(); }
+	}
+}
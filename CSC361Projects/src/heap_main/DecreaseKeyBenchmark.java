@@ -0,0 +1,132 @@
+/**
+ * Runs Dijkstra's algorithm over a random sparse graph with a ClassicMinHeap
+ * in two ways: the duplicate-insert approach, which inserts a new node on every
+ * relaxation and skips stale nodes as they are extracted, and the indexed
+ * approach, which keeps one node per vertex and calls decreaseKey. Reports the
+ * time, the peak heap size and the number of inserts of each.
+ *
+ * <p>Bugs: None noted
+ *
+ * @author Michael Peeler
+ */
+
+package heap_main;
+
+import java.util.Arrays;
+
+import heap.ClassicMinHeap;
+import heap.HeapNode;
+import heap.MinHeap;
+
+public class DecreaseKeyBenchmark
+{
+	private static final int VERTICES = 200000;
+	private static final int DEGREE = 8;
+
+	private static SparseGraph _graph;
+
+	private static int _peak;
+	private static int _inserts;
+
+	/**
+	 * Dijkstra with duplicate inserts: a vertex may sit in the heap once per
+	 * relaxation, and all but its smallest entry are discarded when extracted.
+	 */
+	private static double[] duplicateInsert(int source) {
+		double[] dist = new double[VERTICES];
+		Arrays.fill(dist, Double.POSITIVE_INFINITY);
+		boolean[] done = new boolean[VERTICES];
+
+		MinHeap<Integer> heap = new ClassicMinHeap<Integer>();
+		dist[source] = 0;
+		heap.insert(new HeapNode<Integer>(source, 0));
+		_inserts = 1;
+		_peak = 1;
+
+		while (!heap.isEmpty()) {
+			int v = heap.extractMin()._data;
+			if (done[v]) continue;
+			done[v] = true;
+
+			for (int e = _graph._first[v]; e < _graph._first[v + 1]; e++) {
+				int w = _graph._targets[e];
+				double d = dist[v] + _graph._weights[e];
+				if (d < dist[w]) {
+					dist[w] = d;
+					heap.insert(new HeapNode<Integer>(w, d));
+					_inserts++;
+					_peak = Math.max(_peak, heap.size());
+				}
+			}
+		}
+		return dist;
+	}
+
+	/**
+	 * Dijkstra with decreaseKey: each vertex has one node, inserted when the
+	 * vertex is first reached and moved up as shorter paths are found.
+	 */
+	@SuppressWarnings("unchecked")
+	private static double[] indexed(int source) {
+		double[] dist = new double[VERTICES];
+		Arrays.fill(dist, Double.POSITIVE_INFINITY);
+		HeapNode<Integer>[] nodes = (HeapNode<Integer>[]) new HeapNode[VERTICES];
+		boolean[] done = new boolean[VERTICES];
+
+		MinHeap<Integer> heap = new ClassicMinHeap<Integer>();
+		dist[source] = 0;
+		nodes[source] = new HeapNode<Integer>(source, 0);
+		heap.insert(nodes[source]);
+		_inserts = 1;
+		_peak = 1;
+
+		while (!heap.isEmpty()) {
+			int v = heap.extractMin()._data;
+			done[v] = true;
+
+			for (int e = _graph._first[v]; e < _graph._first[v + 1]; e++) {
+				int w = _graph._targets[e];
+				double d = dist[v] + _graph._weights[e];
+				if (done[w] || d >= dist[w]) continue;
+
+				dist[w] = d;
+				if (nodes[w] == null) {
+					nodes[w] = new HeapNode<Integer>(w, d);
+					heap.insert(nodes[w]);
+					_inserts++;
+					_peak = Math.max(_peak, heap.size());
+				}
+				else heap.decreaseKey(nodes[w], d);
+			}
+		}
+		return dist;
+	}
+
+	public static void main(String[] args)
+	{
+		_graph = new SparseGraph(VERTICES, DEGREE, 361);
+		System.out.println("Dijkstra, " + VERTICES + " vertices, " + (VERTICES * DEGREE) + " edges, ClassicMinHeap");
+
+		for (int run = 0; run < 4; run++) {
+			// the first run is a warm-up
+			boolean report = run > 0;
+
+			long start = System.nanoTime();
+			double[] expected = duplicateInsert(0);
+			long duplicate = System.nanoTime() - start;
+			int duplicatePeak = _peak, duplicateInserts = _inserts;
+
+			start = System.nanoTime();
+			double[] actual = indexed(0);
+			long decrease = System.nanoTime() - start;
+
+			if (!Arrays.equals(expected, actual)) throw new IllegalStateException("distances differ");
+			if (!report) continue;
+
+			System.out.printf("\tduplicate insert: %7.1f ms, peak size %7d, inserts %8d%n",
+			                  duplicate / 1e6, duplicatePeak, duplicateInserts);
+			System.out.printf("\tdecreaseKey:      %7.1f ms, peak size %7d, inserts %8d%n",
+			                  decrease / 1e6, _peak, _inserts);
+		}
+	}
+}
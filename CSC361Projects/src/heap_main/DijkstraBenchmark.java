@@ -0,0 +1,109 @@
+/**
+ * Runs Dijkstra's algorithm over a random sparse graph with each MinHeap that
+ * supports decreaseKey efficiently, keeping one HeapNode per vertex, and reports
+ * the time of each together with the number of inserts, decreaseKeys and
+ * extractMins. Every heap must produce the same distances.
+ *
+ * <p>Bugs: None noted
+ *
+ * @author Michael Peeler
+ */
+
+package heap_main;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import heap.ClassicMinHeap;
+import heap.DaryMinHeap;
+import heap.FibonacciMinHeap;
+import heap.HeapNode;
+import heap.MinHeap;
+import heap.PairingMinHeap;
+import heap.PrimitiveMinHeap;
+
+public class DijkstraBenchmark
+{
+	private static final int VERTICES = 500000;
+	private static final int DEGREE = 16;
+	private static final int RUNS = 3;
+
+	private static long _inserts;
+	private static long _decreases;
+	private static long _extracts;
+
+	/**
+	 * Single-source shortest paths from source, using heap as the priority queue.
+	 */
+	@SuppressWarnings("unchecked")
+	private static double[] dijkstra(SparseGraph graph, int source, MinHeap<Integer> heap) {
+		double[] dist = new double[graph._vertices];
+		Arrays.fill(dist, Double.POSITIVE_INFINITY);
+		HeapNode<Integer>[] nodes = (HeapNode<Integer>[]) new HeapNode[graph._vertices];
+		boolean[] done = new boolean[graph._vertices];
+
+		_inserts = _decreases = _extracts = 0;
+
+		dist[source] = 0;
+		nodes[source] = new HeapNode<Integer>(source, 0);
+		heap.insert(nodes[source]);
+		_inserts++;
+
+		while (!heap.isEmpty()) {
+			int v = heap.extractMin()._data;
+			_extracts++;
+			done[v] = true;
+
+			for (int e = graph._first[v]; e < graph._first[v + 1]; e++) {
+				int w = graph._targets[e];
+				double d = dist[v] + graph._weights[e];
+				if (done[w] || d >= dist[w]) continue;
+
+				dist[w] = d;
+				if (nodes[w] == null) {
+					nodes[w] = new HeapNode<Integer>(w, d);
+					heap.insert(nodes[w]);
+					_inserts++;
+				}
+				else {
+					heap.decreaseKey(nodes[w], d);
+					_decreases++;
+				}
+			}
+		}
+		return dist;
+	}
+
+	public static void main(String[] args)
+	{
+		SparseGraph graph = new SparseGraph(VERTICES, DEGREE, 361);
+
+		Map<String, Supplier<MinHeap<Integer>>> heaps = new LinkedHashMap<String, Supplier<MinHeap<Integer>>>();
+		heaps.put("ClassicMinHeap", ClassicMinHeap::new);
+		heaps.put("DaryMinHeap (d = 4)", () -> new DaryMinHeap<Integer>(4));
+		heaps.put("PrimitiveMinHeap", PrimitiveMinHeap::new);
+		heaps.put("PairingMinHeap", PairingMinHeap::new);
+		heaps.put("FibonacciMinHeap", FibonacciMinHeap::new);
+
+		// warm up every heap before timing any
+		double[] expected = dijkstra(graph, 0, new ClassicMinHeap<Integer>());
+		for (Supplier<MinHeap<Integer>> heap : heaps.values()) dijkstra(graph, 0, heap.get());
+
+		System.out.println("Dijkstra, " + graph._vertices + " vertices, " + graph.edges() + " edges");
+		System.out.println("inserts " + _inserts + ", decreaseKeys " + _decreases + ", extractMins " + _extracts);
+
+		for (Map.Entry<String, Supplier<MinHeap<Integer>>> heap : heaps.entrySet()) {
+			long best = Long.MAX_VALUE;
+			for (int run = 0; run < RUNS; run++) {
+				long start = System.nanoTime();
+				double[] dist = dijkstra(graph, 0, heap.getValue().get());
+				best = Math.min(best, System.nanoTime() - start);
+
+				if (!Arrays.equals(expected, dist)) throw new IllegalStateException(heap.getKey() + ": distances differ");
+			}
+			System.out.printf("\t%-20s %7.1f ms (best of %d)%n", heap.getKey(), best / 1e6, RUNS);
+		}
+	}
+}
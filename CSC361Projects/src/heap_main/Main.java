@@ -1,7 +1,7 @@
 /**
- * Performs timings on two different types of MinHeap implementations, 
- * the SortedListMinHeap and the UnsortedListMinHeap, using randomized Double
- * values of keys.
+ * Performs timings on the MinHeap implementations, using randomized Double
+ * values of keys, then compares ClassicMinHeap with the array-backed
+ * PrimitiveMinHeap and sweeps DaryMinHeap over arity x size.
  *
  * <p>Bugs: None noted
  *
@@ -19,6 +19,8 @@ import heap.MinHeap;
 import heap.SortedListMinHeap;
 import heap.UnsortedListMinHeap;
 import heap.ClassicMinHeap;
+import heap.DaryMinHeap;
+import heap.PrimitiveMinHeap;
 import heap_utilities.Timer;
 import java.util.Random;
 
@@ -123,6 +125,80 @@ public class Main
 		}
 	}
 
+	/**
+	 * Compares ClassicMinHeap with PrimitiveMinHeap on one heap of the given size:
+	 * each is built and then drained. ClassicMinHeap is built from boxed lists;
+	 * PrimitiveMinHeap from a double[] through its primitive build, and drained
+	 * with extractMinValue, so it allocates no nodes.
+	 * @param elements How many nodes will be in each heap.
+	 * @param time Timer used to measure time that each test takes.
+	 */
+	private static void comparePrimitive(int elements, Timer time) {
+		ArrayList<Double> keys = genRandList(elements);
+		ArrayList<Integer> vals = genIntList(elements);
+		
+		double[] primitiveKeys = new double[elements];
+		for (int i = 0; i < elements; i++) primitiveKeys[i] = keys.get(i);
+		Integer[] primitiveVals = vals.toArray(new Integer[0]);
+		
+		ClassicMinHeap<Integer> classic = new ClassicMinHeap<Integer>();
+		time.start();
+		classic.build(vals, keys);
+		long classicBuild = time.stop();
+		
+		time.start();
+		while (!classic.isEmpty()) classic.extractMin();
+		long classicDrain = time.stop();
+		
+		PrimitiveMinHeap<Integer> primitive = new PrimitiveMinHeap<Integer>();
+		time.start();
+		primitive.build(primitiveKeys, primitiveVals);
+		long primitiveBuild = time.stop();
+		
+		time.start();
+		while (!primitive.isEmpty()) primitive.extractMinValue();
+		long primitiveDrain = time.stop();
+		
+		System.out.println(elements + " Elements, build / extract all (ms)");
+		System.out.println("ClassicMinHeap:   " + classicBuild + " / " + classicDrain);
+		System.out.println("PrimitiveMinHeap: " + primitiveBuild + " / " + primitiveDrain);
+		System.out.println();
+	}
+	
+	/**
+	 * Sweeps DaryMinHeap over the arities in ARITIES for one heap size: each heap
+	 * is built and then drained by extractMin, timesRun times, and the totals printed.
+	 * @param elements How many nodes will be in each heap.
+	 * @param time Timer used to measure time that each test takes.
+	 */
+	private static void sweepArity(int elements, Timer time) {
+		final int[] ARITIES = new int[] {2, 4, 8, 16};
+		final int timesRun = elements >= 1000000 ? 1 : 10;
+		
+		ArrayList<Double> keys = genRandList(elements);
+		ArrayList<Integer> vals = genIntList(elements);
+		
+		System.out.println(elements + " Elements, DaryMinHeap build / extract all (ms, total of " + timesRun + " runs)");
+		for (int arity : ARITIES) {
+			long build = 0;
+			long drain = 0;
+			
+			for (int i = 0; i < timesRun; i++) {
+				MinHeap<Integer> heap = new DaryMinHeap<Integer>(arity);
+				
+				time.start();
+				heap.build(vals, keys);
+				build += time.stop();
+				
+				time.start();
+				while (!heap.isEmpty()) heap.extractMin();
+				drain += time.stop();
+			}
+			
+			System.out.println("d = " + arity + ": " + build + " / " + drain);
+		}
+		System.out.println();
+	}
 	
 	public static void main(String[] args)
 	{
@@ -134,12 +210,22 @@ public class Main
 		heaps.add(new UnsortedListMinHeap<Integer>());
 		heaps.add(new SortedListMinHeap<Integer>());
 		heaps.add(new ClassicMinHeap<Integer>());
+		heaps.add(new PrimitiveMinHeap<Integer>());
+		heaps.add(new DaryMinHeap<Integer>());
 
 		Timer time = new Timer();
 		
 		// Executes the test process on each type of heap for every number of elements.
 		for (int elements : ELEMENT_COUNT ) {		
 			testWithNElements(elements, time, heaps);
+			sweepArity(elements, time);
+		}
+		
+		// Array-backed and d-ary heaps at sizes where memory layout dominates
+		final int[] LARGE_ELEMENT_COUNT = new int[] {200000, 1000000, 5000000};
+		for (int elements : LARGE_ELEMENT_COUNT) {
+			comparePrimitive(elements, time);
+			sweepArity(elements, time);
 		}
 	}
 }
\ No newline at end of file
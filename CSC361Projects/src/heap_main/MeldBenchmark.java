@@ -0,0 +1,83 @@
+/**
+ * Times merging per-thread work queues into one heap: SHARDS heaps of
+ * SHARD_SIZE random keys each are combined either by extracting every node
+ * from a shard and inserting it into the target, or by meld. Reports the best
+ * of several runs for each kind of heap that overrides meld.
+ *
+ * <p>Bugs: None noted
+ *
+ * @author Michael Peeler
+ */
+
+package heap_main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import heap.ClassicMinHeap;
+import heap.FibonacciMinHeap;
+import heap.HeapNode;
+import heap.MinHeap;
+import heap.PairingMinHeap;
+import heap.SortedListMinHeap;
+import heap.UnsortedListMinHeap;
+
+public class MeldBenchmark
+{
+	private static final int SHARDS = 8;
+	private static final int SHARD_SIZE = 100000;
+	private static final int ROUNDS = 5;
+
+	// fills SHARDS heaps, then times combining them into the first
+	private static long merge(Supplier<MinHeap<Integer>> make, boolean meld, Random rand) {
+		List<MinHeap<Integer>> shards = new ArrayList<MinHeap<Integer>>();
+		for (int s = 0; s < SHARDS; s++) {
+			MinHeap<Integer> shard = make.get();
+			for (int i = 0; i < SHARD_SIZE; i++) shard.insert(new HeapNode<Integer>(i, rand.nextDouble()));
+			shards.add(shard);
+		}
+
+		MinHeap<Integer> target = shards.get(0);
+		long start = System.nanoTime();
+		for (int s = 1; s < SHARDS; s++) {
+			MinHeap<Integer> shard = shards.get(s);
+			if (meld) target.meld(shard);
+			else {
+				while (!shard.isEmpty()) target.insert(shard.extractMin());
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+
+		if (target.size() != SHARDS * SHARD_SIZE) throw new IllegalStateException("lost nodes");
+		return elapsed;
+	}
+
+	public static void main(String[] args)
+	{
+		Random rand = new Random(361);
+
+		List<Supplier<MinHeap<Integer>>> heaps = new ArrayList<Supplier<MinHeap<Integer>>>();
+		heaps.add(ClassicMinHeap::new);
+		heaps.add(SortedListMinHeap::new);
+		heaps.add(UnsortedListMinHeap::new);
+		heaps.add(PairingMinHeap::new);
+		heaps.add(FibonacciMinHeap::new);
+
+		System.out.println("Merging " + SHARDS + " heaps of " + SHARD_SIZE + " keys, best of " + ROUNDS + " rounds");
+		for (Supplier<MinHeap<Integer>> make : heaps) {
+			String name = make.get().getClass().getSimpleName();
+
+			long drain = Long.MAX_VALUE;
+			long meld = Long.MAX_VALUE;
+			for (int round = 0; round < ROUNDS; round++) {
+				// extracting from an unsorted list is quadratic; time one round of it
+				if (round == 0 || !name.startsWith("Unsorted")) drain = Math.min(drain, merge(make, false, rand));
+				meld = Math.min(meld, merge(make, true, rand));
+			}
+
+			System.out.printf("\t%-20s extractMin + insert %9.1f ms, meld %7.2f ms%n", name, drain / 1e6, meld / 1e6);
+		}
+	}
+}
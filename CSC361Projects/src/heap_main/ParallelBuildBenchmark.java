@@ -0,0 +1,69 @@
+/**
+ * Times ClassicMinHeap.build against parallelBuild on fork-join pools of
+ * increasing parallelism, at the sizes used by Main and larger. Reports the
+ * best of several runs and the speedup over build; a pool with more threads
+ * than the machine has cores can only show the cost of forking.
+ *
+ * Run with a large heap, e.g. -Xms3g -Xmx3g, so that GC does not dominate.
+ *
+ * @author Michael Peeler
+ */
+
+package heap_main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import heap.ClassicMinHeap;
+
+public class ParallelBuildBenchmark
+{
+	private static final int[] ELEMENT_COUNT = {200000, 500000, 5000000};
+	private static final int[] PARALLELISM = {1, 2, 4, 8};
+	private static final int RUNS = 5;
+
+	public static void main(String[] args)
+	{
+		Random rand = new Random(361);
+		System.out.println(Runtime.getRuntime().availableProcessors() + " cores");
+
+		for (int n : ELEMENT_COUNT) {
+			List<Integer> values = new ArrayList<Integer>();
+			List<Double> keys = new ArrayList<Double>();
+			for (int i = 0; i < n; i++) {
+				values.add(i);
+				keys.add(rand.nextDouble());
+			}
+
+			ClassicMinHeap<Integer> heap = new ClassicMinHeap<Integer>();
+			long sequential = Long.MAX_VALUE;
+			for (int run = 0; run < RUNS; run++) {
+				System.gc();
+				long start = System.nanoTime();
+				heap.build(values, keys);
+				sequential = Math.min(sequential, System.nanoTime() - start);
+			}
+
+			System.out.println(n + " Elements");
+			System.out.printf("\tbuild:                    %7.1f ms%n", sequential / 1e6);
+
+			for (int threads : PARALLELISM) {
+				ForkJoinPool pool = new ForkJoinPool(threads);
+				long parallel = Long.MAX_VALUE;
+				for (int run = 0; run < RUNS; run++) {
+					System.gc();
+					long start = System.nanoTime();
+					heap.parallelBuild(values, keys, pool);
+					parallel = Math.min(parallel, System.nanoTime() - start);
+				}
+				pool.shutdown();
+
+				System.out.printf("\tparallelBuild, %d threads: %7.1f ms, speedup %.2f%n",
+				                  threads, parallel / 1e6, (double) sequential / parallel);
+			}
+			heap.clear();
+		}
+	}
+}
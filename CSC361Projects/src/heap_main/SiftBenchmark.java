@@ -0,0 +1,87 @@
+/**
+ * Measures insert and extractMin throughput of ClassicMinHeap and of DaryMinHeap
+ * (d = 4) on heaps of a thousand to a million keys, either random or drawn from
+ * 16 values: every key is inserted, then every node extracted, over several
+ * rounds; the best round is reported, in nanoseconds per operation. Insert
+ * exercises swim and extractMin exercises sink. Small heaps stay in cache, so
+ * they show the cost of comparing nodes; a million nodes mostly shows the cost
+ * of reaching them.
+ *
+ * <p>Bugs: None noted
+ *
+ * @author Michael Peeler
+ */
+
+package heap_main;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+import heap.ClassicMinHeap;
+import heap.DaryMinHeap;
+import heap.HeapNode;
+import heap.MinHeap;
+
+public class SiftBenchmark
+{
+	private static final int[] KEYS = {1000, 10000, 1000000};
+	private static final int OPS_PER_ROUND = 4000000;
+	private static final int ROUNDS = 7;
+
+	private static double _checksum;
+
+	// inserts and then extracts every node, enough times for OPS_PER_ROUND of each, per round
+	private static void run(String label, MinHeap<Integer> heap, HeapNode<Integer>[] nodes) {
+		int repeats = Math.max(1, OPS_PER_ROUND / nodes.length);
+		long ops = (long) repeats * nodes.length;
+
+		long bestInsert = Long.MAX_VALUE;
+		long bestExtract = Long.MAX_VALUE;
+
+		for (int round = 0; round < ROUNDS; round++) {
+			long insert = 0;
+			long extract = 0;
+			for (int r = 0; r < repeats; r++) {
+				long start = System.nanoTime();
+				for (HeapNode<Integer> node : nodes) heap.insert(node);
+				insert += System.nanoTime() - start;
+
+				start = System.nanoTime();
+				while (!heap.isEmpty()) _checksum += heap.extractMin()._key;
+				extract += System.nanoTime() - start;
+			}
+			bestInsert = Math.min(bestInsert, insert);
+			bestExtract = Math.min(bestExtract, extract);
+		}
+
+		System.out.printf("\t%-28s insert %6.1f ns/op, extractMin %6.1f ns/op%n",
+		                  label, (double) bestInsert / ops, (double) bestExtract / ops);
+	}
+
+	// runs every size and key distribution on fresh heaps from make
+	@SuppressWarnings("unchecked")
+	private static void runAll(String name, Supplier<MinHeap<Integer>> make)
+	{
+		Random rand = new Random(361);
+		System.out.println(name + ", best of " + ROUNDS + " rounds");
+
+		for (int n : KEYS) {
+			HeapNode<Integer>[] distinct = (HeapNode<Integer>[]) new HeapNode[n];
+			HeapNode<Integer>[] repeated = (HeapNode<Integer>[]) new HeapNode[n];
+			for (int i = 0; i < n; i++) {
+				distinct[i] = new HeapNode<Integer>(i, rand.nextDouble());
+				repeated[i] = new HeapNode<Integer>(i, rand.nextInt(16));
+			}
+
+			run(n + " random keys", make.get(), distinct);
+			run(n + " keys, 16 distinct", make.get(), repeated);
+		}
+	}
+
+	public static void main(String[] args)
+	{
+		runAll("ClassicMinHeap", ClassicMinHeap::new);
+		runAll("DaryMinHeap, d = 4", () -> new DaryMinHeap<Integer>(4));
+		System.out.println("(checksum " + (long) _checksum + ")");
+	}
+}
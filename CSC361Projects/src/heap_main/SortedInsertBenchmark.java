@@ -0,0 +1,104 @@
+/**
+ * Times the operations of SortedListMinHeap that place a node in the sorted
+ * array, at the sizes used by Main: inserting random keys into an empty heap
+ * until it holds n nodes, inserting keys just below the current minimum into
+ * a heap of n nodes, and lowering the keys of random nodes in a heap of n.
+ *
+ * <p>Bugs: None noted
+ *
+ * @author Michael Peeler
+ */
+
+package heap_main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import heap.HeapNode;
+import heap.SortedListMinHeap;
+
+public class SortedInsertBenchmark
+{
+	private static final int[] ELEMENT_COUNT = {50000, 100000, 200000};
+	private static final int OPS = 20000;
+	private static final int ROUNDS = 5;
+
+	private static double _checksum;
+
+	// n random inserts into an empty heap; returns the elapsed nanoseconds
+	private static long randomInserts(int n, Random rand) {
+		SortedListMinHeap<Integer> heap = new SortedListMinHeap<Integer>();
+		long start = System.nanoTime();
+		for (int i = 0; i < n; i++) heap.insert(new HeapNode<Integer>(i, rand.nextDouble()));
+		long elapsed = System.nanoTime() - start;
+		_checksum += heap.peekMin()._key;
+		return elapsed;
+	}
+
+	// OPS inserts, each just below the current minimum, into a heap of n nodes
+	private static long clusteredInserts(int n, Random rand) {
+		SortedListMinHeap<Integer> heap = build(n, rand);
+		long start = System.nanoTime();
+		for (int i = 0; i < OPS; i++) {
+			heap.insert(new HeapNode<Integer>(n + i, -i - rand.nextDouble()));
+		}
+		long elapsed = System.nanoTime() - start;
+		_checksum += heap.peekMin()._key;
+		return elapsed;
+	}
+
+	// OPS decreaseKeys on random nodes of a heap of n nodes
+	private static long decreaseKeys(int n, Random rand) {
+		List<HeapNode<Integer>> nodes = new ArrayList<HeapNode<Integer>>();
+		SortedListMinHeap<Integer> heap = new SortedListMinHeap<Integer>();
+		for (int i = 0; i < n; i++) {
+			HeapNode<Integer> node = new HeapNode<Integer>(i, rand.nextDouble());
+			nodes.add(node);
+			heap.insert(node);
+		}
+
+		long start = System.nanoTime();
+		for (int i = 0; i < OPS; i++) {
+			HeapNode<Integer> node = nodes.get(rand.nextInt(n));
+			heap.decreaseKey(node, node._key * rand.nextDouble());
+		}
+		long elapsed = System.nanoTime() - start;
+		_checksum += heap.peekMin()._key;
+		return elapsed;
+	}
+
+	private static SortedListMinHeap<Integer> build(int n, Random rand) {
+		List<Integer> values = new ArrayList<Integer>();
+		List<Double> keys = new ArrayList<Double>();
+		for (int i = 0; i < n; i++) {
+			values.add(i);
+			keys.add(rand.nextDouble());
+		}
+		SortedListMinHeap<Integer> heap = new SortedListMinHeap<Integer>();
+		heap.build(values, keys);
+		return heap;
+	}
+
+	public static void main(String[] args)
+	{
+		Random rand = new Random(361);
+		System.out.println("SortedListMinHeap, best of " + ROUNDS + " rounds");
+
+		for (int n : ELEMENT_COUNT) {
+			long random = Long.MAX_VALUE;
+			long clustered = Long.MAX_VALUE;
+			long decrease = Long.MAX_VALUE;
+
+			for (int round = 0; round < ROUNDS; round++) {
+				random = Math.min(random, randomInserts(n, rand));
+				clustered = Math.min(clustered, clusteredInserts(n, rand));
+				decrease = Math.min(decrease, decreaseKeys(n, rand));
+			}
+
+			System.out.printf("\t%7d: random insert %8.1f ns/op, insert near min %6.1f ns/op, decreaseKey %8.1f ns/op%n",
+			                  n, (double) random / n, (double) clustered / OPS, (double) decrease / OPS);
+		}
+		System.out.println("(checksum " + _checksum + ")");
+	}
+}
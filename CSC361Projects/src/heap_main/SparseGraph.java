@@ -0,0 +1,41 @@
+/**
+ * A random directed graph in compressed adjacency form, for the shortest-path
+ * benchmarks: every vertex has the same out-degree, with targets chosen
+ * uniformly at random and weights uniform in [0, 1).
+ *
+ * <p>Bugs: None noted
+ *
+ * @author Michael Peeler
+ */
+
+package heap_main;
+
+import java.util.Random;
+
+public class SparseGraph
+{
+	// The edges of v are _targets / _weights [_first[v], _first[v + 1])
+	public final int      _vertices;
+	public final int[]    _first;
+	public final int[]    _targets;
+	public final double[] _weights;
+
+	public SparseGraph(int vertices, int degree, long seed)
+	{
+		Random rand = new Random(seed);
+		_vertices = vertices;
+		_first = new int[vertices + 1];
+		_targets = new int[vertices * degree];
+		_weights = new double[vertices * degree];
+
+		for (int v = 0; v < vertices; v++) {
+			_first[v + 1] = _first[v] + degree;
+			for (int e = _first[v]; e < _first[v + 1]; e++) {
+				_targets[e] = rand.nextInt(vertices);
+				_weights[e] = rand.nextDouble();
+			}
+		}
+	}
+
+	public int edges() { return _targets.length; }
+}
@@ -0,0 +1,123 @@
+/**
+ * Times keeping the K smallest keys of a stream of random keys: by inserting
+ * every key into a ClassicMinHeap and extracting K, and with TopKSelector,
+ * offered one key at a time, in one batch, and in per-thread batches whose
+ * selectors are then combined with mergeAll.
+ *
+ * Run with a large heap, e.g. -Xms3g -Xmx3g, so that GC does not dominate.
+ *
+ * @author Michael Peeler
+ */
+
+package heap_main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.LongSupplier;
+
+import heap.ClassicMinHeap;
+import heap.HeapNode;
+import heap.MinHeap;
+import heap.TopKSelector;
+
+public class TopKBenchmark
+{
+	private static final int STREAM = 5000000;
+	private static final int[] K = {100, 10000};
+	private static final int RUNS = 5;
+	private static final int THREADS = 4;
+
+	private static double[] _keys;
+	private static Integer[] _values;
+
+	// the stream cut into THREADS slices, as if each thread had its own
+	private static double[][] _sliceKeys = new double[THREADS][];
+	private static Integer[][] _sliceValues = new Integer[THREADS][];
+	private static double _checksum;
+
+	private static long classic(int k) {
+		long start = System.nanoTime();
+		MinHeap<Integer> heap = new ClassicMinHeap<Integer>();
+		for (int i = 0; i < STREAM; i++) heap.insert(new HeapNode<Integer>(_values[i], _keys[i]));
+		for (int i = 0; i < k; i++) _checksum += heap.extractMin()._key;
+		return System.nanoTime() - start;
+	}
+
+	private static long offerEach(int k) {
+		long start = System.nanoTime();
+		TopKSelector<Integer> selector = new TopKSelector<Integer>(k);
+		for (int i = 0; i < STREAM; i++) selector.offer(_keys[i], _values[i]);
+		_checksum += selector.threshold();
+		return System.nanoTime() - start;
+	}
+
+	private static long offerBatch(int k) {
+		long start = System.nanoTime();
+		TopKSelector<Integer> selector = new TopKSelector<Integer>(k);
+		selector.offer(_keys, _values);
+		_checksum += selector.threshold();
+		return System.nanoTime() - start;
+	}
+
+	// one selector per slice, each offered on its own pool thread, then merged
+	private static long perThread(int k, ForkJoinPool pool) {
+		long start = System.nanoTime();
+
+		List<TopKSelector<Integer>> selectors = new ArrayList<TopKSelector<Integer>>();
+		List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>();
+		for (int t = 0; t < THREADS; t++) {
+			TopKSelector<Integer> selector = new TopKSelector<Integer>(k);
+			int slice = t;
+			selectors.add(selector);
+			tasks.add(pool.submit(() -> selector.offer(_sliceKeys[slice], _sliceValues[slice])));
+		}
+		for (ForkJoinTask<?> task : tasks) task.join();
+
+		_checksum += TopKSelector.mergeAll(selectors, pool).threshold();
+		return System.nanoTime() - start;
+	}
+
+	private static void time(String label, LongSupplier run) {
+		long best = Long.MAX_VALUE;
+		for (int r = 0; r < RUNS; r++) {
+			System.gc();
+			best = Math.min(best, run.getAsLong());
+		}
+		System.out.printf("\t%-28s %8.1f ms%n", label, best / 1e6);
+	}
+
+	public static void main(String[] args)
+	{
+		Random rand = new Random(361);
+		_keys = new double[STREAM];
+		_values = new Integer[STREAM];
+		for (int i = 0; i < STREAM; i++) {
+			_keys[i] = rand.nextDouble();
+			_values[i] = i;
+		}
+
+		for (int t = 0; t < THREADS; t++) {
+			int from = (int) ((long) STREAM * t / THREADS);
+			int to = (int) ((long) STREAM * (t + 1) / THREADS);
+			_sliceKeys[t] = Arrays.copyOfRange(_keys, from, to);
+			_sliceValues[t] = Arrays.copyOfRange(_values, from, to);
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(THREADS);
+		System.out.println(STREAM + " keys, " + Runtime.getRuntime().availableProcessors() + " cores, best of " + RUNS);
+
+		for (int k : K) {
+			System.out.println("K = " + k);
+			time("ClassicMinHeap insert all", () -> classic(k));
+			time("TopKSelector offer", () -> offerEach(k));
+			time("TopKSelector offer batch", () -> offerBatch(k));
+			time(THREADS + " selectors + mergeAll", () -> perThread(k, pool));
+		}
+		pool.shutdown();
+		System.out.println("(checksum " + _checksum + ")");
+	}
+}
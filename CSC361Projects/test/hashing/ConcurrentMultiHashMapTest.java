@@ -0,0 +1,149 @@
+package hashing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the MultiHashMap suite against the lock-striped map, then stresses
+ * it from several threads at once.
+ */
+class ConcurrentMultiHashMapTest extends MultiHashMapTest
+{
+	private static final String[] VALUES = {"a", "b", "c", "d", "e", "f", "g", "h", "i", "j"};
+	private static final int THREADS = 8;
+	private static final int KEYS_PER_THREAD = 5000;
+
+	@Override
+	protected MultiMap<Integer, String> createMap()
+	{
+		return new ConcurrentMultiHashMap<Integer, String>();
+	}
+
+	@Override
+	protected boolean viewsAreSnapshots()
+	{
+		return true;
+	}
+
+	// Starts every task together and waits for all of them; rethrows the first failure
+	private static void runConcurrently(List<Runnable> tasks) throws InterruptedException
+	{
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		List<Thread> threads = new ArrayList<Thread>();
+
+		for (Runnable task : tasks)
+		{
+			Thread t = new Thread(() -> {
+				try
+				{
+					start.await();
+					task.run();
+				}
+				catch (Throwable e)
+				{
+					failure.compareAndSet(null, e);
+				}
+			});
+			threads.add(t);
+			t.start();
+		}
+
+		start.countDown();
+		for (Thread t : threads) t.join();
+
+		if (failure.get() != null) throw new AssertionError(failure.get());
+	}
+
+	@Test
+	void test_concurrent_puts_and_deletes() throws InterruptedException
+	{
+		ConcurrentMultiHashMap<Integer, String> map = new ConcurrentMultiHashMap<Integer, String>(16);
+
+		//
+		// Every thread owns a key range and also hammers a set of shared keys;
+		// duplicates of shared pairs must still be stored only once.
+		//
+		List<Runnable> writers = new ArrayList<Runnable>();
+		for (int t = 0; t < THREADS; t++)
+		{
+			final int first = t * KEYS_PER_THREAD;
+			writers.add(() -> {
+				for (int KEY = first; KEY < first + KEYS_PER_THREAD; KEY++)
+				{
+					for (String value : VALUES) map.put(KEY, value);
+					map.put(-1 - (KEY % 100), VALUES[(KEY / 100) % VALUES.length]);
+				}
+			});
+		}
+		runConcurrently(writers);
+
+		assertEquals(THREADS * KEYS_PER_THREAD * VALUES.length + 100 * VALUES.length, map.size());
+		for (int KEY = 0; KEY < THREADS * KEYS_PER_THREAD; KEY++)
+		{
+			for (String value : VALUES) assertTrue(map.containsPair(KEY, value));
+		}
+
+		//
+		// Now delete every owned key while readers check the shared keys are untouched
+		//
+		AtomicBoolean done = new AtomicBoolean(false);
+		List<Runnable> mixed = new ArrayList<Runnable>();
+		for (int t = 0; t < THREADS; t++)
+		{
+			final int first = t * KEYS_PER_THREAD;
+			mixed.add(() -> {
+				for (int KEY = first; KEY < first + KEYS_PER_THREAD; KEY++)
+				{
+					map.delete(KEY, "a");
+					map.deleteAll(KEY);
+				}
+			});
+		}
+		for (int t = 0; t < 2; t++)
+		{
+			mixed.add(() -> {
+				while (!done.get())
+				{
+					for (int KEY = -100; KEY <= -1; KEY++)
+					{
+						int count = 0;
+						for (String value : map.getAll(KEY)) count++;
+						assertEquals(VALUES.length, count);
+					}
+				}
+			});
+		}
+		mixed.add(() -> {
+			try { Thread.sleep(200); } catch (InterruptedException e) { }
+			done.set(true);
+		});
+		runConcurrently(mixed);
+
+		assertEquals(100 * VALUES.length, map.size());
+		int keyCount = 0;
+		for (Integer key : map.keySet())
+		{
+			assertTrue(key < 0);
+			keyCount++;
+		}
+		assertEquals(100, keyCount);
+	}
+
+	@Test
+	void test_single_segment()
+	{
+		ConcurrentMultiHashMap<Integer, String> map = new ConcurrentMultiHashMap<Integer, String>(1);
+
+		for (int KEY = 0; KEY < 1000; KEY++) map.put(KEY, "a");
+		assertEquals(1000, map.size());
+		assertTrue(map.containsPair(999, "a"));
+	}
+}
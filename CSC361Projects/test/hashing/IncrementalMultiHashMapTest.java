@@ -0,0 +1,67 @@
+package hashing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the MultiHashMap suite with incremental rehashing enabled, plus
+ * checks that every pair stays visible while a resize is half-finished.
+ */
+class IncrementalMultiHashMapTest extends MultiHashMapTest
+{
+	@Override
+	protected MultiMap<Integer, String> createMap()
+	{
+		return new MultiHashMap<Integer, String>(4, true);
+	}
+
+	@Test
+	void test_lookups_during_rehash()
+	{
+		MultiMap<Integer, String> map = createMap();
+		List<String> values = Arrays.asList("a", "b", "c");
+		final int LAST_KEY = 5000;
+
+		//
+		// SIZING UP: every earlier pair must remain reachable after each put
+		//
+		for (int KEY = 1; KEY <= LAST_KEY; KEY++)
+		{
+			for (String value : values) map.put(KEY, value);
+
+			if (KEY % 250 == 0)
+			{
+				for (int k = 1; k <= KEY; k++)
+				{
+					assertTrue(map.contains(k));
+					for (String value : values) assertTrue(map.containsPair(k, value));
+				}
+			}
+		}
+		assertEquals(values.size() * LAST_KEY, map.size());
+
+		//
+		// SIZING DOWN: and every remaining pair after each delete
+		//
+		for (int KEY = 1; KEY <= LAST_KEY; KEY++)
+		{
+			map.delete(KEY, "a");
+			map.deleteAll(KEY);
+
+			if (KEY % 250 == 0)
+			{
+				for (int k = KEY + 1; k <= LAST_KEY; k++)
+				{
+					for (String value : values) assertTrue(map.containsPair(k, value));
+				}
+				assertFalse(map.contains(KEY));
+			}
+		}
+		assertEquals(0, map.size());
+		assertTrue(map.isEmpty());
+	}
+}
@@ -0,0 +1,100 @@
+package hashing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class IntIntMultiMapTest
+{
+	@Test
+	void test_basic()
+	{
+		IntIntMultiMap map = new IntIntMultiMap();
+
+		// 0 and negative numbers are ordinary keys
+		map.put(0, 1);
+		map.put(0, 2);
+		map.put(-5, 1);
+		map.put(Integer.MAX_VALUE, 7);
+		map.put(0, 1);
+
+		assertEquals(4, map.size());
+		assertTrue(map.contains(0));
+		assertTrue(map.contains(-5));
+		assertFalse(map.contains(5));
+		assertTrue(map.containsPair(0, 2));
+		assertFalse(map.containsPair(-5, 2));
+
+		int[] values = map.getAll(0);
+		Arrays.sort(values);
+		assertEquals("[1, 2]", Arrays.toString(values));
+		assertEquals(0, map.getAll(42).length);
+
+		int[] keys = map.keys();
+		Arrays.sort(keys);
+		assertEquals("[-5, 0, " + Integer.MAX_VALUE + "]", Arrays.toString(keys));
+
+		int[] sum = new int[1];
+		map.forEachValue(0, v -> sum[0] += v);
+		assertEquals(3, sum[0]);
+
+		map.delete(0, 1);
+		map.delete(0, 5);
+		assertEquals(3, map.size());
+		assertFalse(map.containsPair(0, 1));
+
+		map.deleteAll(0);
+		assertFalse(map.contains(0));
+		assertEquals(2, map.size());
+	}
+
+	@Test
+	void test_matches_reference()
+	{
+		IntIntMultiMap map = new IntIntMultiMap();
+		Map<Integer, Set<Integer>> reference = new HashMap<Integer, Set<Integer>>();
+		Random random = new Random(361);
+		int size = 0;
+
+		for (int op = 0; op < 200000; op++)
+		{
+			int key = random.nextInt(3000) - 1000;
+			int value = random.nextInt(8);
+			Set<Integer> values = reference.computeIfAbsent(key, k -> new HashSet<Integer>());
+
+			switch (random.nextInt(5))
+			{
+			case 0:
+			case 1:
+			case 2:
+				map.put(key, value);
+				if (values.add(value)) size++;
+				break;
+			case 3:
+				map.delete(key, value);
+				if (values.remove(value)) size--;
+				break;
+			default:
+				map.deleteAll(key);
+				size -= values.size();
+				values.clear();
+			}
+
+			assertEquals(size, map.size());
+			assertEquals(!values.isEmpty(), map.contains(key));
+			assertEquals(values.contains(value), map.containsPair(key, value));
+			assertEquals(values.size(), map.getAll(key).length);
+		}
+
+		int distinct = 0;
+		for (Set<Integer> values : reference.values()) if (!values.isEmpty()) distinct++;
+		assertEquals(distinct, map.keys().length);
+	}
+}
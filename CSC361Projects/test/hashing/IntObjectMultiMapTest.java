@@ -0,0 +1,116 @@
+package hashing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class IntObjectMultiMapTest
+{
+	private static final String[] VALUES = {"a", "b", "c", "d", "e", "f", "g", "h"};
+
+	@Test
+	void test_basic()
+	{
+		IntObjectMultiMap<String> map = new IntObjectMultiMap<String>();
+
+		// 0 and negative numbers are ordinary keys
+		map.put(0, "a");
+		map.put(0, "b");
+		map.put(-5, "a");
+		map.put(Integer.MIN_VALUE, "z");
+		map.put(0, "a");
+
+		assertEquals(4, map.size());
+		assertTrue(map.contains(0));
+		assertTrue(map.contains(Integer.MIN_VALUE));
+		assertFalse(map.contains(5));
+		assertTrue(map.containsPair(0, "b"));
+		assertFalse(map.containsPair(-5, "b"));
+		assertThrows(IllegalArgumentException.class, () -> map.put(1, null));
+
+		Set<String> values = new HashSet<String>();
+		for (String value : map.getAll(0)) values.add(value);
+		assertEquals(new HashSet<String>(Arrays.asList("a", "b")), values);
+		assertFalse(map.getAll(42).iterator().hasNext());
+
+		int[] keys = map.keys();
+		Arrays.sort(keys);
+		assertEquals("[" + Integer.MIN_VALUE + ", -5, 0]", Arrays.toString(keys));
+
+		map.delete(0, "a");
+		map.delete(0, "q");
+		assertEquals(3, map.size());
+
+		map.deleteAll(0);
+		assertFalse(map.contains(0));
+		assertEquals(2, map.size());
+	}
+
+	@Test
+	void test_get_all_fails_fast()
+	{
+		IntObjectMultiMap<String> map = new IntObjectMultiMap<String>();
+		map.put(1, "a");
+		map.put(1, "b");
+
+		Iterator<String> values = map.getAll(1).iterator();
+		values.next();
+		map.put(2, "c");
+		assertThrows(ConcurrentModificationException.class, () -> values.next());
+	}
+
+	@Test
+	void test_matches_reference()
+	{
+		IntObjectMultiMap<String> map = new IntObjectMultiMap<String>();
+		Map<Integer, Set<String>> reference = new HashMap<Integer, Set<String>>();
+		Random random = new Random(361);
+		int size = 0;
+
+		for (int op = 0; op < 200000; op++)
+		{
+			int key = random.nextInt(3000) - 1000;
+			String value = VALUES[random.nextInt(VALUES.length)];
+			Set<String> values = reference.computeIfAbsent(key, k -> new HashSet<String>());
+
+			switch (random.nextInt(5))
+			{
+			case 0:
+			case 1:
+			case 2:
+				map.put(key, value);
+				if (values.add(value)) size++;
+				break;
+			case 3:
+				map.delete(key, value);
+				if (values.remove(value)) size--;
+				break;
+			default:
+				map.deleteAll(key);
+				size -= values.size();
+				values.clear();
+			}
+
+			assertEquals(size, map.size());
+			assertEquals(!values.isEmpty(), map.contains(key));
+			assertEquals(values.contains(value), map.containsPair(key, value));
+
+			int count = 0;
+			for (@SuppressWarnings("unused") String v : map.getAll(key)) count++;
+			assertEquals(values.size(), count);
+		}
+
+		int distinct = 0;
+		for (Set<String> values : reference.values()) if (!values.isEmpty()) distinct++;
+		assertEquals(distinct, map.keys().length);
+	}
+}
@@ -2,8 +2,14 @@ package hashing;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.math.BigDecimal;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 
@@ -221,4 +227,223 @@ class LinkedMultiMapTest
 		}
 		assertEquals(valuesFor3.size(), valueCount);
 	}
+
+	@Test
+	void test_hot_key()
+	{
+		LinkedMultiMap<Integer, Integer> map = new LinkedMultiMap<Integer, Integer>();
+		final int VALUES = 5000;
+
+		for (int v = 0; v < VALUES; v++)
+		{
+			map.put(1, v);
+			map.put(2, v);
+		}
+		assertEquals(2 * VALUES, map.size());
+
+		for (int v = 0; v < VALUES; v += 2) map.delete(1, v);
+		assertEquals(VALUES + VALUES / 2, map.size());
+
+		int valueCount = 0;
+		for (int value : map.getAll(1))
+		{
+			assertEquals(1, value % 2);
+			valueCount++;
+		}
+		assertEquals(VALUES / 2, valueCount);
+
+		// Removing the last value of a key removes the key itself
+		for (int v = 1; v < VALUES; v += 2) map.delete(1, v);
+		assertFalse(map.contains(1));
+		assertTrue(map.contains(2));
+
+		map.deleteAll(2);
+		assertTrue(map.isEmpty());
+		assertFalse(map.keySet().iterator().hasNext());
+	}
+
+	@Test
+	void test_long_chain()
+	{
+		LinkedMultiMap<Integer, String> map = new LinkedMultiMap<Integer, String>();
+		List<Map.Entry<Integer, String>> pairs = new ArrayList<Map.Entry<Integer, String>>();
+		final int KEYS = 200000;
+
+		for (int KEY = 0; KEY < KEYS; KEY++)
+		{
+			pairs.add(new SimpleEntry<Integer, String>(KEY, "a"));
+			pairs.add(new SimpleEntry<Integer, String>(KEY, "b"));
+		}
+		map.putAll(pairs);
+		map.putAll(pairs);
+		assertEquals(2 * KEYS, map.size());
+
+		// Keys are linked in at the front, so key 0 is at the far end of the
+		// list; deleting it once recursed through every node
+		map.delete(0, "a");
+		map.delete(0, "b");
+		map.deleteAll(1);
+		assertFalse(map.contains(0));
+		assertFalse(map.contains(1));
+		assertEquals(2 * KEYS - 4, map.size());
+	}
+
+	@Test
+	void test_put_all_null_midway()
+	{
+		LinkedMultiMap<Integer, String> map = new LinkedMultiMap<Integer, String>();
+		map.put(0, "a");
+		Iterator<Integer> keys = map.keySet().iterator();
+
+		List<Map.Entry<Integer, String>> pairs = new ArrayList<Map.Entry<Integer, String>>();
+		pairs.add(new SimpleEntry<Integer, String>(1, "b"));
+		pairs.add(new SimpleEntry<Integer, String>(2, null));
+		assertThrows(IllegalArgumentException.class, () -> map.putAll(pairs));
+
+		// the pair before the null was added, and open iterators see the change
+		assertTrue(map.containsPair(1, "b"));
+		assertEquals(2, map.size());
+		assertThrows(ConcurrentModificationException.class, () -> keys.hasNext());
+	}
+
+	@Test
+	void test_delete_if()
+	{
+		LinkedMultiMap<Integer, Integer> map = new LinkedMultiMap<Integer, Integer>();
+		final int KEYS = 100;
+		final int VALUES = 20;
+
+		for (int KEY = 0; KEY < KEYS; KEY++)
+		{
+			for (int v = 0; v < VALUES; v++) map.put(KEY, v);
+		}
+
+		// odd values everywhere, and every value of keys divisible by 10
+		int removed = map.deleteIf((key, value) -> value % 2 == 1 || key % 10 == 0);
+		assertEquals(KEYS * VALUES / 2 + (KEYS / 10) * VALUES / 2, removed);
+		assertEquals(KEYS * VALUES - removed, map.size());
+
+		for (int KEY = 0; KEY < KEYS; KEY++)
+		{
+			assertEquals(KEY % 10 != 0, map.contains(KEY));
+			for (int v = 0; v < VALUES; v++) assertEquals(KEY % 10 != 0 && v % 2 == 0, map.containsPair(KEY, v));
+		}
+
+		int keys = 0;
+		for (@SuppressWarnings("unused") Integer key : map.keySet()) keys++;
+		assertEquals(KEYS - KEYS / 10, keys);
+
+		assertEquals(0, map.deleteIf((key, value) -> false));
+		assertThrows(IllegalArgumentException.class, () -> map.deleteIf(null));
+	}
+
+	// A Comparable key whose hash codes all collide
+	static final class BadKey implements Comparable<BadKey>
+	{
+		final int _id;
+
+		BadKey(int id) { _id = id; }
+
+		@Override
+		public int hashCode() { return 42; }
+
+		@Override
+		public boolean equals(Object other) { return other instanceof BadKey && ((BadKey) other)._id == _id; }
+
+		@Override
+		public int compareTo(BadKey other) { return Integer.compare(_id, other._id); }
+	}
+
+	@Test
+	void test_treeified_chain()
+	{
+		LinkedMultiMap<Object, Integer> map = new LinkedMultiMap<Object, Integer>(true);
+		final int KEYS = 1000;
+
+		for (int KEY = 0; KEY < KEYS; KEY++)
+		{
+			map.put(new BadKey(KEY), KEY);
+			map.put(new BadKey(KEY), KEYS + KEY);
+		}
+		// keys of another class share the chain, but not the tree
+		for (int KEY = 0; KEY < KEYS; KEY += 100) map.put(KEY, KEY);
+		assertEquals(2 * KEYS + KEYS / 100, map.size());
+
+		for (int KEY = 0; KEY < KEYS; KEY++)
+		{
+			assertTrue(map.containsPair(new BadKey(KEY), KEY));
+			assertEquals(KEY % 100 == 0, map.contains(KEY));
+		}
+		assertFalse(map.contains(new BadKey(KEYS)));
+
+		for (int KEY = 0; KEY < KEYS; KEY += 2) map.deleteAll(new BadKey(KEY));
+		for (int KEY = 0; KEY < KEYS; KEY += 100) map.delete(KEY, KEY);
+		assertEquals(KEYS, map.size());
+
+		for (int KEY = 0; KEY < KEYS; KEY++) assertEquals(KEY % 2 == 1, map.contains(new BadKey(KEY)));
+
+		// shrinking below the threshold falls back to the list alone
+		for (int KEY = 1; KEY < KEYS - 4; KEY += 2) map.deleteAll(new BadKey(KEY));
+		assertEquals(4, map.size());
+		assertTrue(map.containsPair(new BadKey(KEYS - 1), 2 * KEYS - 1));
+		assertFalse(map.contains(new BadKey(1)));
+	}
+
+	@Test
+	void test_treeified_chain_compare_ties()
+	{
+		// 1.0 and 1.00 tie with 1 under compareTo, but are not equal to it
+		LinkedMultiMap<BigDecimal, Integer> map = new LinkedMultiMap<BigDecimal, Integer>(true);
+		for (int KEY = 0; KEY < 10; KEY++) map.put(BigDecimal.valueOf(KEY), KEY);
+		map.put(new BigDecimal("1.0"), 100);
+		map.put(new BigDecimal("1.00"), 200);
+		assertEquals(12, map.size());
+
+		List<Integer> values = new ArrayList<Integer>();
+		map.getAll(new BigDecimal("1.0")).forEach(values::add);
+		assertEquals(Arrays.asList(100), values);
+		assertTrue(map.containsPair(new BigDecimal("1.00"), 200));
+		assertFalse(map.containsPair(BigDecimal.ONE, 100));
+		assertFalse(map.contains(new BigDecimal("1.000")));
+
+		int keys = 0;
+		for (BigDecimal key : map.keySet()) keys++;
+		assertEquals(12, keys);
+
+		// the key the tree indexes goes first; its ties are still found
+		map.deleteAll(BigDecimal.ONE);
+		assertFalse(map.contains(BigDecimal.ONE));
+		assertTrue(map.containsPair(new BigDecimal("1.0"), 100));
+		assertTrue(map.containsPair(new BigDecimal("1.00"), 200));
+
+		map.deleteAll(new BigDecimal("1.00"));
+		assertTrue(map.containsPair(new BigDecimal("1.0"), 100));
+		assertFalse(map.contains(new BigDecimal("1.00")));
+		assertEquals(10, map.size());
+	}
+
+	@Test
+	void test_treeified_chain_tie_entries()
+	{
+		// 1, 1.0, 1.00 and 1.000 all share one tree entry
+		LinkedMultiMap<BigDecimal, Integer> map = new LinkedMultiMap<BigDecimal, Integer>(true);
+		for (int KEY = 2; KEY < 12; KEY++) map.put(BigDecimal.valueOf(KEY), KEY);
+		for (int scale = 0; scale < 4; scale++) map.put(BigDecimal.ONE.setScale(scale), scale);
+		assertFalse(map.contains(new BigDecimal("1.0000")));
+
+		// drop the entry's first node and one from its middle
+		map.deleteAll(BigDecimal.ONE);
+		map.delete(new BigDecimal("1.00"), 2);
+		assertTrue(map.containsPair(new BigDecimal("1.0"), 1));
+		assertTrue(map.containsPair(new BigDecimal("1.000"), 3));
+		assertFalse(map.contains(BigDecimal.ONE));
+		assertFalse(map.contains(new BigDecimal("1.00")));
+
+		// shrink below the threshold and grow back: the ties are indexed afresh
+		for (int KEY = 2; KEY < 10; KEY++) map.deleteAll(BigDecimal.valueOf(KEY));
+		map.put(BigDecimal.ONE, 0);
+		for (int KEY = 2; KEY < 10; KEY++) map.put(BigDecimal.valueOf(KEY), KEY);
+		for (int scale = 0; scale < 4; scale++) assertEquals(scale != 2, map.contains(BigDecimal.ONE.setScale(scale)));
+		assertEquals(13, map.size());
+	}
 }
@@ -0,0 +1,100 @@
+package hashing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class LongLongMultiMapTest
+{
+	@Test
+	void test_basic()
+	{
+		LongLongMultiMap map = new LongLongMultiMap();
+
+		// 0 and negative numbers are ordinary keys
+		map.put(0, 1);
+		map.put(0, 2);
+		map.put(-5, 1);
+		map.put(Long.MAX_VALUE, 7);
+		map.put(0, 1);
+
+		assertEquals(4, map.size());
+		assertTrue(map.contains(0));
+		assertTrue(map.contains(-5));
+		assertFalse(map.contains(5));
+		assertTrue(map.containsPair(0, 2));
+		assertFalse(map.containsPair(-5, 2));
+
+		long[] values = map.getAll(0);
+		Arrays.sort(values);
+		assertEquals("[1, 2]", Arrays.toString(values));
+		assertEquals(0, map.getAll(42).length);
+
+		long[] keys = map.keys();
+		Arrays.sort(keys);
+		assertEquals("[-5, 0, " + Long.MAX_VALUE + "]", Arrays.toString(keys));
+
+		long[] sum = new long[1];
+		map.forEachValue(0, v -> sum[0] += v);
+		assertEquals(3, sum[0]);
+
+		map.delete(0, 1);
+		map.delete(0, 5);
+		assertEquals(3, map.size());
+		assertFalse(map.containsPair(0, 1));
+
+		map.deleteAll(0);
+		assertFalse(map.contains(0));
+		assertEquals(2, map.size());
+	}
+
+	@Test
+	void test_matches_reference()
+	{
+		LongLongMultiMap map = new LongLongMultiMap();
+		Map<Long, Set<Long>> reference = new HashMap<Long, Set<Long>>();
+		Random random = new Random(361);
+		int size = 0;
+
+		for (int op = 0; op < 200000; op++)
+		{
+			long key = random.nextInt(3000) - 1000;
+			long value = random.nextInt(8);
+			Set<Long> values = reference.computeIfAbsent(key, k -> new HashSet<Long>());
+
+			switch (random.nextInt(5))
+			{
+			case 0:
+			case 1:
+			case 2:
+				map.put(key, value);
+				if (values.add(value)) size++;
+				break;
+			case 3:
+				map.delete(key, value);
+				if (values.remove(value)) size--;
+				break;
+			default:
+				map.deleteAll(key);
+				size -= values.size();
+				values.clear();
+			}
+
+			assertEquals(size, map.size());
+			assertEquals(!values.isEmpty(), map.contains(key));
+			assertEquals(values.contains(value), map.containsPair(key, value));
+			assertEquals(values.size(), map.getAll(key).length);
+		}
+
+		int distinct = 0;
+		for (Set<Long> values : reference.values()) if (!values.isEmpty()) distinct++;
+		assertEquals(distinct, map.keys().length);
+	}
+}
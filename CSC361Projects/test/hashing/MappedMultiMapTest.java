@@ -0,0 +1,133 @@
+package hashing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the MultiHashMap suite against the memory-mapped implementation, then
+ * checks that a map survives being closed and reopened.
+ */
+class MappedMultiMapTest extends MultiHashMapTest
+{
+	private static final Codec<String> STRING = Codec.fixedString(8);
+
+	private static Path tempFile() throws IOException
+	{
+		Path file = Files.createTempFile("multimap", ".mmm");
+		file.toFile().deleteOnExit();
+		file.resolveSibling(file.getFileName() + ".resize").toFile().deleteOnExit();
+		Files.delete(file);
+		return file;
+	}
+
+	@Override
+	protected MultiMap<Integer, String> createMap()
+	{
+		try
+		{
+			return new MappedMultiMap<Integer, String>(tempFile(), Codec.INTEGER, STRING);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Test
+	void test_reopen() throws IOException
+	{
+		Path file = tempFile();
+		final int KEYS = 5000;
+
+		try (MappedMultiMap<Integer, String> map = new MappedMultiMap<Integer, String>(file, Codec.INTEGER, STRING))
+		{
+			for (int KEY = 0; KEY < KEYS; KEY++)
+			{
+				map.put(KEY, "a" + KEY);
+				if (KEY % 2 == 0) map.put(KEY, "b");
+			}
+			map.deleteAll(7);
+			map.delete(8, "b");
+		}
+
+		try (MappedMultiMap<Integer, String> map = new MappedMultiMap<Integer, String>(file, Codec.INTEGER, STRING))
+		{
+			assertEquals(KEYS + KEYS / 2 - 2, map.size());
+			assertFalse(map.contains(7));
+			assertTrue(map.containsPair(8, "a8"));
+			assertFalse(map.containsPair(8, "b"));
+			assertTrue(map.containsPair(4998, "b"));
+
+			Set<String> values = new HashSet<String>();
+			for (String value : map.getAll(10)) values.add(value);
+			assertEquals(Set.of("a10", "b"), values);
+
+			int keys = 0;
+			for (@SuppressWarnings("unused") Integer key : map.keySet()) keys++;
+			assertEquals(KEYS - 1, keys);
+
+			// the reopened map keeps working, including growing
+			for (int KEY = KEYS; KEY < 2 * KEYS; KEY++) map.put(KEY, "c");
+			assertEquals(2 * KEYS + KEYS / 2 - 2, map.size());
+		}
+	}
+
+	@Test
+	void test_reput_at_threshold() throws IOException
+	{
+		Path file = tempFile();
+		try (MappedMultiMap<Integer, String> map = new MappedMultiMap<Integer, String>(file, Codec.INTEGER, STRING))
+		{
+			// 16 slots hold 8 pairs; a ninth would rewrite the file at twice the size
+			for (int KEY = 0; KEY < 8; KEY++) map.put(KEY, "a");
+			long bytes = Files.size(file);
+			int modCount = map.modCount();
+
+			map.put(3, "a");
+			assertEquals(modCount, map.modCount());
+			assertEquals(bytes, Files.size(file));
+
+			map.put(3, "b");
+			assertTrue(Files.size(file) > bytes);
+			assertEquals(9, map.size());
+			for (int KEY = 0; KEY < 8; KEY++) assertTrue(map.containsPair(KEY, "a"));
+			assertTrue(map.containsPair(3, "b"));
+		}
+	}
+
+	@Test
+	void test_rejects_mismatched_file() throws IOException
+	{
+		Path file = tempFile();
+		new MappedMultiMap<Integer, String>(file, Codec.INTEGER, STRING).close();
+
+		assertThrows(IllegalArgumentException.class,
+		             () -> new MappedMultiMap<Long, String>(file, Codec.LONG, STRING));
+
+		Path garbage = tempFile();
+		Files.write(garbage, new byte[100]);
+		assertThrows(IOException.class,
+		             () -> new MappedMultiMap<Integer, String>(garbage, Codec.INTEGER, STRING));
+	}
+
+	@Test
+	void test_string_codec()
+	{
+		MultiMap<Integer, String> map = createMap();
+
+		map.put(1, "");
+		map.put(1, "12345678");
+		map.put(1, "\u00e9t\u00e9");
+		assertEquals(3, map.size());
+		assertTrue(map.containsPair(1, "\u00e9t\u00e9"));
+		assertThrows(IllegalArgumentException.class, () -> map.put(1, "123456789"));
+	}
+}
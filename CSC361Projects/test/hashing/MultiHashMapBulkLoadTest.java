@@ -0,0 +1,104 @@
+package hashing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks MultiHashMap's presizing putAll and its parallel bulkLoad.
+ */
+class MultiHashMapBulkLoadTest
+{
+	private static final String[] VALUES = {"a", "b", "c", "d", "e", "f", "g", "h", "i", "j"};
+
+	// KEYS keys with a varying number of values each, plus some repeated pairs
+	private static List<Map.Entry<Integer, String>> pairs(int keys)
+	{
+		List<Map.Entry<Integer, String>> pairs = new ArrayList<Map.Entry<Integer, String>>();
+
+		for (int KEY = 0; KEY < keys; KEY++)
+		{
+			for (int v = 0; v <= KEY % VALUES.length; v++) pairs.add(new SimpleEntry<Integer, String>(KEY, VALUES[v]));
+			if (KEY % 7 == 0) pairs.add(new SimpleEntry<Integer, String>(KEY, VALUES[0]));
+		}
+
+		return pairs;
+	}
+
+	private static void assertSameContents(MultiHashMap<Integer, String> expected, MultiHashMap<Integer, String> actual)
+	{
+		assertEquals(expected.size(), actual.size());
+		assertEquals(expected.distinctKeyCount(), actual.distinctKeyCount());
+
+		Set<Integer> keys = new HashSet<Integer>();
+		for (Integer key : actual.keySet())
+		{
+			assertTrue(keys.add(key));
+			for (String value : expected.getAll(key)) assertTrue(actual.containsPair(key, value));
+		}
+		assertEquals(expected.distinctKeyCount(), keys.size());
+	}
+
+	@Test
+	void test_bulk_load_matches_puts()
+	{
+		List<Map.Entry<Integer, String>> pairs = pairs(50000);
+
+		MultiHashMap<Integer, String> expected = new MultiHashMap<Integer, String>();
+		for (Map.Entry<Integer, String> pair : pairs) expected.put(pair.getKey(), pair.getValue());
+
+		MultiHashMap<Integer, String> loaded = MultiHashMap.bulkLoad(pairs, new ForkJoinPool(4));
+		assertSameContents(expected, loaded);
+		assertEquals(0, loaded.resizeCount());
+
+		// the loaded map is an ordinary map afterwards
+		loaded.put(-1, "x");
+		loaded.deleteAll(0);
+		expected.put(-1, "x");
+		expected.deleteAll(0);
+		assertSameContents(expected, loaded);
+	}
+
+	@Test
+	void test_bulk_load_edge_cases()
+	{
+		MultiHashMap<Integer, String> empty = MultiHashMap.bulkLoad(new ArrayList<Map.Entry<Integer, String>>());
+		assertTrue(empty.isEmpty());
+		empty.put(1, "a");
+		assertEquals(1, empty.size());
+
+		List<Map.Entry<Integer, String>> pairs = pairs(100);
+		pairs.add(new SimpleEntry<Integer, String>(5, null));
+		assertThrows(IllegalArgumentException.class, () -> MultiHashMap.bulkLoad(pairs));
+		assertThrows(IllegalArgumentException.class, () -> MultiHashMap.bulkLoad(null));
+	}
+
+	@Test
+	void test_put_all_resizes_once()
+	{
+		List<Map.Entry<Integer, String>> pairs = pairs(50000);
+
+		MultiHashMap<Integer, String> map = new MultiHashMap<Integer, String>();
+		map.putAll(pairs);
+		assertEquals(1, map.resizeCount());
+
+		// also when an incremental rehash is under way
+		MultiHashMap<Integer, String> incremental = new MultiHashMap<Integer, String>(4, true);
+		for (int KEY = 0; KEY < 100; KEY++) incremental.put(-KEY - 1, "a");
+		int before = incremental.resizeCount();
+		incremental.putAll(pairs);
+		assertEquals(before + 1, incremental.resizeCount());
+
+		MultiHashMap<Integer, String> expected = MultiHashMap.bulkLoad(pairs);
+		for (int KEY = 0; KEY < 100; KEY++) expected.put(-KEY - 1, "a");
+		assertSameContents(expected, incremental);
+	}
+}
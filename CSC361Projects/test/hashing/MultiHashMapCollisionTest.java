@@ -0,0 +1,115 @@
+package hashing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import hashing.LinkedMultiMapTest.BadKey;
+
+/**
+ * Checks MultiHashMap with keys whose hash codes all collide, with and
+ * without tree-indexed chains, and with a seeded hash.
+ */
+class MultiHashMapCollisionTest
+{
+	private static final int KEYS = 20000;
+
+	private static void fillAndCheck(MultiHashMap<BadKey, Integer> map)
+	{
+		for (int KEY = 0; KEY < KEYS; KEY++)
+		{
+			map.put(new BadKey(KEY), KEY);
+			map.put(new BadKey(KEY), KEY + 1);
+		}
+		assertEquals(2 * KEYS, map.size());
+		assertEquals(KEYS, map.distinctKeyCount());
+
+		for (int KEY = 0; KEY < KEYS; KEY++)
+		{
+			assertTrue(map.containsPair(new BadKey(KEY), KEY));
+			assertTrue(map.containsPair(new BadKey(KEY), KEY + 1));
+			assertFalse(map.containsPair(new BadKey(KEY), KEY + 2));
+		}
+
+		for (int KEY = 0; KEY < KEYS; KEY += 2) map.deleteAll(new BadKey(KEY));
+		for (int KEY = 1; KEY < KEYS; KEY += 2) map.delete(new BadKey(KEY), KEY);
+		assertEquals(KEYS / 2, map.size());
+
+		Set<Integer> seen = new HashSet<Integer>();
+		for (BadKey key : map.keySet())
+		{
+			assertEquals(1, key._id % 2);
+			assertTrue(seen.add(key._id));
+		}
+		assertEquals(KEYS / 2, seen.size());
+
+		for (int KEY = 1; KEY < KEYS; KEY += 2) map.deleteAll(new BadKey(KEY));
+		assertTrue(map.isEmpty());
+	}
+
+	@Test
+	void test_colliding_keys()
+	{
+		fillAndCheck(new MultiHashMap<BadKey, Integer>());
+	}
+
+	@Test
+	void test_colliding_keys_while_rehashing()
+	{
+		fillAndCheck(new MultiHashMap<BadKey, Integer>(16, true));
+	}
+
+	@Test
+	void test_colliding_keys_without_trees()
+	{
+		fillAndCheck(MultiHashMap.<BadKey, Integer>builder().treeifyChains(false).build());
+	}
+
+	@Test
+	void test_seeded_hash()
+	{
+		MultiHashMap<Integer, Integer> a = MultiHashMap.<Integer, Integer>builder().hashSeed(361).build();
+		MultiHashMap<Integer, Integer> b = MultiHashMap.<Integer, Integer>builder().hashSeed(-361).build();
+
+		for (int KEY = 0; KEY < KEYS; KEY++)
+		{
+			a.put(KEY, KEY);
+			b.put(KEY, -KEY);
+		}
+		for (int KEY = 0; KEY < KEYS; KEY++)
+		{
+			assertTrue(a.containsPair(KEY, KEY));
+			assertTrue(b.containsPair(KEY, -KEY));
+		}
+		assertEquals(KEYS, a.distinctKeyCount());
+
+		fillAndCheck(MultiHashMap.<BadKey, Integer>builder().hashSeed(42).build());
+	}
+
+	@Test
+	void test_compare_ties_in_one_chain()
+	{
+		// keys equal under compareTo but not equals must stay distinct in a tree
+		MultiHashMap<BigDecimal, Integer> map = MultiHashMap.<BigDecimal, Integer>builder()
+				.initialCapacity(1).minCapacity(1).growLoadFactor(100).build();
+		for (int KEY = 0; KEY < 10; KEY++) map.put(BigDecimal.valueOf(KEY), KEY);
+		map.put(new BigDecimal("1.0"), 100);
+		map.put(new BigDecimal("1.00"), 200);
+
+		assertEquals(12, map.size());
+		assertEquals(12, map.distinctKeyCount());
+		assertTrue(map.containsPair(BigDecimal.ONE, 1));
+		assertFalse(map.containsPair(BigDecimal.ONE, 100));
+		assertTrue(map.containsPair(new BigDecimal("1.0"), 100));
+		assertFalse(map.containsPair(new BigDecimal("1.0"), 200));
+
+		Set<BigDecimal> keys = new HashSet<BigDecimal>();
+		for (BigDecimal key : map.keySet()) keys.add(key);
+		assertEquals(12, keys.size());
+		assertTrue(keys.contains(new BigDecimal("1.00")));
+	}
+}
@@ -0,0 +1,125 @@
+package hashing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks MultiHashMap's distinct-key index: keySet, distinctKeyCount and
+ * randomKey must agree with the pairs actually stored, through deletes,
+ * resizes and incremental rehashing.
+ */
+class MultiHashMapKeyIndexTest
+{
+	private static final String[] VALUES = {"a", "b", "c"};
+
+	private static void assertKeys(MultiHashMap<Integer, String> map, Set<Integer> expected)
+	{
+		assertEquals(expected.size(), map.distinctKeyCount());
+
+		Set<Integer> seen = new HashSet<Integer>();
+		for (Integer key : map.keySet())
+		{
+			assertTrue(expected.contains(key));
+			assertTrue(seen.add(key));
+		}
+		assertEquals(expected.size(), seen.size());
+	}
+
+	private static void churn(MultiHashMap<Integer, String> map)
+	{
+		Set<Integer> expected = new HashSet<Integer>();
+		Random random = new Random(361);
+
+		for (int op = 0; op < 50000; op++)
+		{
+			int key = random.nextInt(2000);
+			String value = VALUES[random.nextInt(VALUES.length)];
+
+			switch (random.nextInt(4))
+			{
+			case 0:
+			case 1:
+				map.put(key, value);
+				expected.add(key);
+				break;
+			case 2:
+				map.delete(key, value);
+				if (!map.contains(key)) expected.remove(key);
+				break;
+			default:
+				map.deleteAll(key);
+				expected.remove(key);
+			}
+
+			if (op % 5000 == 0) assertKeys(map, expected);
+		}
+		assertKeys(map, expected);
+
+		for (int key = 0; key < 2000; key++) map.deleteAll(key);
+		assertKeys(map, new HashSet<Integer>());
+	}
+
+	@Test
+	void test_index_tracks_keys()
+	{
+		churn(new MultiHashMap<Integer, String>());
+	}
+
+	@Test
+	void test_index_tracks_keys_while_rehashing()
+	{
+		churn(new MultiHashMap<Integer, String>(4, true));
+	}
+
+	@Test
+	void test_random_key()
+	{
+		MultiHashMap<Integer, String> map = new MultiHashMap<Integer, String>();
+		Random random = new Random(42);
+
+		assertThrows(NoSuchElementException.class, () -> map.randomKey(random));
+
+		final int KEYS = 10;
+		for (int key = 0; key < KEYS; key++)
+		{
+			// a key's chance must not depend on how many values it has
+			for (int v = 0; v <= key; v++) map.put(key, "v" + v);
+		}
+
+		int[] hits = new int[KEYS];
+		final int SAMPLES = 100000;
+		for (int i = 0; i < SAMPLES; i++) hits[map.randomKey(random)]++;
+
+		for (int key = 0; key < KEYS; key++)
+		{
+			assertTrue(Math.abs(hits[key] - SAMPLES / KEYS) < SAMPLES / KEYS / 10);
+		}
+	}
+
+	@Test
+	void test_delete_if_unindexes_keys()
+	{
+		for (boolean incremental : new boolean[] {false, true})
+		{
+			MultiHashMap<Integer, String> map = new MultiHashMap<Integer, String>(4, incremental);
+			Set<Integer> expected = new HashSet<Integer>();
+
+			for (int key = 0; key < 3000; key++)
+			{
+				for (String value : VALUES) map.put(key, value);
+				if (key % 3 != 0) expected.add(key);
+			}
+
+			int removed = map.deleteIf((key, value) -> key % 3 == 0 || value.equals("a"));
+			assertEquals(1000 * VALUES.length + 2000, removed);
+			assertEquals(2000 * (VALUES.length - 1), map.size());
+			assertKeys(map, expected);
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package hashing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the configurable resize policy of MultiHashMap.
+ */
+class MultiHashMapPolicyTest
+{
+	private static final String[] VALUES = {"a", "b", "c", "d", "e", "f", "g", "h", "i", "j"};
+
+	private static void putKey(MultiMap<Integer, String> map, int key)
+	{
+		for (String value : VALUES) map.put(key, value);
+	}
+
+	@Test
+	void test_defaults_match_constructor()
+	{
+		MultiHashMap<Integer, String> built = MultiHashMap.<Integer, String>builder().build();
+		MultiHashMap<Integer, String> plain = new MultiHashMap<Integer, String>();
+
+		for (int KEY = 1; KEY <= 2000; KEY++)
+		{
+			putKey(built, KEY);
+			putKey(plain, KEY);
+		}
+		assertEquals(plain.resizeCount(), built.resizeCount());
+
+		for (int KEY = 1; KEY <= 2000; KEY++)
+		{
+			built.deleteAll(KEY);
+			plain.deleteAll(KEY);
+		}
+		assertEquals(plain.resizeCount(), built.resizeCount());
+		assertEquals(0, built.size());
+	}
+
+	@Test
+	void test_rejects_inconsistent_policy()
+	{
+		assertThrows(IllegalArgumentException.class,
+				() -> MultiHashMap.builder().growLoadFactor(0).build());
+		assertThrows(IllegalArgumentException.class,
+				() -> MultiHashMap.builder().growLoadFactor(4).shrinkLoadFactor(4).build());
+		assertThrows(IllegalArgumentException.class,
+				() -> MultiHashMap.builder().resizeFactor(3).build());
+		assertThrows(IllegalArgumentException.class,
+				() -> MultiHashMap.builder().minCapacity(0).build());
+		assertThrows(IllegalArgumentException.class,
+				() -> MultiHashMap.builder().shrinkCooldown(-1).build());
+	}
+
+	@Test
+	void test_min_capacity_floor()
+	{
+		MultiHashMap<Integer, String> map = MultiHashMap.<Integer, String>builder()
+				.minCapacity(1024)
+				.build();
+
+		// 1024 chains hold 10240 pairs before growing: never resized
+		for (int KEY = 1; KEY <= 1000; KEY++) putKey(map, KEY);
+		for (int KEY = 1; KEY <= 1000; KEY++) map.deleteAll(KEY);
+
+		assertEquals(0, map.resizeCount());
+		assertTrue(map.isEmpty());
+	}
+
+	@Test
+	void test_oscillation_does_not_thrash()
+	{
+		// Each cycle deletes 35000 pairs, enough to qualify for a shrink, then
+		// re-adds them. With a cooldown longer than the whole run (5 cycles of
+		// 38500 operations), only the initial growth resizes.
+		MultiHashMap<Integer, String> map = MultiHashMap.<Integer, String>builder()
+				.shrinkCooldown(250000)
+				.build();
+
+		final int KEYS = 4096;
+		for (int KEY = 1; KEY <= KEYS; KEY++) putKey(map, KEY);
+		int afterFill = map.resizeCount();
+
+		for (int cycle = 0; cycle < 5; cycle++)
+		{
+			for (int KEY = 1; KEY <= 3500; KEY++) map.deleteAll(KEY);
+			for (int KEY = 1; KEY <= 3500; KEY++) putKey(map, KEY);
+		}
+
+		assertEquals(afterFill, map.resizeCount());
+		assertEquals(KEYS * VALUES.length, map.size());
+	}
+
+	@Test
+	void test_shrink_lands_away_from_grow_threshold()
+	{
+		// A grow lands at load 2 = the shrink load; hysteresis must keep a
+		// single delete from shrinking straight back.
+		MultiHashMap<Integer, String> map = MultiHashMap.<Integer, String>builder()
+				.growLoadFactor(4)
+				.shrinkLoadFactor(2)
+				.build();
+
+		for (int KEY = 1; KEY <= 400; KEY++) putKey(map, KEY);
+		int afterFill = map.resizeCount();
+
+		for (int cycle = 0; cycle < 100; cycle++)
+		{
+			map.deleteAll(400);
+			putKey(map, 400);
+		}
+
+		assertTrue(map.resizeCount() - afterFill <= 2);
+	}
+}
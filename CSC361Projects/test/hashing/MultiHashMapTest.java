@@ -2,21 +2,39 @@ package hashing;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.junit.jupiter.api.Test;
 
 class MultiHashMapTest
 {
-    //
-	// TODO: Add tests
 	//
+	// Other MultiMap implementations share this suite by overriding
+	// the factory below.
+	//
+	protected MultiMap<Integer, String> createMap()
+	{
+		return new MultiHashMap<Integer, String>();
+	}
+
+	// Implementations whose getAll/keySet return copies rather than live views
+	protected boolean viewsAreSnapshots()
+	{
+		return false;
+	}
 
 	@Test
 	void test_resize_up_and_down()
 	{
-		MultiHashMap<Integer, String> map = new MultiHashMap<Integer, String>();
+		MultiMap<Integer, String> map = createMap();
 		List<String> values = Arrays.asList("a", "b", "c", "d", "e", "f", "g", "h", "i", "j");
 		final int LAST_KEY = 100000;
 		//
@@ -47,7 +65,7 @@ class MultiHashMapTest
 	@Test
 	void test_basic()
 	{
-		MultiHashMap<Integer, String> map = new MultiHashMap<Integer, String>();
+		MultiMap<Integer, String> map = createMap();
 
 		map.put(1, "a");
 		map.put(2, "b");
@@ -81,7 +99,7 @@ class MultiHashMapTest
 	@Test
 	void test_redundant_add()
 	{
-		MultiHashMap<Integer, String> map = new MultiHashMap<Integer, String>();
+		MultiMap<Integer, String> map = createMap();
 
 		map.put(1, "a");
 		map.put(2, "b");
@@ -112,7 +130,7 @@ class MultiHashMapTest
 	@Test
 	void test_unique_keys()
 	{
-		MultiHashMap<Integer, String> map = new MultiHashMap<Integer, String>();
+		MultiMap<Integer, String> map = createMap();
 
         List<String> valuesFor1 = Arrays.asList("a", "d", "e", "h");
         List<String> valuesFor2 = Arrays.asList("b", "f");
@@ -139,7 +157,7 @@ class MultiHashMapTest
 	@Test
 	void test_delete_all()
 	{
-		MultiHashMap<Integer, String> map = new MultiHashMap<Integer, String>();
+		MultiMap<Integer, String> map = createMap();
 
         List<String> valuesFor1 = Arrays.asList("a", "d", "e", "h");
         List<String> valuesFor2 = Arrays.asList("b", "f");
@@ -177,7 +195,7 @@ class MultiHashMapTest
 	@Test
 	void test_get_basic()
 	{
-		MultiHashMap<Integer, String> map = new MultiHashMap<Integer, String>();
+		MultiMap<Integer, String> map = createMap();
 
 		map.put(1, "a");
 		map.put(2, "b");
@@ -212,7 +230,7 @@ class MultiHashMapTest
 	@Test
 	void test_get_values()
 	{
-		MultiHashMap<Integer, String> map = new MultiHashMap<Integer, String>();
+		MultiMap<Integer, String> map = createMap();
 
         List<String> valuesFor1 = Arrays.asList("a", "d", "e", "h");
         List<String> valuesFor2 = Arrays.asList("b", "f");
@@ -256,4 +274,89 @@ class MultiHashMapTest
 		assertEquals(valuesFor3.size(), valueCount);
 	}
 
+	@Test
+	void test_key_set_visits_every_key()
+	{
+		MultiMap<Integer, String> map = createMap();
+		final int KEYS = 5000;
+
+		for (int KEY = 0; KEY < KEYS; KEY++)
+		{
+			map.put(KEY, "a");
+			if (KEY % 3 == 0) map.put(KEY, "b");
+		}
+
+		Set<Integer> seen = new HashSet<Integer>();
+		for (Integer key : map.keySet())
+		{
+			assertTrue(seen.add(key));
+		}
+		assertEquals(KEYS, seen.size());
+	}
+
+	@Test
+	void test_views_fail_fast()
+	{
+		MultiMap<Integer, String> map = createMap();
+
+		map.put(1, "a");
+		map.put(1, "b");
+		map.put(2, "c");
+
+		// A view taken before a put sees the new value
+		Iterable<String> values = map.getAll(1);
+		map.put(1, "d");
+		int count = 0;
+		for (@SuppressWarnings("unused") String value : values) count++;
+		assertEquals(viewsAreSnapshots() ? 2 : 3, count);
+
+		Iterator<String> valueIterator = map.getAll(1).iterator();
+		Iterator<Integer> keyIterator = map.keySet().iterator();
+		valueIterator.next();
+		keyIterator.next();
+
+		// Redundant puts and absent deletes are not modifications
+		map.put(1, "a");
+		map.delete(2, "z");
+		valueIterator.next();
+		keyIterator.next();
+
+		map.delete(2, "c");
+		if (viewsAreSnapshots())
+		{
+			valueIterator.next();
+			assertFalse(keyIterator.hasNext());
+		}
+		else
+		{
+			assertThrows(ConcurrentModificationException.class, () -> valueIterator.next());
+			assertThrows(ConcurrentModificationException.class, () -> keyIterator.hasNext());
+		}
+	}
+
+	@Test
+	void test_put_all()
+	{
+		MultiMap<Integer, String> map = createMap();
+		List<Map.Entry<Integer, String>> pairs = new ArrayList<Map.Entry<Integer, String>>();
+		final int KEYS = 20000;
+
+		for (int KEY = 0; KEY < KEYS; KEY++)
+		{
+			pairs.add(new SimpleEntry<Integer, String>(KEY, "a"));
+			pairs.add(new SimpleEntry<Integer, String>(KEY, "b"));
+			pairs.add(new SimpleEntry<Integer, String>(KEY, "a"));
+		}
+
+		map.put(0, "z");
+		map.putAll(pairs);
+
+		assertEquals(2 * KEYS + 1, map.size());
+		assertTrue(map.containsPair(0, "z"));
+		assertTrue(map.containsPair(KEYS - 1, "b"));
+
+		pairs.add(new SimpleEntry<Integer, String>(null, "a"));
+		assertThrows(IllegalArgumentException.class, () -> map.putAll(pairs));
+		assertThrows(IllegalArgumentException.class, () -> map.putAll(null));
+	}
 }
@@ -0,0 +1,71 @@
+package hashing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the MultiHashMap suite against the linear-probing implementation.
+ */
+class OpenAddressingMultiMapTest extends MultiHashMapTest
+{
+	@Override
+	protected MultiMap<Integer, String> createMap()
+	{
+		return new OpenAddressingMultiMap<Integer, String>();
+	}
+
+	@Test
+	void test_delete_pairs()
+	{
+		MultiMap<Integer, String> map = createMap();
+		List<String> values = Arrays.asList("a", "b", "c", "d", "e", "f", "g", "h", "i", "j");
+		final int LAST_KEY = 1000;
+
+		for (int KEY = 1; KEY <= LAST_KEY; KEY++)
+		{
+			for (String value : values) map.put(KEY, value);
+		}
+
+		// Remove every other value; backward shifting must keep the rest reachable
+		for (int KEY = 1; KEY <= LAST_KEY; KEY++)
+		{
+			for (int v = 0; v < values.size(); v += 2) map.delete(KEY, values.get(v));
+		}
+		assertEquals(values.size() / 2 * LAST_KEY, map.size());
+
+		for (int KEY = 1; KEY <= LAST_KEY; KEY++)
+		{
+			for (int v = 0; v < values.size(); v++)
+			{
+				assertEquals(v % 2 == 1, map.containsPair(KEY, values.get(v)));
+			}
+		}
+
+		// Deleting an absent pair changes nothing
+		map.delete(1, "a");
+		map.delete(-1, "b");
+		assertEquals(values.size() / 2 * LAST_KEY, map.size());
+	}
+
+	@Test
+	void test_reput_at_threshold()
+	{
+		// 16 slots hold 8 pairs; a ninth would double the table
+		OpenAddressingMultiMap<Integer, String> map = new OpenAddressingMultiMap<Integer, String>();
+		for (int KEY = 0; KEY < 8; KEY++) map.put(KEY, "a");
+
+		int modCount = map.modCount();
+		map.put(3, "a");
+		assertEquals(modCount, map.modCount());
+		assertEquals(8, map.size());
+
+		map.put(3, "b");
+		assertEquals(9, map.size());
+		for (int KEY = 0; KEY < 8; KEY++) assertTrue(map.containsPair(KEY, "a"));
+		assertTrue(map.containsPair(3, "b"));
+	}
+}
@@ -0,0 +1,60 @@
+package hashing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class ValueSetTest
+{
+	@Test
+	void test_small_set()
+	{
+		ValueSet<String> set = new ValueSet<String>();
+
+		assertTrue(set.isEmpty());
+		assertTrue(set.add("a"));
+		assertTrue(set.add("b"));
+		assertFalse(set.add("a"));
+		assertEquals(2, set.size());
+
+		assertTrue(set.contains("a"));
+		assertFalse(set.contains("c"));
+
+		assertTrue(set.remove("a"));
+		assertFalse(set.remove("a"));
+		assertEquals(1, set.size());
+		assertEquals("b", set.get(0));
+	}
+
+	@Test
+	void test_indexed_set()
+	{
+		ValueSet<Integer> set = new ValueSet<Integer>();
+		final int COUNT = 5000;
+
+		// Large enough to switch to the hashed index and resize it several times
+		for (int i = 0; i < COUNT; i++) assertTrue(set.add(i));
+		for (int i = 0; i < COUNT; i++) assertFalse(set.add(i));
+		assertEquals(COUNT, set.size());
+
+		// Swap-removal must keep the index pointing at the moved values
+		for (int i = 0; i < COUNT; i += 2) assertTrue(set.remove(i));
+		assertEquals(COUNT / 2, set.size());
+
+		for (int i = 0; i < COUNT; i++) assertEquals(i % 2 == 1, set.contains(i));
+
+		Set<Integer> seen = new HashSet<Integer>();
+		for (Integer value : set) assertTrue(seen.add(value));
+		assertEquals(COUNT / 2, seen.size());
+
+		// Shrinking back below the threshold drops the index
+		for (int i = 1; i < COUNT - 4; i += 2) assertTrue(set.remove(i));
+		assertEquals(2, set.size());
+		assertTrue(set.contains(COUNT - 1));
+		assertTrue(set.contains(COUNT - 3));
+		assertFalse(set.contains(COUNT - 5));
+	}
+}
@@ -1,5 +1,13 @@
 package heap;
 
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
 import org.junit.jupiter.api.Test;
 
 /**
@@ -25,4 +33,81 @@ class ClassicMinHeapTest extends MinHeapTest
 		extractMinReverseTest(heap);
 	}
 
+	@Test
+	void test_key_updates()
+	{
+		keyUpdateTest(new ClassicMinHeap<Integer>());
+	}
+
+	@Test
+	void test_parallel_build()
+	{
+		ForkJoinPool pool = new ForkJoinPool(4);
+		Random random = new Random(361);
+
+		// large enough to fork several levels, and sizes around the edge cases
+		for (int n : new int[] {0, 1, 2, 1023, 1025, 100000})
+		{
+			List<Integer> values = new ArrayList<Integer>();
+			List<Double> keys = new ArrayList<Double>();
+			for (int i = 0; i < n; i++)
+			{
+				values.add(i);
+				keys.add((double) random.nextInt(n + 1));
+			}
+
+			ClassicMinHeap<Integer> expected = new ClassicMinHeap<Integer>();
+			expected.build(values, keys);
+
+			ClassicMinHeap<Integer> actual = new ClassicMinHeap<Integer>();
+			actual.parallelBuild(values, keys, pool);
+
+			// the same heap, node for node, with every _index right
+			assertEquals(n, actual.size());
+			for (int i = 0; i < n; i++)
+			{
+				assertEquals(expected._heap[i]._data, actual._heap[i]._data);
+				assertEquals(i, actual._heap[i]._index);
+			}
+
+			for (int i = 0; i < n; i++) assertEquals(expected.extractMin()._data, actual.extractMin()._data);
+			assertTrue(actual.isEmpty());
+		}
+
+		assertThrows(IllegalArgumentException.class,
+		             () -> new ClassicMinHeap<Integer>().parallelBuild(new ArrayList<Integer>(), new ArrayList<Double>(), null));
+		pool.shutdown();
+	}
+
+	@Test
+	void test_bulk_extract()
+	{
+		bulkExtractTest(new ClassicMinHeap<Integer>());
+	}
+
+	@Test
+	void test_meld()
+	{
+		meldTest(ClassicMinHeap<Integer>::new);
+	}
+
+	@Test
+	void test_tie_order()
+	{
+		tieOrderTest(new ClassicMinHeap<Integer>());
+	}
+
+	@Test
+	void test_nan_keys()
+	{
+		nanKeyTest(new ClassicMinHeap<Integer>());
+
+		// parallelBuild checks every key before clearing, as build does
+		ClassicMinHeap<Integer> heap = new ClassicMinHeap<Integer>();
+		heap.insert(new HeapNode<Integer>(1, 1));
+		assertThrows(IllegalArgumentException.class,
+		             () -> heap.parallelBuild(Arrays.asList(2, 3), Arrays.asList(Double.NaN, 3.0)));
+		assertEquals(1, heap.size());
+	}
+
 }
@@ -0,0 +1,226 @@
+/**
+ * 
+ */
+package heap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.jupiter.api.Test;
+
+class ConcurrentMinHeapTest extends MinHeapTest
+{
+
+	@Test
+	void test_extractMin()
+	{
+		// strict mode, and a single shard, give exact order
+		extractMinSortedTest(ConcurrentMinHeap.strict());
+		extractMinShuffledTest(ConcurrentMinHeap.strict());
+		extractMinReverseTest(ConcurrentMinHeap.strict());
+
+		extractMinSortedTest(new ConcurrentMinHeap<Integer>(1));
+		extractMinShuffledTest(new ConcurrentMinHeap<Integer>(1));
+		extractMinReverseTest(new ConcurrentMinHeap<Integer>(1));
+	}
+
+	@Test
+	void test_key_updates()
+	{
+		keyUpdateTest(ConcurrentMinHeap.strict());
+		keyUpdateTest(new ConcurrentMinHeap<Integer>(1));
+	}
+
+	@Test
+	void test_relaxed_returns_every_node()
+	{
+		final int N = 10000;
+		ConcurrentMinHeap<Integer> heap = new ConcurrentMinHeap<Integer>(8);
+
+		List<Integer> values = new ArrayList<Integer>();
+		List<Double> keys = new ArrayList<Double>();
+		for (int i = 0; i < N; i++)
+		{
+			values.add(i);
+			keys.add((double) (i * 7919 % N));
+		}
+		heap.build(values, keys);
+		assertEquals(N, heap.size());
+
+		// the minimum is published, so peekMin is exact while no one else is writing
+		assertEquals(0.0, heap.peekMin()._key);
+
+		boolean[] seen = new boolean[N];
+		for (int i = 0; i < N; i++)
+		{
+			HeapNode<Integer> node = heap.extractMin();
+			assertFalse(seen[node._data]);
+			seen[node._data] = true;
+		}
+		assertTrue(heap.isEmpty());
+		assertNull(heap.extractMin());
+	}
+
+	@Test
+	void test_infinite_keys()
+	{
+		// +Infinity is a key like any other, not a sign of an empty shard
+		ConcurrentMinHeap<Integer> heap = new ConcurrentMinHeap<Integer>(8);
+		assertNull(heap.peekMin());
+
+		heap.insert(new HeapNode<Integer>(0, Double.POSITIVE_INFINITY));
+		assertEquals(Double.POSITIVE_INFINITY, heap.peekMin()._key);
+		assertEquals(Integer.valueOf(0), heap.extractMin()._data);
+		assertNull(heap.peekMin());
+		assertNull(heap.extractMin());
+
+		final int N = 100;
+		for (int i = 0; i < N; i++) heap.insert(new HeapNode<Integer>(i, Double.POSITIVE_INFINITY));
+		heap.insert(new HeapNode<Integer>(N, 1));
+		assertEquals(1.0, heap.peekMin()._key);
+
+		boolean[] seen = new boolean[N + 1];
+		for (int i = 0; i <= N; i++)
+		{
+			assertNotNull(heap.peekMin());
+			HeapNode<Integer> node = heap.extractMin();
+			assertFalse(seen[node._data]);
+			seen[node._data] = true;
+		}
+		assertTrue(heap.isEmpty());
+		assertNull(heap.peekMin());
+		assertNull(heap.extractMin());
+	}
+
+	private static void producersAndConsumers(ConcurrentMinHeap<Integer> heap) throws InterruptedException
+	{
+		final int THREADS = 4;
+		final int PER_THREAD = 25000;
+		final int TOTAL = THREADS * PER_THREAD;
+
+		AtomicIntegerArray extracted = new AtomicIntegerArray(TOTAL);
+		AtomicInteger remaining = new AtomicInteger(TOTAL);
+		List<Thread> threads = new ArrayList<Thread>();
+
+		for (int t = 0; t < THREADS; t++)
+		{
+			final int first = t * PER_THREAD;
+			threads.add(new Thread(() -> {
+				for (int i = first; i < first + PER_THREAD; i++)
+				{
+					heap.insert(new HeapNode<Integer>(i, (i * 31) % 1000));
+				}
+			}));
+			threads.add(new Thread(() -> {
+				while (remaining.get() > 0)
+				{
+					HeapNode<Integer> node = heap.extractMin();
+					if (node == null) continue;
+
+					extracted.incrementAndGet(node._data);
+					remaining.decrementAndGet();
+				}
+			}));
+		}
+
+		for (Thread thread : threads) thread.start();
+		for (Thread thread : threads) thread.join();
+
+		for (int i = 0; i < TOTAL; i++) assertEquals(1, extracted.get(i));
+		assertTrue(heap.isEmpty());
+	}
+
+	@Test
+	void test_concurrent_relaxed() throws InterruptedException
+	{
+		producersAndConsumers(new ConcurrentMinHeap<Integer>(16));
+	}
+
+	@Test
+	void test_concurrent_strict() throws InterruptedException
+	{
+		producersAndConsumers(ConcurrentMinHeap.strict());
+	}
+
+	@Test
+	void test_foreign_nodes()
+	{
+		ConcurrentMinHeap<Integer> a = new ConcurrentMinHeap<Integer>(4);
+		ConcurrentMinHeap<Integer> b = new ConcurrentMinHeap<Integer>(4);
+		ConcurrentMinHeap<Integer> strict = ConcurrentMinHeap.strict();
+
+		HeapNode<Integer> node = new HeapNode<Integer>(1, 10);
+		a.insert(node);
+		assertFalse(b.remove(node));
+		assertFalse(strict.remove(node));
+		assertThrows(IllegalArgumentException.class, () -> b.decreaseKey(node, 5));
+
+		a.decreaseKey(node, 5);
+		assertEquals(5.0, a.peekMin()._key);
+		assertTrue(a.remove(node));
+		assertFalse(a.remove(node));
+
+		assertThrows(IllegalArgumentException.class, () -> new ConcurrentMinHeap<Integer>(0));
+	}
+
+	@Test
+	void test_bulk_extract()
+	{
+		bulkExtractTest(ConcurrentMinHeap.strict());
+	}
+
+	private static void concurrentDrains(ConcurrentMinHeap<Integer> heap) throws InterruptedException
+	{
+		final int THREADS = 4;
+		final int TOTAL = 100000;
+		final int BATCH = 64;
+
+		for (int i = 0; i < TOTAL; i++) heap.insert(new HeapNode<Integer>(i, (i * 31) % 1000));
+
+		AtomicIntegerArray extracted = new AtomicIntegerArray(TOTAL);
+		AtomicInteger nulls = new AtomicInteger();
+		List<Thread> threads = new ArrayList<Thread>();
+
+		for (int t = 0; t < THREADS; t++)
+		{
+			threads.add(new Thread(() -> {
+				List<HeapNode<Integer>> batch = new ArrayList<HeapNode<Integer>>();
+				while (!heap.isEmpty())
+				{
+					batch.clear();
+					heap.drainTo(batch, BATCH);
+					for (HeapNode<Integer> node : batch)
+					{
+						if (node == null) nulls.incrementAndGet();
+						else extracted.incrementAndGet(node._data);
+					}
+				}
+			}));
+		}
+
+		for (Thread thread : threads) thread.start();
+		for (Thread thread : threads) thread.join();
+
+		assertEquals(0, nulls.get());
+		for (int i = 0; i < TOTAL; i++) assertEquals(1, extracted.get(i));
+		assertTrue(heap.isEmpty());
+	}
+
+	@Test
+	void test_concurrent_drains() throws InterruptedException
+	{
+		concurrentDrains(new ConcurrentMinHeap<Integer>(16));
+		concurrentDrains(ConcurrentMinHeap.strict());
+	}
+
+	@Test
+	void test_nan_keys()
+	{
+		nanKeyTest(ConcurrentMinHeap.strict());
+		nanKeyTest(new ConcurrentMinHeap<Integer>(1));
+	}
+}
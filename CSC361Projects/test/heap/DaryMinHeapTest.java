@@ -0,0 +1,113 @@
+/**
+ * 
+ */
+package heap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class DaryMinHeapTest extends MinHeapTest
+{
+	private static final int[] ARITIES = {2, 3, 4, 8, 16};
+
+	@Test
+	void test_extractMin()
+	{
+		for (int arity : ARITIES)
+		{
+			extractMinSortedTest(new DaryMinHeap<Integer>(arity));
+			extractMinShuffledTest(new DaryMinHeap<Integer>(arity));
+			extractMinReverseTest(new DaryMinHeap<Integer>(arity));
+		}
+	}
+
+	@Test
+	void test_key_updates()
+	{
+		for (int arity : ARITIES) keyUpdateTest(new DaryMinHeap<Integer>(arity));
+	}
+
+	@Test
+	void test_insert_and_build_agree()
+	{
+		final int N = 5000;
+		Random random = new Random(361);
+
+		List<Integer> values = new ArrayList<Integer>();
+		List<Double> keys = new ArrayList<Double>();
+		for (int i = 0; i < N; i++)
+		{
+			values.add(i);
+			keys.add(random.nextDouble());
+		}
+
+		List<Double> sorted = new ArrayList<Double>(keys);
+		Collections.sort(sorted);
+
+		for (int arity : ARITIES)
+		{
+			MinHeap<Integer> built = new DaryMinHeap<Integer>(arity);
+			built.build(values, keys);
+			validateExtractMinWithOrderedKeys(built, sorted);
+
+			MinHeap<Integer> inserted = new DaryMinHeap<Integer>(arity);
+			for (int i = 0; i < N; i++) inserted.insert(new HeapNode<Integer>(i, keys.get(i)));
+			validateExtractMinWithOrderedKeys(inserted, sorted);
+		}
+
+		// building from nothing leaves an empty heap
+		MinHeap<Integer> empty = new DaryMinHeap<Integer>(8);
+		empty.build(new ArrayList<Integer>(), new ArrayList<Double>());
+		assertTrue(empty.isEmpty());
+	}
+
+	@Test
+	void test_empty()
+	{
+		for (int arity : ARITIES)
+		{
+			MinHeap<Integer> heap = new DaryMinHeap<Integer>(arity);
+			assertNull(heap.peekMin());
+			assertNull(heap.extractMin());
+			assertTrue(heap.isEmpty());
+			assertEquals(0, heap.size());
+
+			heap.insert(new HeapNode<Integer>(1, 1));
+			assertEquals(Integer.valueOf(1), heap.extractMin()._data);
+			assertNull(heap.extractMin());
+			assertTrue(heap.isEmpty());
+		}
+	}
+
+	@Test
+	void test_arity()
+	{
+		assertEquals(DaryMinHeap.DEFAULT_ARITY, new DaryMinHeap<Integer>().arity());
+		assertThrows(IllegalArgumentException.class, () -> new DaryMinHeap<Integer>(1));
+	}
+
+	@Test
+	void test_bulk_extract()
+	{
+		bulkExtractTest(new DaryMinHeap<Integer>());
+	}
+
+	@Test
+	void test_meld()
+	{
+		meldTest(DaryMinHeap<Integer>::new);
+	}
+
+	@Test
+	void test_nan_keys()
+	{
+		nanKeyTest(new DaryMinHeap<Integer>());
+	}
+
+}
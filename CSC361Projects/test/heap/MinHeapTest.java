@@ -6,6 +6,7 @@ package heap;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.*;
+import java.util.function.Supplier;
 
 /**
  * @author calvin
@@ -110,4 +111,297 @@ class MinHeapTest
 			assertTrue(heap_utilities.Numeric.neighborhoodEquals(minNode._key, key));
 		}
 	}	
+	private static double minKey(List<HeapNode<Integer>> nodes)
+	{
+		double min = Double.POSITIVE_INFINITY;
+		for (HeapNode<Integer> node : nodes) min = Math.min(min, node._key);
+		return min;
+	}
+
+	//
+	// Mixes decreaseKey, increaseKey and remove on random nodes, then checks
+	// that exactly the remaining nodes come out, in key order
+	//
+	public void keyUpdateTest(MinHeap<Integer> heap)
+	{
+		final int NODES = 500;
+		final int OPS = 3000;
+		Random random = new Random(361);
+
+		List<HeapNode<Integer>> live = new ArrayList<HeapNode<Integer>>();
+		for (int i = 0; i < NODES; i++)
+		{
+			HeapNode<Integer> node = new HeapNode<Integer>(i, random.nextInt(10000));
+			live.add(node);
+			heap.insert(node);
+		}
+
+		List<HeapNode<Integer>> removed = new ArrayList<HeapNode<Integer>>();
+		for (int op = 0; op < OPS; op++)
+		{
+			HeapNode<Integer> node = live.get(random.nextInt(live.size()));
+			switch (random.nextInt(3))
+			{
+			case 0:
+				heap.decreaseKey(node, node._key - random.nextInt(1000));
+				break;
+			case 1:
+				heap.increaseKey(node, node._key + random.nextInt(1000));
+				break;
+			default:
+				if (live.size() <= NODES / 2) break;
+				assertTrue(heap.remove(node));
+				assertFalse(heap.remove(node));
+				live.remove(node);
+				removed.add(node);
+			}
+
+			assertEquals(live.size(), heap.size());
+			assertEquals(minKey(live), heap.peekMin()._key);
+		}
+
+		// removed nodes are no longer members
+		for (HeapNode<Integer> node : removed)
+		{
+			assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(node, node._key - 1));
+		}
+
+		HeapNode<Integer> some = live.get(0);
+		assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(some, some._key + 1));
+		assertThrows(IllegalArgumentException.class, () -> heap.increaseKey(some, some._key - 1));
+		assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(some, Double.NaN));
+		assertFalse(heap.remove(new HeapNode<Integer>(-1, 0)));
+
+		List<Double> keys = new ArrayList<Double>();
+		live.forEach(node -> keys.add(node._key));
+		Collections.sort(keys);
+
+		Set<HeapNode<Integer>> expected = new HashSet<HeapNode<Integer>>(live);
+		for (Double key : keys)
+		{
+			HeapNode<Integer> node = heap.extractMin();
+			assertEquals(key.doubleValue(), node._key);
+			assertTrue(expected.remove(node));
+		}
+		assertTrue(heap.isEmpty());
+	}
+	//
+	// Interleaves inserts, decreaseKeys and extractMins, checking every
+	// extracted key against the smallest key among the live nodes
+	//
+	public void interleavedTest(MinHeap<Integer> heap)
+	{
+		final int OPS = 20000;
+		Random random = new Random(361);
+
+		List<HeapNode<Integer>> live = new ArrayList<HeapNode<Integer>>();
+		int next = 0;
+
+		for (int op = 0; op < OPS; op++)
+		{
+			int choice = random.nextInt(4);
+			if (choice == 0 && !live.isEmpty())
+			{
+				double min = minKey(live);
+				HeapNode<Integer> node = heap.extractMin();
+				assertEquals(min, node._key);
+				assertTrue(live.remove(node));
+			}
+			else if (choice == 1 || live.isEmpty())
+			{
+				HeapNode<Integer> node = new HeapNode<Integer>(next++, random.nextInt(100000));
+				heap.insert(node);
+				live.add(node);
+			}
+			else
+			{
+				HeapNode<Integer> node = live.get(random.nextInt(live.size()));
+				heap.decreaseKey(node, node._key - random.nextInt(5000));
+			}
+			assertEquals(live.size(), heap.size());
+		}
+
+		while (!live.isEmpty())
+		{
+			double min = minKey(live);
+			HeapNode<Integer> node = heap.extractMin();
+			assertEquals(min, node._key);
+			assertTrue(live.remove(node));
+		}
+		assertTrue(heap.isEmpty());
+	}
+	//
+	// Removes batches of several sizes with extractMin(k, action) and drainTo,
+	// checking the order, and that the heap still works afterwards
+	//
+	public void bulkExtractTest(MinHeap<Integer> heap)
+	{
+		final int N = 1000;
+
+		List<Integer> values = new ArrayList<Integer>();
+		for (int i = 0; i < N; i++) values.add(i);
+		Collections.shuffle(values, new Random(361));
+
+		List<Double> keys = new ArrayList<Double>();
+		values.forEach(v -> keys.add((double) v));
+		heap.build(values, keys);
+
+		List<HeapNode<Integer>> out = new ArrayList<HeapNode<Integer>>();
+		assertEquals(0, heap.extractMin(0, out::add));
+		assertEquals(10, heap.extractMin(10, out::add));
+		assertEquals(490, heap.drainTo(out, 490));
+		assertEquals(N - 500, heap.size());
+
+		// more nodes arrive between batches
+		for (int i = N; i < N + 100; i++) heap.insert(new HeapNode<Integer>(i, i - N + 0.5));
+
+		List<HeapNode<Integer>> rest = new ArrayList<HeapNode<Integer>>();
+		assertEquals(N - 400, heap.drainTo(rest, 2 * N));
+		assertTrue(heap.isEmpty());
+		assertEquals(0, heap.extractMin(5, out::add));
+
+		for (int i = 0; i < 500; i++) assertEquals(i, (int) out.get(i)._data);
+		for (int i = 1; i < rest.size(); i++) assertTrue(rest.get(i - 1)._key <= rest.get(i)._key);
+
+		assertThrows(IllegalArgumentException.class, () -> heap.extractMin(-1, node -> { }));
+	}
+	//
+	// Melds heaps of the kind make creates with each other, in a chain, and with
+	// heaps of other kinds; the melded nodes must stay usable through the heap
+	// that received them, and come out in key order
+	//
+	public void meldTest(Supplier<MinHeap<Integer>> make)
+	{
+		Random random = new Random(361);
+		List<HeapNode<Integer>> live = new ArrayList<HeapNode<Integer>>();
+		int next = 0;
+
+		List<MinHeap<Integer>> sources = new ArrayList<MinHeap<Integer>>();
+		for (int h = 0; h < 4; h++) sources.add(make.get());
+		sources.add(new ClassicMinHeap<Integer>());
+		sources.add(new SortedListMinHeap<Integer>());
+		sources.add(new PairingMinHeap<Integer>());
+
+		for (MinHeap<Integer> source : sources)
+		{
+			for (int i = 0; i < 200; i++)
+			{
+				HeapNode<Integer> node = new HeapNode<Integer>(next++, random.nextInt(10000));
+				source.insert(node);
+				live.add(node);
+			}
+		}
+
+		// melds into an empty heap, then a chain: sources 0 <- 1 <- 2, and 3 <- 0
+		MinHeap<Integer> empty = make.get();
+		MinHeap<Integer> heap = make.get();
+		heap.meld(empty);
+		assertTrue(heap.isEmpty());
+
+		sources.get(1).meld(sources.get(2));
+		sources.get(0).meld(sources.get(1));
+		heap.meld(sources.get(3));
+		heap.meld(sources.get(0));
+		for (int h = 4; h < sources.size(); h++) heap.meld(sources.get(h));
+		heap.meld(make.get());
+
+		for (MinHeap<Integer> source : sources) assertTrue(source.isEmpty());
+		assertEquals(live.size(), heap.size());
+		assertEquals(minKey(live), heap.peekMin()._key);
+
+		// every node now belongs to heap, and to no source
+		for (int i = 0; i < 100; i++)
+		{
+			HeapNode<Integer> node = live.get(random.nextInt(live.size()));
+			assertFalse(sources.get(2).remove(node));
+			heap.decreaseKey(node, node._key - random.nextInt(1000));
+			assertEquals(minKey(live), heap.peekMin()._key);
+		}
+
+		// sources still work after being emptied
+		HeapNode<Integer> extra = new HeapNode<Integer>(next++, -1);
+		sources.get(2).insert(extra);
+		assertEquals(1, sources.get(2).size());
+		heap.meld(sources.get(2));
+		live.add(extra);
+
+		assertThrows(IllegalArgumentException.class, () -> heap.meld(heap));
+		assertThrows(IllegalArgumentException.class, () -> heap.meld(null));
+
+		List<Double> keys = new ArrayList<Double>();
+		live.forEach(node -> keys.add(node._key));
+		Collections.sort(keys);
+
+		Set<HeapNode<Integer>> expected = new HashSet<HeapNode<Integer>>(live);
+		for (Double key : keys)
+		{
+			HeapNode<Integer> node = heap.extractMin();
+			assertEquals(key.doubleValue(), node._key);
+			assertTrue(expected.remove(node));
+		}
+		assertTrue(heap.isEmpty());
+
+		// clearing disowns melded nodes too
+		MinHeap<Integer> other = make.get();
+		HeapNode<Integer> node = new HeapNode<Integer>(next++, 5);
+		other.insert(node);
+		heap.meld(other);
+		heap.clear();
+		assertFalse(heap.remove(node));
+		assertFalse(other.remove(node));
+	}
+	//
+	// Heaps that order nodes strictly: keys closer than HeapNode's epsilon still
+	// come out in key order, and equal keys come out in insertion order, whether
+	// the nodes were built, inserted one by one, or arrived in a mix of both
+	//
+	public void tieOrderTest(MinHeap<Integer> heap)
+	{
+		final int N = 300;
+		Random random = new Random(361);
+
+		List<Integer> values = new ArrayList<Integer>();
+		List<Double> keys = new ArrayList<Double>();
+		for (int i = 0; i < N; i++)
+		{
+			values.add(i);
+			keys.add((double) random.nextInt(8));
+		}
+		heap.build(values, keys);
+		for (int i = N; i < 2 * N; i++) heap.insert(new HeapNode<Integer>(i, random.nextInt(8)));
+
+		// 1e-9 apart: equal to compareTo, but not to the heap
+		heap.insert(new HeapNode<Integer>(-1, 3 + 1e-9));
+		heap.insert(new HeapNode<Integer>(-2, 3));
+
+		double lastKey = Double.NEGATIVE_INFINITY;
+		int lastValue = Integer.MIN_VALUE;
+		while (!heap.isEmpty())
+		{
+			HeapNode<Integer> node = heap.extractMin();
+			assertTrue(node._key >= lastKey);
+
+			if (node._key == lastKey && node._data >= 0 && lastValue >= 0) assertTrue(node._data > lastValue);
+			if (node._data == -1) assertEquals(3, lastKey);
+			lastKey = node._key;
+			lastValue = node._data;
+		}
+	}
+
+	//
+	// NaN keys are rejected by insert and by build, and a failed build leaves
+	// the heap as it was
+	//
+	public void nanKeyTest(MinHeap<Integer> heap)
+	{
+		for (int i = 1; i <= 3; i++) heap.insert(new HeapNode<Integer>(i, i));
+
+		assertThrows(IllegalArgumentException.class, () -> heap.insert(new HeapNode<Integer>(0, Double.NaN)));
+		assertThrows(IllegalArgumentException.class,
+		             () -> heap.build(Arrays.asList(4, 5, 6), Arrays.asList(4.0, Double.NaN, 6.0)));
+		assertEquals(3, heap.size());
+
+		for (int i = 1; i <= 3; i++) assertEquals(Integer.valueOf(i), heap.extractMin()._data);
+		assertTrue(heap.isEmpty());
+	}
 }
@@ -0,0 +1,86 @@
+/**
+ * 
+ */
+package heap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class PairingMinHeapTest extends MinHeapTest
+{
+
+	@Test
+	void test_extractMin()
+	{
+		MinHeap<Integer> heap = new PairingMinHeap<Integer>();
+
+		extractMinSortedTest(heap);
+		
+		heap = new PairingMinHeap<Integer>();
+		
+		extractMinShuffledTest(heap);
+		
+		heap = new PairingMinHeap<Integer>();
+
+		extractMinReverseTest(heap);
+	}
+
+	@Test
+	void test_key_updates()
+	{
+		keyUpdateTest(new PairingMinHeap<Integer>());
+	}
+
+	@Test
+	void test_interleaved()
+	{
+		interleavedTest(new PairingMinHeap<Integer>());
+	}
+
+	@Test
+	void test_clear_releases_nodes()
+	{
+		MinHeap<Integer> heap = new PairingMinHeap<Integer>();
+		List<HeapNode<Integer>> nodes = new ArrayList<HeapNode<Integer>>();
+		for (int i = 0; i < 100; i++)
+		{
+			nodes.add(new HeapNode<Integer>(i, i));
+			heap.insert(nodes.get(i));
+		}
+		assertEquals(0, (int) heap.extractMin()._data);
+
+		heap.clear();
+		assertTrue(heap.isEmpty());
+		assertNull(heap.extractMin());
+		assertFalse(heap.remove(nodes.get(50)));
+		assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(nodes.get(50), 0));
+
+		// a node can go into the heap again
+		heap.insert(nodes.get(50));
+		assertTrue(heap.remove(nodes.get(50)));
+		assertTrue(heap.isEmpty());
+	}
+
+	@Test
+	void test_bulk_extract()
+	{
+		bulkExtractTest(new PairingMinHeap<Integer>());
+	}
+
+	@Test
+	void test_meld()
+	{
+		meldTest(PairingMinHeap<Integer>::new);
+	}
+
+	@Test
+	void test_nan_keys()
+	{
+		nanKeyTest(new PairingMinHeap<Integer>());
+	}
+
+}
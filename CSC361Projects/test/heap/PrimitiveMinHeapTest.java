@@ -0,0 +1,168 @@
+/**
+ * 
+ */
+package heap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class PrimitiveMinHeapTest extends MinHeapTest
+{
+
+	@Test
+	void test_extractMin()
+	{
+		MinHeap<Integer> heap = new PrimitiveMinHeap<Integer>();
+
+		extractMinSortedTest(heap);
+		
+		heap = new PrimitiveMinHeap<Integer>();
+		
+		extractMinShuffledTest(heap);
+		
+		heap = new PrimitiveMinHeap<Integer>();
+
+		extractMinReverseTest(heap);
+	}
+
+	@Test
+	void test_key_updates()
+	{
+		keyUpdateTest(new PrimitiveMinHeap<Integer>());
+	}
+
+	@Test
+	void test_primitive_build()
+	{
+		final int N = 10000;
+		Random random = new Random(361);
+
+		double[] keys = new double[N];
+		for (int i = 0; i < N; i++) keys[i] = random.nextDouble();
+
+		PrimitiveMinHeap<String> heap = new PrimitiveMinHeap<String>();
+		heap.build(keys, null);
+		assertEquals(N, heap.size());
+
+		// handle i names the entry built from keys[i]
+		for (int i = 0; i < N; i++) assertEquals(keys[i], heap.key(i));
+
+		// lower every tenth key below all the others
+		for (int i = 0; i < N; i += 10) heap.decreaseKey(i, keys[i] - 1);
+
+		double[] sorted = keys.clone();
+		for (int i = 0; i < N; i += 10) sorted[i] -= 1;
+		Arrays.sort(sorted);
+
+		for (int i = 0; i < N; i++)
+		{
+			assertEquals(sorted[i], heap.minKey());
+			if (i < N / 10) assertEquals(0, heap.minHandle() % 10);
+			assertNull(heap.extractMinValue());
+		}
+		assertTrue(heap.isEmpty());
+		assertThrows(NoSuchElementException.class, () -> heap.minKey());
+		assertThrows(NoSuchElementException.class, () -> heap.extractMinValue());
+
+		// a NaN key fails the build before the current contents are touched
+		int h = heap.insert(5, "kept");
+		assertThrows(IllegalArgumentException.class, () -> heap.build(new double[] {1, Double.NaN}, null));
+		assertEquals(1, heap.size());
+		assertEquals("kept", heap.value(h));
+		assertEquals(5.0, heap.minKey());
+	}
+
+	@Test
+	void test_handles()
+	{
+		PrimitiveMinHeap<String> heap = new PrimitiveMinHeap<String>();
+
+		int a = heap.insert(3, "a");
+		int b = heap.insert(1, "b");
+		int c = heap.insert(2, "c");
+		assertEquals("b", heap.value(heap.minHandle()));
+
+		heap.increaseKey(b, 5);
+		assertEquals(c, heap.minHandle());
+
+		assertTrue(heap.remove(c));
+		assertFalse(heap.remove(c));
+		assertFalse(heap.contains(c));
+		assertThrows(IllegalArgumentException.class, () -> heap.key(c));
+
+		// a freed handle is reused
+		int d = heap.insert(0, "d");
+		assertEquals(c, d);
+		assertEquals("d", heap.extractMinValue());
+		assertEquals("a", heap.extractMinValue());
+		assertEquals("b", heap.value(b));
+
+		assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(b, 6));
+		assertThrows(IllegalArgumentException.class, () -> heap.increaseKey(b, 4));
+		assertThrows(IllegalArgumentException.class, () -> heap.insert(Double.NaN, "e"));
+		assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(a, 0));
+		assertFalse(heap.remove(-1));
+	}
+
+	@Test
+	void test_node_identity()
+	{
+		PrimitiveMinHeap<Integer> heap = new PrimitiveMinHeap<Integer>();
+		assertNull(heap.peekMin());
+		assertNull(heap.extractMin());
+
+		HeapNode<Integer> a = new HeapNode<Integer>(1, 1);
+		heap.insert(a);
+		assertSame(a, heap.peekMin());
+		assertSame(a, heap.extractMin());
+
+		// b reuses a's handle, but a no longer names anything
+		HeapNode<Integer> b = new HeapNode<Integer>(2, 2);
+		heap.insert(b);
+		assertEquals(a._index, b._index);
+		assertFalse(heap.remove(a));
+		assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(a, 0));
+		assertThrows(IllegalArgumentException.class, () -> heap.increaseKey(a, 3));
+		assertEquals(1, heap.size());
+
+		// nor does a node of another heap with the same handle
+		PrimitiveMinHeap<Integer> other = new PrimitiveMinHeap<Integer>();
+		HeapNode<Integer> c = new HeapNode<Integer>(3, 3);
+		other.insert(c);
+		assertEquals(b._index, c._index);
+		assertFalse(heap.remove(c));
+		assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(c, 0));
+
+		// an entry inserted by key gets one node, updated with its key
+		int d = heap.insert(5, 4);
+		heap.decreaseKey(d, 0);
+		HeapNode<Integer> node = heap.peekMin();
+		assertEquals(0, node._key);
+		assertEquals(Integer.valueOf(4), node._data);
+		heap.decreaseKey(d, -1);
+		assertEquals(-1, node._key);
+		assertSame(node, heap.extractMin());
+
+		assertSame(b, heap.extractMin());
+		assertNull(heap.extractMin());
+		assertTrue(heap.isEmpty());
+	}
+
+	@Test
+	void test_bulk_extract()
+	{
+		bulkExtractTest(new PrimitiveMinHeap<Integer>());
+	}
+
+	@Test
+	void test_nan_keys()
+	{
+		nanKeyTest(new PrimitiveMinHeap<Integer>());
+	}
+
+}
@@ -28,4 +28,40 @@ class SortedListMinHeapTest extends MinHeapTest
 		extractMinReverseTest(heap);
 	}
 
+	@Test
+	void test_key_updates()
+	{
+		keyUpdateTest(new SortedListMinHeap<Integer>());
+	}
+
+	@Test
+	void test_interleaved()
+	{
+		interleavedTest(new SortedListMinHeap<Integer>());
+	}
+
+	@Test
+	void test_bulk_extract()
+	{
+		bulkExtractTest(new SortedListMinHeap<Integer>());
+	}
+
+	@Test
+	void test_meld()
+	{
+		meldTest(SortedListMinHeap<Integer>::new);
+	}
+
+	@Test
+	void test_tie_order()
+	{
+		tieOrderTest(new SortedListMinHeap<Integer>());
+	}
+
+	@Test
+	void test_nan_keys()
+	{
+		nanKeyTest(new SortedListMinHeap<Integer>());
+	}
+
 }
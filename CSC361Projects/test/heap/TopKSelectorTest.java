@@ -0,0 +1,212 @@
+package heap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks TopKSelector against sorting the whole stream.
+ */
+class TopKSelectorTest
+{
+	private static final int STREAM = 20000;
+
+	private static double[] randomKeys(Random random, int n)
+	{
+		double[] keys = new double[n];
+		for (int i = 0; i < n; i++) keys[i] = random.nextInt(5000);
+		return keys;
+	}
+
+	private static Integer[] indices(int from, int n)
+	{
+		Integer[] values = new Integer[n];
+		for (int i = 0; i < n; i++) values[i] = from + i;
+		return values;
+	}
+
+	// the k smallest keys of the stream, in order
+	private static double[] smallest(double[] keys, int k)
+	{
+		double[] sorted = keys.clone();
+		Arrays.sort(sorted);
+		return Arrays.copyOf(sorted, Math.min(k, sorted.length));
+	}
+
+	private static double[] keysOf(TopKSelector<Integer> selector)
+	{
+		return selector.toSortedList().stream().mapToDouble(node -> node._key).toArray();
+	}
+
+	@Test
+	void test_offer()
+	{
+		Random random = new Random(361);
+		for (int k : new int[] {1, 2, 17, 1000, STREAM + 10})
+		{
+			double[] keys = randomKeys(random, STREAM);
+
+			TopKSelector<Integer> selector = new TopKSelector<Integer>(k);
+			for (int i = 0; i < STREAM; i++) selector.offer(keys[i], i);
+
+			assertEquals(Math.min(k, STREAM), selector.size());
+			assertArrayEquals(smallest(keys, k), keysOf(selector));
+
+			// each payload still goes with its key
+			for (HeapNode<Integer> node : selector.toSortedList()) assertEquals(keys[node._data], node._key);
+		}
+	}
+
+	@Test
+	void test_threshold()
+	{
+		TopKSelector<String> selector = new TopKSelector<String>(2);
+		assertEquals(Double.POSITIVE_INFINITY, selector.threshold());
+
+		assertTrue(selector.offer(5, "a"));
+		assertTrue(selector.offer(new HeapNode<String>("b", 3)));
+		assertEquals(5, selector.threshold());
+
+		// a key equal to the threshold is not competitive
+		assertFalse(selector.offer(5, "c"));
+		assertTrue(selector.offer(4, "d"));
+		assertEquals(4, selector.threshold());
+		assertEquals("d", selector.toSortedList().get(1)._data);
+
+		// a smaller key evicts one of the tied largest keys, either one
+		selector.clear();
+		selector.offer(5, "a");
+		selector.offer(5, "b");
+		assertTrue(selector.offer(1, "c"));
+		List<HeapNode<String>> kept = selector.toSortedList();
+		assertEquals("c", kept.get(0)._data);
+		assertEquals(5, kept.get(1)._key);
+
+		selector.clear();
+		assertTrue(selector.isEmpty());
+		assertEquals(Double.POSITIVE_INFINITY, selector.threshold());
+	}
+
+	@Test
+	void test_batch_offer()
+	{
+		Random random = new Random(361);
+		double[] keys = randomKeys(random, STREAM);
+		Integer[] values = indices(0, STREAM);
+
+		TopKSelector<Integer> one = new TopKSelector<Integer>(100);
+		for (int i = 0; i < STREAM; i++) one.offer(keys[i], values[i]);
+
+		// in one batch, and in batches that start part way through filling
+		TopKSelector<Integer> batch = new TopKSelector<Integer>(100);
+		assertEquals(batch.offer(keys, values), 100 + countAccepted(keys, 100, 100));
+		assertArrayEquals(keysOf(one), keysOf(batch));
+
+		TopKSelector<Integer> pieces = new TopKSelector<Integer>(100);
+		for (int from = 0; from < STREAM; from += 37)
+		{
+			int to = Math.min(STREAM, from + 37);
+			pieces.offer(Arrays.copyOfRange(keys, from, to), Arrays.copyOfRange(values, from, to));
+		}
+		assertArrayEquals(keysOf(one), keysOf(pieces));
+
+		TopKSelector<Integer> nulls = new TopKSelector<Integer>(100);
+		nulls.offer(keys, null);
+		assertArrayEquals(keysOf(one), keysOf(nulls));
+		assertNull(nulls.toSortedList().get(0)._data);
+	}
+
+	// how many of keys[k...] a selector of k, fed in order, keeps
+	private static int countAccepted(double[] keys, int from, int k)
+	{
+		TopKSelector<Integer> selector = new TopKSelector<Integer>(k);
+		for (int i = 0; i < from; i++) selector.offer(keys[i], i);
+
+		int accepted = 0;
+		for (int i = from; i < keys.length; i++) if (selector.offer(keys[i], i)) accepted++;
+		return accepted;
+	}
+
+	@Test
+	void test_merge()
+	{
+		Random random = new Random(361);
+		final int THREADS = 8;
+		final int K = 50;
+
+		List<TopKSelector<Integer>> selectors = new ArrayList<TopKSelector<Integer>>();
+		TopKSelector<Integer> all = new TopKSelector<Integer>(K);
+		double[] everything = new double[0];
+
+		for (int t = 0; t < THREADS; t++)
+		{
+			double[] keys = randomKeys(random, 1000 * (t + 1));
+			TopKSelector<Integer> selector = new TopKSelector<Integer>(K);
+			selector.offer(keys, indices(0, keys.length));
+			selectors.add(selector);
+
+			all.offer(keys, indices(0, keys.length));
+			everything = concat(everything, keys);
+		}
+
+		double[] expected = smallest(everything, K);
+		assertArrayEquals(expected, keysOf(all));
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		TopKSelector<Integer> merged = TopKSelector.mergeAll(selectors, pool);
+		assertArrayEquals(expected, keysOf(merged));
+		assertEquals(K, merged.capacity());
+
+		// the inputs are unchanged
+		assertEquals(K, selectors.get(0).size());
+
+		TopKSelector<Integer> single = TopKSelector.mergeAll(selectors.subList(0, 1), pool);
+		assertArrayEquals(keysOf(selectors.get(0)), keysOf(single));
+
+		TopKSelector<Integer> pair = new TopKSelector<Integer>(K);
+		pair.merge(selectors.get(0));
+		pair.merge(selectors.get(1));
+		pair.merge(pair);
+		assertArrayEquals(keysOf(TopKSelector.mergeAll(selectors.subList(0, 2), pool)), keysOf(pair));
+
+		pool.shutdown();
+	}
+
+	private static double[] concat(double[] a, double[] b)
+	{
+		double[] c = Arrays.copyOf(a, a.length + b.length);
+		System.arraycopy(b, 0, c, a.length, b.length);
+		return c;
+	}
+
+	@Test
+	void test_bad_arguments()
+	{
+		assertThrows(IllegalArgumentException.class, () -> new TopKSelector<Integer>(0));
+
+		TopKSelector<Integer> selector = new TopKSelector<Integer>(2);
+		assertThrows(IllegalArgumentException.class, () -> selector.offer(Double.NaN, 1));
+
+		// a NaN while filling leaves the selector as it was
+		assertThrows(IllegalArgumentException.class, () -> selector.offer(new double[] {1, Double.NaN}, null));
+		assertTrue(selector.isEmpty());
+
+		selector.offer(new double[] {1, 2}, null);
+		assertThrows(IllegalArgumentException.class, () -> selector.offer(Double.NaN, 1));
+		assertThrows(IllegalArgumentException.class, () -> selector.offer(new double[] {0, Double.NaN}, null));
+		assertThrows(IllegalArgumentException.class, () -> selector.merge(null));
+
+		List<TopKSelector<Integer>> mixed = new ArrayList<TopKSelector<Integer>>();
+		mixed.add(new TopKSelector<Integer>(2));
+		mixed.add(new TopKSelector<Integer>(3));
+		assertThrows(IllegalArgumentException.class, () -> TopKSelector.mergeAll(mixed));
+		assertThrows(IllegalArgumentException.class, () -> TopKSelector.mergeAll(new ArrayList<TopKSelector<Integer>>()));
+		assertThrows(IllegalArgumentException.class, () -> TopKSelector.mergeAll(null));
+	}
+}
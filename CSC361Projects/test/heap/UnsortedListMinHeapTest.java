@@ -28,4 +28,40 @@ class UnsortedListMinHeapTest extends MinHeapTest
 		extractMinReverseTest(heap);
 	}
 
+	@Test
+	void test_key_updates()
+	{
+		keyUpdateTest(new UnsortedListMinHeap<Integer>());
+	}
+
+	@Test
+	void test_interleaved()
+	{
+		interleavedTest(new UnsortedListMinHeap<Integer>());
+	}
+
+	@Test
+	void test_bulk_extract()
+	{
+		bulkExtractTest(new UnsortedListMinHeap<Integer>());
+	}
+
+	@Test
+	void test_meld()
+	{
+		meldTest(UnsortedListMinHeap<Integer>::new);
+	}
+
+	@Test
+	void test_tie_order()
+	{
+		tieOrderTest(new UnsortedListMinHeap<Integer>());
+	}
+
+	@Test
+	void test_nan_keys()
+	{
+		nanKeyTest(new UnsortedListMinHeap<Integer>());
+	}
+
 }